@@ -0,0 +1,114 @@
+package frc.robot.benchmarks;
+
+import frc.robot.util.ArmCartesianState;
+import frc.robot.util.ArmJointState;
+import frc.robot.Constants.ArmConstants;
+import frc.robot.util.ForwardKinematicsUtil;
+import frc.robot.util.InverseKinematicsTable;
+import frc.robot.util.InverseKinematicsUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forward and inverse kinematics, both the array returning versions and the ones that write into caller owned state, plus the inverse kinematics table.
+ * The inputs cycle through a fixed set of random reachable targets so the JIT can't constant fold them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KinematicsBenchmark {
+    private static final int INPUT_COUNT = 1024; // power of 2 so we can mask instead of mod
+
+    private final double[] xs = new double[INPUT_COUNT];
+    private final double[] ys = new double[INPUT_COUNT];
+    private final double[] zs = new double[INPUT_COUNT];
+    private final double[] angles1 = new double[INPUT_COUNT];
+    private final double[] angles2 = new double[INPUT_COUNT];
+    private final double[] turretAngles = new double[INPUT_COUNT];
+
+    private final ArmJointState jointState = new ArmJointState();
+    private final ArmCartesianState cartesianState = new ArmCartesianState();
+    private InverseKinematicsTable table;
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        this.table = InverseKinematicsTable.build(ArmConstants.IK_TABLE_RESOLUTION);
+        Random random = new Random(2023);
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            this.xs[i] = 10 + random.nextDouble() * 30;
+            this.ys[i] = 5 + random.nextDouble() * 40;
+            this.zs[i] = -20 + random.nextDouble() * 40;
+            this.angles1[i] = 10 + random.nextDouble() * 160;
+            this.angles2[i] = 20 + random.nextDouble() * 300;
+            this.turretAngles[i] = -180 + random.nextDouble() * 360;
+        }
+    }
+
+    private int next() {
+        this.index = (this.index + 1) & (INPUT_COUNT - 1);
+        return this.index;
+    }
+
+    @Benchmark
+    public double[] inverseKinematicsUnflipped() {
+        int i = next();
+        return InverseKinematicsUtil.getAnglesFromCoordinates(this.xs[i], this.ys[i], this.zs[i], false);
+    }
+
+    @Benchmark
+    public double[] inverseKinematicsFlipped() {
+        int i = next();
+        return InverseKinematicsUtil.getAnglesFromCoordinates(this.xs[i], this.ys[i], this.zs[i], true);
+    }
+
+    @Benchmark
+    public ArmJointState inverseKinematicsUnflippedInto() {
+        int i = next();
+        return InverseKinematicsUtil.getAnglesFromCoordinates(this.xs[i], this.ys[i], this.zs[i], false, this.jointState);
+    }
+
+    @Benchmark
+    public ArmJointState inverseKinematicsFlippedInto() {
+        int i = next();
+        return InverseKinematicsUtil.getAnglesFromCoordinates(this.xs[i], this.ys[i], this.zs[i], true, this.jointState);
+    }
+
+    @Benchmark
+    public ArmJointState inverseKinematicsTableUnflipped() {
+        int i = next();
+        return this.table.getAnglesFromCoordinates(this.xs[i], this.ys[i], this.zs[i], false, this.jointState);
+    }
+
+    @Benchmark
+    public ArmJointState inverseKinematicsTableFlipped() {
+        int i = next();
+        return this.table.getAnglesFromCoordinates(this.xs[i], this.ys[i], this.zs[i], true, this.jointState);
+    }
+
+    @Benchmark
+    public double[] forwardKinematics() {
+        int i = next();
+        return ForwardKinematicsUtil.getCoordinatesFromAngles(this.angles1[i], this.angles2[i], this.turretAngles[i]);
+    }
+
+    @Benchmark
+    public ArmCartesianState forwardKinematicsInto() {
+        int i = next();
+        return ForwardKinematicsUtil.getCoordinatesFromAngles(this.angles1[i], this.angles2[i], this.turretAngles[i], this.cartesianState);
+    }
+}
@@ -0,0 +1,84 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.util.MathUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The law of cosines/sines helpers and {@link MathUtil#findFieldRelativePose(Pose2d, Pose2d)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathUtilBenchmark {
+    private static final int INPUT_COUNT = 1024; // power of 2 so we can mask instead of mod
+
+    private final double[] sidesA = new double[INPUT_COUNT];
+    private final double[] sidesB = new double[INPUT_COUNT];
+    private final double[] sidesC = new double[INPUT_COUNT];
+    private final double[] anglesDeg = new double[INPUT_COUNT];
+    private final Pose2d[] robotPoses = new Pose2d[INPUT_COUNT];
+    private final Pose2d[] clawPoses = new Pose2d[INPUT_COUNT];
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(2023);
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            // Keep the triangles valid so acos/asin don't just return NaN
+            double a = 10 + random.nextDouble() * 20;
+            double b = 10 + random.nextDouble() * 20;
+            this.sidesA[i] = a;
+            this.sidesB[i] = b;
+            this.sidesC[i] = Math.abs(a - b) + random.nextDouble() * (a + b - Math.abs(a - b));
+            this.anglesDeg[i] = random.nextDouble() * 90;
+            this.robotPoses[i] = new Pose2d(random.nextDouble() * 16, random.nextDouble() * 8, new Rotation2d(random.nextDouble() * 2 * Math.PI));
+            this.clawPoses[i] = new Pose2d(random.nextDouble(), random.nextDouble() - 0.5, new Rotation2d());
+        }
+    }
+
+    private int next() {
+        this.index = (this.index + 1) & (INPUT_COUNT - 1);
+        return this.index;
+    }
+
+    @Benchmark
+    public double lawOfCosinesForAngle() {
+        int i = next();
+        return MathUtil.lawOfCosinesForAngle(this.sidesA[i], this.sidesB[i], this.sidesC[i]);
+    }
+
+    @Benchmark
+    public double lawOfCosinesForSide() {
+        int i = next();
+        return MathUtil.lawOfCosinesForSide(this.sidesA[i], this.sidesB[i], this.anglesDeg[i]);
+    }
+
+    @Benchmark
+    public double lawOfSinesForAngle() {
+        int i = next();
+        return MathUtil.lawOfSinesForAngle(this.anglesDeg[i], this.sidesA[i] + this.sidesB[i], this.sidesB[i]);
+    }
+
+    @Benchmark
+    public Pose2d findFieldRelativePose() {
+        int i = next();
+        return MathUtil.findFieldRelativePose(this.robotPoses[i], this.clawPoses[i]);
+    }
+}
@@ -0,0 +1,115 @@
+package frc.robot.benchmarks;
+
+import frc.robot.util.MutableVec3;
+import frc.robot.util.Point;
+import frc.robot.util.Vec3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The arithmetic ops on {@link Point}, next to the same ops on {@link Vec3} and {@link MutableVec3}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointBenchmark {
+    private static final int INPUT_COUNT = 1024; // power of 2 so we can mask instead of mod
+
+    private final Point[] points = new Point[INPUT_COUNT];
+    private final Vec3[] vectors = new Vec3[INPUT_COUNT];
+    private final MutableVec3 mutableVector = new MutableVec3();
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(2023);
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            this.points[i] = new Point(1 + random.nextDouble() * 40, 1 + random.nextDouble() * 40, 1 + random.nextDouble() * 40);
+            this.vectors[i] = this.points[i].toVec3();
+        }
+    }
+
+    private Point next() {
+        this.index = (this.index + 1) & (INPUT_COUNT - 1);
+        return this.points[this.index];
+    }
+
+    private Vec3 nextVector() {
+        this.index = (this.index + 1) & (INPUT_COUNT - 1);
+        return this.vectors[this.index];
+    }
+
+    @Benchmark
+    public Point add() {
+        return next().add(next());
+    }
+
+    @Benchmark
+    public Point sub() {
+        return next().sub(next());
+    }
+
+    @Benchmark
+    public Point mul() {
+        return next().mul(next());
+    }
+
+    @Benchmark
+    public Point div() {
+        return next().div(next());
+    }
+
+    @Benchmark
+    public Point mod() {
+        return next().mod(next());
+    }
+
+    @Benchmark
+    public Point pow() {
+        return next().pow(next());
+    }
+
+    @Benchmark
+    public double distanceFromCenter() {
+        return next().distanceFromCenter();
+    }
+
+    @Benchmark
+    public Vec3 vec3Plus() {
+        return nextVector().plus(nextVector());
+    }
+
+    @Benchmark
+    public Vec3 vec3ScaleAdd() {
+        return nextVector().scaleAdd(nextVector(), 0.5);
+    }
+
+    @Benchmark
+    public Vec3 vec3Cross() {
+        return nextVector().cross(nextVector());
+    }
+
+    @Benchmark
+    public MutableVec3 mutableVec3ScaleAdd() {
+        return this.mutableVector.set(nextVector()).scaleAdd(nextVector(), 0.5);
+    }
+
+    @Benchmark
+    public MutableVec3 mutableVec3Lerp() {
+        return this.mutableVector.set(nextVector()).lerp(nextVector(), 0.25);
+    }
+}
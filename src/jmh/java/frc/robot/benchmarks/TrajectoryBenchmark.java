@@ -0,0 +1,99 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryUtil;
+import frc.robot.util.TrajectoryBinary;
+import frc.robot.wrappers.TrajectoryReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the deployed PathWeaver files, from the JSON and from the compiled {@link TrajectoryBinary}, and what {@link TrajectoryReader#periodic()} does with a new flattened NetworkTables array: validating it and filling the spare {@link TrajectoryReader.StateBuffer}.
+ * The deploy directory comes from the {@code frc.deployDir} system property (the jmh Gradle task sets it), or src/main/deploy relative to the working directory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrajectoryBenchmark {
+    @Param({"MoveOneMeter.wpilib.json", "DriveBackwardsOntoChargeStationBlue.wpilib.json", "DriveForwardsToGridBlue.wpilib.json"})
+    public String pathFile;
+
+    private Path path;
+    private Path binaryPath;
+    private double[] flattened;
+    private final TrajectoryReader.StateBuffer[] buffers = {new TrajectoryReader.StateBuffer(512), new TrajectoryReader.StateBuffer(512)};
+    private int nextBuffer;
+
+    @Setup
+    public void setup() throws IOException {
+        this.path = Paths.get(System.getProperty("frc.deployDir", "src/main/deploy"), "paths", this.pathFile);
+        Trajectory trajectory = TrajectoryUtil.fromPathweaverJson(this.path);
+        this.flattened = flatten(trajectory);
+        this.binaryPath = Files.createTempFile("trajectory", TrajectoryBinary.EXTENSION);
+        this.binaryPath.toFile().deleteOnExit();
+        TrajectoryBinary.write(trajectory, this.binaryPath);
+    }
+
+    /**
+     * Flattens a trajectory the same way the trajectory is sent over NetworkTables.
+     */
+    private static double[] flatten(Trajectory trajectory) {
+        List<Trajectory.State> states = trajectory.getStates();
+        double[] flattened = new double[states.size() * TrajectoryReader.VALUES_PER_STATE];
+        for (int i = 0; i < states.size(); i++) {
+            Trajectory.State state = states.get(i);
+            int shift = i * TrajectoryReader.VALUES_PER_STATE;
+            flattened[shift + 0] = state.timeSeconds;
+            flattened[shift + 1] = state.velocityMetersPerSecond;
+            flattened[shift + 2] = state.accelerationMetersPerSecondSq;
+            flattened[shift + 3] = state.poseMeters.getX();
+            flattened[shift + 4] = state.poseMeters.getY();
+            flattened[shift + 5] = state.poseMeters.getRotation().getRadians();
+            flattened[shift + 6] = state.curvatureRadPerMeter;
+        }
+        return flattened;
+    }
+
+    @Benchmark
+    public Trajectory fromPathweaverJson() throws IOException {
+        return TrajectoryUtil.fromPathweaverJson(this.path);
+    }
+
+    @Benchmark
+    public Trajectory fromBinary() throws IOException {
+        return TrajectoryBinary.read(this.binaryPath);
+    }
+
+    /**
+     * Alternates between two buffers like {@link TrajectoryReader} does.
+     */
+    @Benchmark
+    public TrajectoryReader.StateBuffer trajectoryReaderFill() {
+        if (!TrajectoryReader.isValid(this.flattened)) {
+            throw new IllegalStateException("Benchmark trajectory " + this.pathFile + " doesn't pass validation");
+        }
+        TrajectoryReader.StateBuffer buffer = this.buffers[this.nextBuffer];
+        this.nextBuffer ^= 1;
+        buffer.fill(this.flattened);
+        return buffer;
+    }
+}
@@ -10,6 +10,7 @@ import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.kinematics.DifferentialDriveKinematics;
 import frc.robot.util.ForwardKinematicsUtil;
 import frc.robot.util.MathUtil;
+import frc.robot.util.Vec3;
 
 /**
  * The Constants class provides a convenient place for teams to hold robot-wide numerical or boolean
@@ -62,8 +63,106 @@ public final class Constants {
         public static final double SPEED_DEC_ON_UNFLIP = 0.2;
         public static final double SPEED_DEC_ON_FLIP = 1.0;
         public static final double COMPLEMENTING_FLIP_SPEED = 1.2;
-        public static final double[] STARTING_COORDS = ForwardKinematicsUtil.getCoordinatesFromAngles(ARM_1_INITIAL_ANGLE, ARM_2_INITIAL_ANGLE, 0);
-        public static final double[] FLIP_COORDS_WHEN_FLIPPING = {31.0, 17.0, 0.0};
+        public static final Vec3 STARTING_COORDS = Vec3.fromArray(ForwardKinematicsUtil.getCoordinatesFromAngles(ARM_1_INITIAL_ANGLE, ARM_2_INITIAL_ANGLE, 0));
+        public static final Vec3 FLIP_COORDS_WHEN_FLIPPING = new Vec3(31.0, 17.0, 0.0);
+
+        /**
+         * Look up the inverse kinematics in a precomputed {@link frc.robot.util.InverseKinematicsTable} instead of solving them every time.
+         * The table is built in the background at startup, until then the arm uses the analytic solver.
+         */
+        public static final boolean USE_IK_TABLE = true;
+        public static final double IK_TABLE_RESOLUTION = 1.0; // inches between grid points, about 5MB of tables at 1 inch
+        public static final boolean VERIFY_IK_TABLE = false; // prints the table's max error against the analytic solver once it is built
+
+        /**
+         * How the arm joint PIDs are run, picked with {@link #CONTROL_MODE}
+         */
+        public enum ControlMode {
+            /**
+             * From the arm's periodic() (or a command calling {@link frc.robot.subsystems.ArmSubsystem#goTowardTargetCoordinates()}), so at the
+             * scheduler's 50Hz
+             */
+            SCHEDULER,
+            /**
+             * On a {@link edu.wpi.first.wpilibj.Notifier} every {@link #HIGH_RATE_CONTROL_PERIOD} seconds, independent of the scheduler.
+             * The main thread hands the targets over through a {@link frc.robot.util.SetpointBuffer}.
+             */
+            HIGH_RATE,
+            /**
+             * On each SPARK MAX's own position PID, which runs at 1kHz on the motor controller. The RIO only sends a new reference, gain or output range when one changes.
+             */
+            ONBOARD
+        }
+
+        /**
+         * How the joint PIDs are run. HIGH_RATE runs them on their own thread every {@link #HIGH_RATE_CONTROL_PERIOD} instead of at the scheduler's 50Hz,
+         * ONBOARD runs them on the SPARK MAXes.
+         */
+        public static final ControlMode CONTROL_MODE = ControlMode.HIGH_RATE;
+        public static final double HIGH_RATE_CONTROL_PERIOD = 0.005; // seconds, 200Hz
+
+        /**
+         * Move the joints along time-synchronized trapezoidal profiles (see {@link frc.robot.util.ArmMotionProfile}) instead of handing the PIDs the final angles.
+         */
+        public static final boolean USE_MOTION_PROFILE = true;
+        /**
+         * How fast each joint turns at full output, in degrees per second: a NEO's 5676 RPM free speed times the encoder conversion factor.
+         * The inverse is the velocity feedforward gain.
+         */
+        public static final double PIVOT1_FREE_SPEED = 5676.0 / 60 * 2.7;
+        public static final double PIVOT2_FREE_SPEED = 5676.0 / 60 * 3.65;
+        public static final double TURRET_FREE_SPEED = 5676.0 / 60 * 1;
+        /**
+         * The profiles plan for this fraction of the speed the output limit allows, which leaves the PID some output to correct errors with.
+         */
+        public static final double PROFILE_VELOCITY_HEADROOM = 0.8;
+        // TODO: TUNE (degrees per second squared)
+        public static final double PIVOT1_MAX_ACCELERATION = 360;
+        public static final double PIVOT2_MAX_ACCELERATION = 480;
+        public static final double TURRET_MAX_ACCELERATION = 180;
+
+        /**
+         * Add the gravity and inertia feedforward from {@link frc.robot.util.ArmFeedforward} to the pivot outputs. Off until the masses below have been
+         * measured on the real arm, a feedforward from wrong masses pushes the arm the wrong amount.
+         */
+        public static final boolean USE_ARM_FEEDFORWARD = false;
+        // Rough estimates (pounds), only used when USE_ARM_FEEDFORWARD is on
+        public static final double LIMB1_MASS = 4.0;
+        public static final double LIMB2_MASS = 3.0;
+        public static final double CLAW_MASS = 5.0;
+        public static final double GAME_PIECE_MASS = 1.4; // a cone, the cube is much lighter
+        public static final double LIMB1_CENTER_OF_MASS = 0.5; // fraction of the limb's length from its pivot
+        public static final double LIMB2_CENTER_OF_MASS = 0.5;
+        /**
+         * Torque at each pivot at full output, in inch-pounds: a NEO's 2.6 Nm (23 in-lb) stall torque times the gearing (same as the encoder conversion factors).
+         */
+        public static final double PIVOT1_STALL_TORQUE = 23.0 * 360 / 2.7;
+        public static final double PIVOT2_STALL_TORQUE = 23.0 * 360 / 3.65;
+
+        /**
+         * Arm characterization, see {@link frc.robot.commands.armcommands.ArmSysIdCommand}
+         */
+        public static final double SYSID_PERIOD = 0.005; // seconds between samples
+        public static final int SYSID_MAX_SAMPLES = 4000; // per test, 20 seconds at SYSID_PERIOD
+        public static final double SYSID_RAMP_RATE = 0.5; // volts per second for the slow tests
+        public static final double SYSID_STEP_VOLTAGE = 3.0; // volts for the fast tests
+        public static final double SYSID_MAX_TEST_SECONDS = 15.0;
+        public static final double SYSID_REST_SECONDS = 2.0; // between tests, so the arm settles
+        // The range each joint may move in during a test, in degrees. TODO: check these on the real arm
+        public static final double SYSID_PIVOT1_MIN_ANGLE = ARM_1_INITIAL_ANGLE;
+        public static final double SYSID_PIVOT1_MAX_ANGLE = 100;
+        public static final double SYSID_PIVOT2_MIN_ANGLE = ARM_2_INITIAL_ANGLE;
+        public static final double SYSID_PIVOT2_MAX_ANGLE = 160;
+        public static final double SYSID_TURRET_MIN_ANGLE = -90;
+        public static final double SYSID_TURRET_MAX_ANGLE = 90;
+
+        /**
+         * Keep-out volumes and limits for {@link frc.robot.util.ArmPathPlanner}.
+         */
+        public static final double ROBOT_FRAME_HEIGHT = 12.0; // TODO: measure, top of the bumpers/frame the claw has to stay above
+        public static final double CLAW_CLEARANCE = 3.0; // margin kept between the claw and the floor or frame
+        public static final double PATH_MAX_SPEED = 40.0; // inches per second
+        public static final double PATH_MAX_ACCELERATION = 80.0; // inches per second squared
     }
 
     /**
@@ -157,6 +256,10 @@ public final class Constants {
         public static final double TURN_CONSTANT = 0.02; // was 0.015
         public static final double ANGLE_DELTA = 1;
 
+        public static final double ODOMETRY_PERIOD = 0.005; // seconds between odometry samples, 200Hz
+        public static final int ODOMETRY_QUEUE_SIZE = 64; // samples waiting for the main loop, about 16 loops at 200Hz
+        public static final int POSE_HISTORY_SIZE = 1024; // odometry samples remembered for DriveTrainSubsystem.getPoseAt, about 5 seconds
+
         /**
          * Constants relating to trajectory generation
          */
@@ -167,6 +270,11 @@ public final class Constants {
             // Reasonable baseline values for a RAMSETE follower in units of meters and seconds
             public static final double RAMSETE_B = 2;
             public static final double RAMSETE_ZETA = 0.7;
+
+            // Generated trajectories are cached (see TrajectoryCache), requests this close together share a trajectory
+            public static final int CACHE_SIZE = 32;
+            public static final double CACHE_POSITION_QUANTUM_METERS = 0.01;
+            public static final double CACHE_ANGLE_QUANTUM_DEGREES = 0.5;
         }
     }
 
@@ -201,17 +309,17 @@ public final class Constants {
         public static final double Z_RIGHT = -Z_DISTANCE_TO_SIDE;
 
         // relative to the center of the robot
-        public static final double[] BOTTOM_LEFT_POS = {X_BOTTOM_DISTANCE, Y_FLOOR + VERTICAL_PLACEMENT_OFFSET_POLE, Z_LEFT};
-        public static final double[] BOTTOM_MIDDLE_POS = {X_BOTTOM_DISTANCE, Y_FLOOR + VERTICAL_PLACEMENT_OFFSET_PLAT, Z_MIDDLE};
-        public static final double[] BOTTOM_RIGHT_POS = {X_BOTTOM_DISTANCE, Y_FLOOR + VERTICAL_PLACEMENT_OFFSET_POLE, Z_RIGHT};
+        public static final Vec3 BOTTOM_LEFT_POS = new Vec3(X_BOTTOM_DISTANCE, Y_FLOOR + VERTICAL_PLACEMENT_OFFSET_POLE, Z_LEFT);
+        public static final Vec3 BOTTOM_MIDDLE_POS = new Vec3(X_BOTTOM_DISTANCE, Y_FLOOR + VERTICAL_PLACEMENT_OFFSET_PLAT, Z_MIDDLE);
+        public static final Vec3 BOTTOM_RIGHT_POS = new Vec3(X_BOTTOM_DISTANCE, Y_FLOOR + VERTICAL_PLACEMENT_OFFSET_POLE, Z_RIGHT);
 
-        public static final double[] CENTER_LEFT_POS = {X_MIDDLE_DISTANCE, Y_MIDDLE_PLATFORM_HEIGHT + VERTICAL_PLACEMENT_OFFSET_POLE, Z_LEFT};
-        public static final double[] CENTER_MIDDLE_POS = {X_MIDDLE_DISTANCE, Y_MIDDLE_PLATFORM_HEIGHT + VERTICAL_PLACEMENT_OFFSET_PLAT, Z_MIDDLE};
-        public static final double[] CENTER_RIGHT_POS = {X_MIDDLE_DISTANCE, Y_MIDDLE_PLATFORM_HEIGHT + VERTICAL_PLACEMENT_OFFSET_POLE, Z_RIGHT};
+        public static final Vec3 CENTER_LEFT_POS = new Vec3(X_MIDDLE_DISTANCE, Y_MIDDLE_PLATFORM_HEIGHT + VERTICAL_PLACEMENT_OFFSET_POLE, Z_LEFT);
+        public static final Vec3 CENTER_MIDDLE_POS = new Vec3(X_MIDDLE_DISTANCE, Y_MIDDLE_PLATFORM_HEIGHT + VERTICAL_PLACEMENT_OFFSET_PLAT, Z_MIDDLE);
+        public static final Vec3 CENTER_RIGHT_POS = new Vec3(X_MIDDLE_DISTANCE, Y_MIDDLE_PLATFORM_HEIGHT + VERTICAL_PLACEMENT_OFFSET_POLE, Z_RIGHT);
 
-        public static final double[] TOP_LEFT_POS = {X_TOP_DISTANCE, Y_TOP_PLATFORM_HEIGHT + VERTICAL_PLACEMENT_OFFSET_POLE, Z_LEFT};
-        public static final double[] TOP_CENTER_POS = {X_TOP_DISTANCE, Y_TOP_PLATFORM_HEIGHT + VERTICAL_PLACEMENT_OFFSET_PLAT, Z_MIDDLE};
-        public static final double[] TOP_RIGHT_POS = {X_TOP_DISTANCE, Y_TOP_PLATFORM_HEIGHT + VERTICAL_PLACEMENT_OFFSET_POLE, Z_RIGHT};
+        public static final Vec3 TOP_LEFT_POS = new Vec3(X_TOP_DISTANCE, Y_TOP_PLATFORM_HEIGHT + VERTICAL_PLACEMENT_OFFSET_POLE, Z_LEFT);
+        public static final Vec3 TOP_CENTER_POS = new Vec3(X_TOP_DISTANCE, Y_TOP_PLATFORM_HEIGHT + VERTICAL_PLACEMENT_OFFSET_PLAT, Z_MIDDLE);
+        public static final Vec3 TOP_RIGHT_POS = new Vec3(X_TOP_DISTANCE, Y_TOP_PLATFORM_HEIGHT + VERTICAL_PLACEMENT_OFFSET_POLE, Z_RIGHT);
     }
 
     /**
@@ -226,6 +334,10 @@ public final class Constants {
         public static final double ROBOT_DIAGONAL_RADIUS = Math.sqrt(Math.pow(ROBOT_WIDTH / 2, 2) + Math.pow(ROBOT_LENGTH / 2, 2)); // about 23.05 inches
         public static final double CAMERA_SIDE_OFFSET_FROM_CENTER_IN = 7.5;
         public static final double CAMERA_SIDE_OFFSET_FROM_CENTER_M = MathUtil.inchesToMeters(CAMERA_SIDE_OFFSET_FROM_CENTER_IN);
+
+        // Startup (see StartupPipeline)
+        public static final int STARTUP_WORKERS = 2; // one per RoboRIO core
+        public static final double STARTUP_TIMEOUT_SECONDS = 15; // the IMU calibration alone is about 4 seconds
     }
 
     /**
@@ -372,7 +484,12 @@ public final class Constants {
                     {40.45,  42.19,  18.22, 0}  // BLUE SIDE, RED HUMAN PLAYER TAG
             };
 
-            public static final double LATENCY = 0.2; //average april tag latency (I'm guessing in seconds)
+            public static final double JETSON_PROCESSING_LATENCY = 0.05; // seconds from a frame being captured to its pose being published
+            public static final double MAX_MEASUREMENT_AGE = 1.0; // seconds, older measurements are thrown away
+            public static final double MAX_TAG_DISTANCE_METERS = 4.0; // further than this from every tag, the pose is too noisy to use
+            public static final double MAX_INNOVATION_METERS = 1.0; // further than this from the estimate, the measurement is probably wrong
+            public static final int MAX_INNOVATION_REJECTIONS = 10; // in a row, after which the estimate is probably what's wrong
+            public static final double VISION_XY_STD_DEV = 0.1; // meters, right next to a tag; grows with the square of the distance
         }
     }
 }
@@ -7,6 +7,12 @@ package frc.robot;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.RobotConstants;
+import frc.robot.subsystems.staticsubsystems.RobotGyro;
+import frc.robot.subsystems.staticsubsystems.SensorSnapshot;
+import frc.robot.util.CANConfigurator;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.StartupPipeline;
 
 /**
  * The VM is configured to automatically run this class, and to call the functions corresponding to
@@ -29,10 +35,20 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void robotInit() {
+        StartupPipeline startup = new StartupPipeline(RobotConstants.STARTUP_WORKERS);
+        // The IMU takes seconds to calibrate, so start it first and build everything else meanwhile
+        startup.submit("gyro", true, RobotGyro::initialize);
+
         // Instantiate our RobotContainer.  This will perform all our button bindings, and put our
         // autonomous chooser on the dashboard.
-        this.robotContainer = new RobotContainer();
-        this.robotContainer.onRobotInit();
+        startup.runOnMain("RobotContainer", () -> this.robotContainer = new RobotContainer());
+        this.robotContainer.onRobotInit(startup);
+
+        // Hook the profiler into the scheduler so every command's initialize/execute/end gets timed
+        LoopProfiler.install(getPeriod());
+
+        // The scheduler can't start until the gyro and trajectories are ready
+        startup.awaitRequired(RobotConstants.STARTUP_TIMEOUT_SECONDS);
     }
 
     /**
@@ -48,9 +64,15 @@ public class Robot extends TimedRobot {
         // commands, running already-scheduled commands, removing finished or interrupted commands,
         // and running subsystem periodic() methods.  This must be called from the robot's periodic
         // block in order for anything in the Command-based framework to work.
+        LoopProfiler.beginLoop();
+        // Read every sensor once, so every subsystem and command this loop sees the same values
+        SensorSnapshot.sample();
+        // Take in a new GUI trajectory, if one was sent, before any command asks for it
+        this.robotContainer.trajectoryReader.periodic();
         CommandScheduler.getInstance().run();
+        LoopProfiler.endLoop();
+        CANConfigurator.periodic();
         // NetworkTables.getConnections();
-        // this.trajectoryReader.periodic();
     }
 
     /**
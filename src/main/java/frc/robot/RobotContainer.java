@@ -18,9 +18,10 @@ import frc.robot.Constants.PositionConstants;
 import frc.robot.Constants.OperatorConstants.ControllerConstants;
 import frc.robot.commands.armcommands.AimAssistCommand;
 import frc.robot.commands.armcommands.ArmControlCommand;
+import frc.robot.commands.armcommands.ArmSysIdCommand;
 import frc.robot.commands.armcommands.ArmTestCommand;
 import frc.robot.commands.armcommands.CalibrateArmPivotsCommand;
-import frc.robot.commands.armcommands.GoTowardsCoordinatesCommandAuto;
+import frc.robot.commands.armcommands.FollowArmPathCommand;
 import frc.robot.commands.armcommands.GoTowardsCoordinatesCommandTeleop;
 import frc.robot.commands.armcommands.PoseAimArmCommand;
 import frc.robot.commands.autocommands.Autos;
@@ -35,10 +36,12 @@ import frc.robot.subsystems.ClawGripSubsystem;
 import frc.robot.subsystems.ClawRotationSubsystem;
 import frc.robot.subsystems.DriveTrainSubsystem;
 import frc.robot.subsystems.staticsubsystems.LimeLight;
-import frc.robot.subsystems.staticsubsystems.RobotGyro;
 import frc.robot.wrappers.TrajectoryReader;
 
+import frc.robot.util.ArmMotionProfile;
 import frc.robot.util.CommandGenerator;
+import frc.robot.util.StartupPipeline;
+import frc.robot.util.Vec3;
 
 /**
  * This class is where the bulk of the robot should be declared. Since Command-based is a
@@ -74,31 +77,27 @@ public class RobotContainer {
     public final Supplier<ClawOpenandCloseCommand>         clawOpenandCloseCommand = () -> new ClawOpenandCloseCommand(clawGrip, xboxController);
     public final Supplier<ClawRotateCommand>               clawRotateCommand       = () -> new ClawRotateCommand(clawRotation, xboxController);
 
-    public final Supplier<GoTowardsCoordinatesCommandAuto> goToTopCenter           = () -> new GoTowardsCoordinatesCommandAuto(arm,  PositionConstants.TOP_CENTER_POS, 0.4, 0.4);
-    public final Supplier<GoTowardsCoordinatesCommandAuto> goToCenterMiddle        = () -> new GoTowardsCoordinatesCommandAuto(arm,  PositionConstants.CENTER_MIDDLE_POS, 0.4, 0.4);
-    public final Supplier<GoTowardsCoordinatesCommandAuto> goToCenterRight         = () -> new GoTowardsCoordinatesCommandAuto(arm,   PositionConstants.CENTER_RIGHT_POS, 0.4, 0.4);
-    public final Supplier<GoTowardsCoordinatesCommandAuto> goToStartingPos         = () -> new GoTowardsCoordinatesCommandAuto(arm,  ArmConstants.STARTING_COORDS , 0.2, 0.4);
+    public final Supplier<FollowArmPathCommand>            goToTopCenter           = () -> new FollowArmPathCommand(arm,  PositionConstants.TOP_CENTER_POS, 0.4, 0.4);
+    public final Supplier<FollowArmPathCommand>            goToCenterMiddle        = () -> new FollowArmPathCommand(arm,  PositionConstants.CENTER_MIDDLE_POS, 0.4, 0.4);
+    public final Supplier<FollowArmPathCommand>            goToCenterRight         = () -> new FollowArmPathCommand(arm,   PositionConstants.CENTER_RIGHT_POS, 0.4, 0.4);
+    public final Supplier<FollowArmPathCommand>            goToStartingPos         = () -> new FollowArmPathCommand(arm,  ArmConstants.STARTING_COORDS , 0.2, 0.4);
     public final Supplier<BalanceChargeStationCommand>     balanceCommand          = () -> new BalanceChargeStationCommand(driveTrain);
-    public final Supplier<GoTowardsCoordinatesCommandAuto> goToPickupPosX30        = () -> new GoTowardsCoordinatesCommandAuto(arm, new double[] {-30, ArmConstants.PICK_UP_POSITION_Y, 0}, 0.4, 0.4);
-    public final Supplier<GoTowardsCoordinatesCommandAuto> goToPickupPosX35        = () -> new GoTowardsCoordinatesCommandAuto(arm, new double[] {-35, ArmConstants.PICK_UP_POSITION_Y, 0}, 0.4, 0.4); 
-    public final Supplier<GoTowardsCoordinatesCommandAuto> goToAbovePickupPos      = () -> new GoTowardsCoordinatesCommandAuto(arm, new double[] {-35, ArmConstants.PICK_UP_POSITION_Y + 10, 0}, 0.4, 0.4); 
+    public final Supplier<FollowArmPathCommand>            goToPickupPosX30        = () -> new FollowArmPathCommand(arm, new Vec3(-30, ArmConstants.PICK_UP_POSITION_Y, 0), 0.4, 0.4);
+    public final Supplier<FollowArmPathCommand>            goToPickupPosX35        = () -> new FollowArmPathCommand(arm, new Vec3(-35, ArmConstants.PICK_UP_POSITION_Y, 0), 0.4, 0.4); 
+    public final Supplier<FollowArmPathCommand>            goToAbovePickupPos      = () -> new FollowArmPathCommand(arm, new Vec3(-35, ArmConstants.PICK_UP_POSITION_Y + 10, 0), 0.4, 0.4); 
 
-    public final Supplier<GoTowardsCoordinatesCommandAuto> goTowardsPickupCommand  = () -> new GoTowardsCoordinatesCommandAuto(arm, new double[] {-30, ArmConstants.PICK_UP_POSITION_Y, 0}, 0.4, 0.4); // Implement later during downtime
+    public final Supplier<FollowArmPathCommand>            goTowardsPickupCommand  = () -> new FollowArmPathCommand(arm, new Vec3(-30, ArmConstants.PICK_UP_POSITION_Y, 0), 0.4, 0.4); // Implement later during downtime
 
 
-    public CommandGenerator driveForwardOverChargeStationBlue     = new CommandGenerator("DriveForwardOverChargeStationBlue");
-    public CommandGenerator driveBackwardsOntoChargeStationBlue   = new CommandGenerator("DriveBackwardsOntoChargeStationBlue");
-    public CommandGenerator driveForwardOverChargeStationRed      = new CommandGenerator("DriveForwardOverChargeStationRed");
-    public CommandGenerator driveBackwardsOntoChargeStationRed    = new CommandGenerator("DriveBackwardsOntoChargeStationRed");
-    public CommandGenerator driveBackwardsToConeBlue              = new CommandGenerator("DriveBackwardsToConeBlue");
-    public CommandGenerator driveForwardsToGridBlue               = new CommandGenerator("DriveForwardsToGridBlue");
-    public CommandGenerator driveBackwardsToConeRed               = new CommandGenerator("DriveBackwardsToConeRed");
-    public CommandGenerator driveForwardsToGridRed                = new CommandGenerator("DriveForwardsToGridRed");
-    public CommandGenerator driveBackwardsOntoChargeStationDPRed  = new CommandGenerator("DriveBackwardsOntoChargeStationDPRed");
-    public CommandGenerator driveBackwardsOntoChargeStationDPBlue = new CommandGenerator("DriveBackwardsOntoChargeStationDPBlue");
-    public CommandGenerator moveOneMeter                          = new CommandGenerator("MoveOneMeter");
-    public CommandGenerator driveBackwardsToCubeBlue              = new CommandGenerator("DriveBackwardsToCubeBlue");
-    public CommandGenerator driveBackwardsToCubeRed               = new CommandGenerator("DriveBackwardsToCubeRed");
+    // Drawn for blue, mirrored for red (see CommandGenerator.getForAlliance)
+    public CommandGenerator driveForwardOverChargeStation     = new CommandGenerator("DriveForwardOverChargeStationBlue");
+    public CommandGenerator driveBackwardsOntoChargeStation   = new CommandGenerator("DriveBackwardsOntoChargeStationBlue");
+    public CommandGenerator driveBackwardsToCone              = new CommandGenerator("DriveBackwardsToConeBlue");
+    public CommandGenerator driveForwardsToGrid               = new CommandGenerator("DriveForwardsToGridBlue");
+    public CommandGenerator driveBackwardsOntoChargeStationDP = new CommandGenerator("DriveBackwardsOntoChargeStationDPBlue");
+    public CommandGenerator driveBackwardsToCube              = new CommandGenerator("DriveBackwardsToCubeBlue");
+    // The same on either alliance
+    public CommandGenerator moveOneMeter                      = new CommandGenerator("MoveOneMeter", false);
 
 
     private Command defaultAuto = Autos.defaultAuto(/* pass in parameters */); // placeholder, pass in subsystems or commands if needed
@@ -124,9 +123,11 @@ public class RobotContainer {
         // Configure the trigger bindings
         configureBindings();
 
-        // Poke the static classes so their static initializers are run at startup.
+        // The arm feedforward needs to know when the claw is carrying something
+        arm.setGamePieceSupplier(clawGrip::getClawClosed);
+
+        // Poke the static classes so their static initializers are run at startup. The gyro is brought up by the StartupPipeline.
         LimeLight.poke();
-        RobotGyro.poke();
     }
 
     /**
@@ -147,7 +148,7 @@ public class RobotContainer {
         // cancelling on release.
         // driverController.b().whileTrue(exampleSubsystem.exampleMethodCommand());
 
-        // driverController.joystick.button(ControllerConstants.RUN_GUI_TRAJECTORY_BUTTON_NUMBER).onTrue(this.driveTrain.generateRamseteCommand(this.trajectoryReader.currentTrajectory));
+        // driverController.joystick.button(ControllerConstants.RUN_GUI_TRAJECTORY_BUTTON_NUMBER).onTrue(this.driveTrain.generateRamseteCommand(this.trajectoryReader.getCurrentTrajectory()));
        
         // armController.joystick.button(ControllerConstants.CLAW_ROTATE_RIGHT_BUTTON_NUMBER).whileTrue(clawRotation.rotateClawRight());
         // armController.joystick.button(ControllerConstants.CLAW_ROTATE_LEFT_BUTTON_NUMBER).whileTrue(clawRotation.rotateClawLeft());
@@ -156,7 +157,7 @@ public class RobotContainer {
         xboxController.controller.button(ControllerConstants.CALIBRATE_ARM_BUTTON_NUMBER).onTrue(new CalibrateArmPivotsCommand(arm, xboxController));
         driverController.joystick.button(ControllerConstants.BALANCE_CHARGE_STATION_BUTTON_NUMBER).whileTrue(new BalanceChargeStationCommand(driveTrain));
 
-        driverController.joystick.button(7).onTrue(new GoTowardsCoordinatesCommandTeleop(arm, new double[] {-35, ArmConstants.PICK_UP_POSITION_Y, 0}, xboxController, 0.2, 0.2, false));
+        driverController.joystick.button(7).onTrue(new GoTowardsCoordinatesCommandTeleop(arm, new Vec3(-35, ArmConstants.PICK_UP_POSITION_Y, 0), xboxController, 0.2, 0.2, false));
         //driverController.joystick.button(1).whileTrue(new PoseAimArmCommand(arm, driveTrain, new Translation3d(20,60,0)));
     }
 
@@ -173,13 +174,23 @@ public class RobotContainer {
         return m_chooser.getSelected();
     }
 
-    public void onRobotInit() {
+    /**
+     * @param startup The startup workers. Trajectories load on them while the autos are built here on the main thread (building commands isn't thread
+     *                safe), the PathWeaver autos wait for whichever trajectories aren't loaded yet.
+     */
+    public void onRobotInit(StartupPipeline startup) {
         /**
          * Initialize Pathweaver trajectories/commands here
          */
 
         CommandGenerator.initializeAll(driveTrain); // ez
+        CommandGenerator.preloadAll(startup);
+        startup.submit("IK table", false, arm::buildInverseKinematicsTable);
 
+        startup.runOnMain("autos", this::buildAutos);
+    }
+
+    private void buildAutos() {
         // Initialize autonomous commands here
 
         taxiAuto                         = Autos.taxiAuto(this);
@@ -214,6 +225,11 @@ public class RobotContainer {
         m_chooser.addOption("Move one meter test (PathWeaver", moveOneMeter.get());
 
         SmartDashboard.putData("Auto choices", m_chooser);
+
+        // Arm characterization, run from the dashboard (in test mode, so nothing else is driving the arm)
+        SmartDashboard.putData("SysId pivot1", ArmSysIdCommand.suite(arm, ArmMotionProfile.PIVOT1));
+        SmartDashboard.putData("SysId pivot2", ArmSysIdCommand.suite(arm, ArmMotionProfile.PIVOT2));
+        SmartDashboard.putData("SysId turret", ArmSysIdCommand.suite(arm, ArmMotionProfile.TURRET));
 }
 
     public void onAutonInit() {
@@ -3,12 +3,18 @@ package frc.robot.commands.armcommands;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.subsystems.ArmSubsystem;
 import frc.robot.subsystems.staticsubsystems.LimeLight;
+import frc.robot.util.ArmCartesianState;
+import frc.robot.util.AsyncLogger;
 
 /**
  * This is here for implementation in Autonomous mode, for teleop there is already an implementation in ArmControlCommand
  */
 public class AimAssistCommand extends CommandBase{
+    private static final AsyncLogger.Site ADJUSTMENT_LOG = AsyncLogger.site(AsyncLogger.Level.DEBUG, 0.25);
+    private static final AsyncLogger.Site FLIPPED_LOG = AsyncLogger.site(AsyncLogger.Level.DEBUG, 1.0);
+
     private final ArmSubsystem arm;
+    private final ArmCartesianState adjustments = new ArmCartesianState();
 
     // Inches per 20ms
     //private static final double X_SPEED = 0.8;
@@ -29,13 +35,13 @@ public class AimAssistCommand extends CommandBase{
     @Override
     public void execute() {
         if(!this.arm.getFlipped()){
-            double[] adjustments = LimeLight.getAdjustmentFromError(this.arm.getFlipped());
-            // arm.moveVector(adjustments[0] * X_SPEED, adjustments[1] * Y_SPEED, 0);
-            this.arm.setTurretSpeed(adjustments[2]);  
-            System.out.println(LimeLight.getXAdjustment() * TURRET_SPEED); 
+            ArmCartesianState adjustments = LimeLight.getAdjustmentFromError(this.arm.getFlipped(), this.adjustments);
+            // arm.moveVector(adjustments.getX() * X_SPEED, adjustments.getY() * Y_SPEED, 0);
+            this.arm.setTurretSpeed(adjustments.getZ());  
+            ADJUSTMENT_LOG.log("Turret adjustment: {}", adjustments.getZ() * TURRET_SPEED);
         }
         else{
-            System.out.println("yo mama");
+            FLIPPED_LOG.log("yo mama");
         }
     }
 
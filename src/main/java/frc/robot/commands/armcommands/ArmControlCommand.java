@@ -8,7 +8,9 @@ import frc.robot.controllers.XboxController;
 import frc.robot.subsystems.ArmSubsystem;
 import frc.robot.subsystems.ClawGripSubsystem;
 import frc.robot.subsystems.staticsubsystems.LimeLight;
+import frc.robot.util.ArmCartesianState;
 import frc.robot.util.NetworkTablesUtil;
+import frc.robot.util.Vec3;
 
 /**
  * Moves arm on the turret
@@ -18,6 +20,8 @@ public class ArmControlCommand extends CommandBase {
     private final ArmSubsystem arm;
     private final XboxController controller;
     private final ClawGripSubsystem claw;
+    private final ArmCartesianState adjustments = new ArmCartesianState();
+    private final ArmCartesianState targetCoords = new ArmCartesianState();
 
     // Inches per 20ms
     private static final double X_SPEED = 0.9;
@@ -42,8 +46,8 @@ public class ArmControlCommand extends CommandBase {
             (new PickupPieceCommand(this.arm, this.claw, this.controller, ArmConstants.HUMAN_PLAYER_HEIGHT)).schedule();
     
         } else if (controller.getRawButtonPressedWrapper(ControllerConstants.PICK_UP_HEIGHT_BUTTON_NUMBER)) {
-            double[] currentCoords = arm.getTargetCoordinates();
-            (new GoTowardsCoordinatesCommandTeleop(this.arm,(new double[]{currentCoords[0],ArmConstants.PICK_UP_POSITION_Y,currentCoords[2]}),this.controller,0.2,0.4)).schedule();
+            ArmCartesianState currentCoords = arm.getTargetCoordinates(this.targetCoords);
+            (new GoTowardsCoordinatesCommandTeleop(this.arm,(new Vec3(currentCoords.getX(),ArmConstants.PICK_UP_POSITION_Y,currentCoords.getZ())),this.controller,0.2,0.4)).schedule();
         }
     }
 
@@ -81,9 +85,9 @@ public class ArmControlCommand extends CommandBase {
         }
         if(rightTrigger || leftTrigger) {
             if(!this.arm.getFlipped()){
-                double[] adjustments = LimeLight.getAdjustmentFromError(this.arm.getFlipped());
-                //arm.moveVector(adjustments[0] * X_SPEED, adjustments[1] * Y_SPEED, 0);
-                turret_adjust = adjustments[2];
+                ArmCartesianState adjustments = LimeLight.getAdjustmentFromError(this.arm.getFlipped(), this.adjustments);
+                //arm.moveVector(adjustments.getX() * X_SPEED, adjustments.getY() * Y_SPEED, 0);
+                turret_adjust = adjustments.getZ();
             } else {
             }
         } else {
@@ -0,0 +1,143 @@
+package frc.robot.commands.armcommands;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.robot.Constants.ArmConstants;
+import frc.robot.subsystems.ArmSubsystem;
+import frc.robot.util.ArmMotionProfile;
+import frc.robot.util.SysIdLog;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Runs one SysId test on one arm joint: a slow voltage ramp (quasistatic) or a voltage step (dynamic), forwards or backwards. Use {@link #suite} to run
+ * all four tests and save the data for the SysId tool.
+ * <p>
+ * The voltage is set and the joint sampled on a {@link Notifier} every {@link ArmConstants#SYSID_PERIOD}, straight from the motor controller, so the
+ * samples are evenly spaced no matter what the main loop is doing. A test stops on its own when the joint leaves its SYSID angle range, when a backwards
+ * test hits a pivot's limit switch, after {@link ArmConstants#SYSID_MAX_TEST_SECONDS}, or when the buffer fills up.
+ */
+public class ArmSysIdCommand extends CommandBase {
+    private static final String[] JOINT_NAMES = {"pivot1", "pivot2", "turret"};
+
+    private final ArmSubsystem arm;
+    private final int joint;
+    private final SysIdLog log;
+    private final SysIdLog.Test test;
+    private final double minAngle;
+    private final double maxAngle;
+
+    private Notifier sampler;
+    private double startSeconds;
+    private boolean pidWasOn;
+    private volatile boolean done;
+
+    /**
+     * @param arm   The arm
+     * @param joint {@link ArmMotionProfile#PIVOT1}, {@link ArmMotionProfile#PIVOT2} or {@link ArmMotionProfile#TURRET}
+     * @param log   Where the samples go
+     * @param test  Which test to run
+     */
+    public ArmSysIdCommand(ArmSubsystem arm, int joint, SysIdLog log, SysIdLog.Test test) {
+        this.arm = arm;
+        this.joint = joint;
+        this.log = log;
+        this.test = test;
+        if (joint == ArmMotionProfile.PIVOT1) {
+            this.minAngle = ArmConstants.SYSID_PIVOT1_MIN_ANGLE;
+            this.maxAngle = ArmConstants.SYSID_PIVOT1_MAX_ANGLE;
+        } else if (joint == ArmMotionProfile.PIVOT2) {
+            this.minAngle = ArmConstants.SYSID_PIVOT2_MIN_ANGLE;
+            this.maxAngle = ArmConstants.SYSID_PIVOT2_MAX_ANGLE;
+        } else {
+            this.minAngle = ArmConstants.SYSID_TURRET_MIN_ANGLE;
+            this.maxAngle = ArmConstants.SYSID_TURRET_MAX_ANGLE;
+        }
+        addRequirements(arm);
+    }
+
+    /**
+     * Runs all four tests on a joint with a rest in between, then writes the data to {@code sysid_arm_<joint>_<date>.json} in the robot's working
+     * directory. Leave room in both directions before starting; the pivots are tested as a SysId "Arm" and the turret as "Simple", all in degrees.
+     *
+     * @param arm   The arm
+     * @param joint {@link ArmMotionProfile#PIVOT1}, {@link ArmMotionProfile#PIVOT2} or {@link ArmMotionProfile#TURRET}
+     */
+    public static CommandBase suite(ArmSubsystem arm, int joint) {
+        SysIdLog log = new SysIdLog(ArmConstants.SYSID_MAX_SAMPLES);
+        String testType = joint == ArmMotionProfile.TURRET ? "Simple" : "Arm";
+        return Commands.sequence(
+                new ArmSysIdCommand(arm, joint, log, SysIdLog.Test.SLOW_FORWARD),
+                Commands.waitSeconds(ArmConstants.SYSID_REST_SECONDS),
+                new ArmSysIdCommand(arm, joint, log, SysIdLog.Test.SLOW_BACKWARD),
+                Commands.waitSeconds(ArmConstants.SYSID_REST_SECONDS),
+                new ArmSysIdCommand(arm, joint, log, SysIdLog.Test.FAST_FORWARD),
+                Commands.waitSeconds(ArmConstants.SYSID_REST_SECONDS),
+                new ArmSysIdCommand(arm, joint, log, SysIdLog.Test.FAST_BACKWARD),
+                Commands.runOnce(() -> {
+                    String name = "sysid_arm_" + JOINT_NAMES[joint] + "_" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json";
+                    log.writeInBackground(new File(Filesystem.getOperatingDirectory(), name), testType, "Degrees", 360);
+                }));
+    }
+
+    // Called when the command is initially scheduled.
+    @Override
+    public void initialize() {
+        // Nothing else may drive the arm during a test
+        this.pidWasOn = arm.getPIDControlOn();
+        arm.setPIDControlState(false);
+        arm.setJointCharacterizing(joint, true);
+
+        log.clear(test);
+        this.done = false;
+        this.startSeconds = Timer.getFPGATimestamp();
+        this.sampler = new Notifier(this::sample);
+        this.sampler.setName("ArmSysId");
+        this.sampler.startPeriodic(ArmConstants.SYSID_PERIOD);
+    }
+
+    /**
+     * Records a sample, checks the safety limits, and sets the next voltage. Runs on the {@link Notifier}'s thread.
+     */
+    private void sample() {
+        if (this.done) {
+            return;
+        }
+        double now = Timer.getFPGATimestamp();
+        double elapsed = now - this.startSeconds;
+        double position = arm.readJointPosition(joint);
+        boolean recorded = log.record(test, now, arm.readJointVoltage(joint), position, arm.readJointVelocity(joint));
+
+        boolean outOfRange = test.isForward() ? position > maxAngle : position < minAngle;
+        // The pivot limit switches are at the backwards end. The turret's is a homing switch in the middle of its range, so it doesn't count.
+        boolean limitHit = joint != ArmMotionProfile.TURRET && !test.isForward() && arm.readJointLimitPressed(joint);
+        if (!recorded || outOfRange || limitHit || elapsed > ArmConstants.SYSID_MAX_TEST_SECONDS) {
+            this.done = true;
+            arm.setJointVoltage(joint, 0);
+            return;
+        }
+
+        double volts = test.isQuasistatic() ? ArmConstants.SYSID_RAMP_RATE * elapsed : ArmConstants.SYSID_STEP_VOLTAGE;
+        arm.setJointVoltage(joint, test.isForward() ? volts : -volts);
+    }
+
+    // Called once the command ends or is interrupted.
+    @Override
+    public void end(boolean interrupted) {
+        this.sampler.close(); // waits for a running sample to finish
+        arm.setJointVoltage(joint, 0);
+        arm.setJointCharacterizing(joint, false);
+        arm.setPIDControlState(this.pidWasOn);
+    }
+
+    // Returns true when the command should end.
+    @Override
+    public boolean isFinished() {
+        return this.done;
+    }
+}
@@ -2,8 +2,12 @@ package frc.robot.commands.armcommands;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.subsystems.ArmSubsystem;
 import frc.robot.Constants.ArmConstants;
+import frc.robot.util.AsyncLogger;
 
 public class FlipArmCommand extends CommandBase {
+    private static final AsyncLogger.Site MOVING_LOG = AsyncLogger.site(AsyncLogger.Level.INFO, 0.5);
+    private static final AsyncLogger.Site STATE_LOG = AsyncLogger.site(AsyncLogger.Level.INFO, 0);
+
     private final ArmSubsystem arm;
     private boolean flipped = true;
 
@@ -25,26 +29,26 @@ public class FlipArmCommand extends CommandBase {
         if(flipped) {
             arm.setArm1SpeedMultiplier(ArmConstants.SPEED_DEC_ON_FLIP); // set speed multipliers 
             arm.setArm2SpeedMultiplier(ArmConstants.COMPLEMENTING_FLIP_SPEED);
-            arm.setTargetCoordinates(ArmConstants.FLIP_COORDS_WHEN_FLIPPING[0], ArmConstants.FLIP_COORDS_WHEN_FLIPPING[1], 0);
+            arm.setTargetCoordinates(ArmConstants.FLIP_COORDS_WHEN_FLIPPING.getX(), ArmConstants.FLIP_COORDS_WHEN_FLIPPING.getY(), 0);
         }
     }
 
     @Override
     public void execute() {
-        System.out.println("Arm is moving to position");
+        MOVING_LOG.log("Arm is moving to position");
         if(flipped && arm.isAtCoords()){
-            System.out.println("Arm is now FLIPPED!");
+            STATE_LOG.log("Arm is now FLIPPED!");
             end = true;
         }
         if(!canBeginFlip && !flipped && arm.isAtCoords()){ // waits for arm to move up 10 before flipping back upright
-             System.out.println("Arm has moved up 20 inches");
+             STATE_LOG.log("Arm has moved up 20 inches");
              canBeginFlip = true;
              arm.setArm1SpeedMultiplier(ArmConstants.SPEED_DEC_ON_UNFLIP); // set speed multipliers
              arm.setArm2SpeedMultiplier(ArmConstants.COMPLEMENTING_FLIP_SPEED);
-             arm.setTargetCoordinates(ArmConstants.STARTING_COORDS[0], ArmConstants.STARTING_COORDS[1], 0);
+             arm.setTargetCoordinates(ArmConstants.STARTING_COORDS.getX(), ArmConstants.STARTING_COORDS.getY(), 0);
         }
         if(canBeginFlip && arm.isAtCoords()){
-            System.out.println("Arm is now at starting config");
+            STATE_LOG.log("Arm is now at starting config");
             end = true;
         }
     }
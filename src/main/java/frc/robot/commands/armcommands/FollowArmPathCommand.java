@@ -0,0 +1,72 @@
+package frc.robot.commands.armcommands;
+
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.Constants.ArmConstants;
+import frc.robot.subsystems.ArmSubsystem;
+import frc.robot.util.ArmPath;
+import frc.robot.util.ArmPathPlanner;
+import frc.robot.util.AsyncLogger;
+import frc.robot.util.Vec3;
+
+/**
+ * Like {@link GoTowardsCoordinatesCommandAuto}, but moves the claw along a path from {@link ArmPathPlanner} that stays clear of the floor and the robot's
+ * frame. If no path can be found the arm holds where it is and the command ends: going straight at the target angles could swing the arm
+ * through the frame or the floor.
+ */
+public class FollowArmPathCommand extends CommandBase {
+    private static final AsyncLogger.Site NO_PATH_LOG = AsyncLogger.site(AsyncLogger.Level.WARN, 1.0);
+
+    private final ArmSubsystem arm;
+    private final ArmPathPlanner planner = new ArmPathPlanner();
+
+    private final Vec3 newArmPosition;
+    private final double speed1;
+    private final double speed2;
+
+    private boolean noPath;
+
+    public FollowArmPathCommand(ArmSubsystem arm, Vec3 newArmPosition, double speed1, double speed2) {
+        this.arm = arm;
+        this.newArmPosition = newArmPosition;
+        this.speed1 = speed1;
+        this.speed2 = speed2;
+        addRequirements(arm);
+    }
+
+    // Called when the command is initially scheduled.
+    @Override
+    public void initialize() {
+        arm.setMaxAndMinOutput1(speed1);
+        arm.setMaxAndMinOutput2(speed2);
+        // Same limits the motion profile uses, turret included
+        planner.setJointSpeedScales(speed1, speed2, speed1);
+
+        Vec3 start = Vec3.fromArray(arm.getCurrentCoordinates());
+        ArmPath path = planner.plan(start, newArmPosition, arm.getFlipped());
+        noPath = path == null;
+        if (noPath) {
+            NO_PATH_LOG.log("No arm path to the target, holding position");
+            arm.holdCurrentPosition();
+        } else {
+            arm.followPath(path);
+        }
+    }
+
+    @Override
+    public void execute() {
+        arm.goTowardTargetCoordinates();
+    }
+
+    // Called once the command ends or is interrupted.
+    @Override
+    public void end(boolean interrupted) {
+        arm.setMaxAndMinOutput1(ArmConstants.MAX_OUTPUT);
+        arm.setMaxAndMinOutput2(ArmConstants.MAX_OUTPUT);
+    }
+
+    // Returns true when the command should end.
+    @Override
+    public boolean isFinished() {
+        return noPath || (!arm.isFollowingPath() && arm.isAtCoords());
+    }
+}
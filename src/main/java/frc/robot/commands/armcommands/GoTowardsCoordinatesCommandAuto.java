@@ -3,16 +3,17 @@ package frc.robot.commands.armcommands;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.Constants.ArmConstants;
 import frc.robot.subsystems.ArmSubsystem;
+import frc.robot.util.Vec3;
 
 public class GoTowardsCoordinatesCommandAuto extends CommandBase{
 
     private final ArmSubsystem arm;
 
-    private double[] newArmPosition;
+    private Vec3 newArmPosition;
     private double speed1;
     private double speed2;
     
-    public GoTowardsCoordinatesCommandAuto(ArmSubsystem arm, double[] newArmPosition, double speed1, double speed2) {
+    public GoTowardsCoordinatesCommandAuto(ArmSubsystem arm, Vec3 newArmPosition, double speed1, double speed2) {
         this.arm = arm;
         this.newArmPosition = newArmPosition;
         this.speed1 = speed1;
@@ -25,7 +26,7 @@ public class GoTowardsCoordinatesCommandAuto extends CommandBase{
     public void initialize() {
         arm.setMaxAndMinOutput1(speed1);
         arm.setMaxAndMinOutput2(speed2);
-        arm.setTargetCoordinates(newArmPosition[0], newArmPosition[1], newArmPosition[2]);
+        arm.setTargetCoordinates(newArmPosition);
     }
 
     @Override
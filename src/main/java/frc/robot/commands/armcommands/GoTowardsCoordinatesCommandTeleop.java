@@ -4,6 +4,7 @@ import frc.robot.controllers.XboxController;
 import edu.wpi.first.wpilibj2.command.CommandBase;
 import frc.robot.Constants.ArmConstants;
 import frc.robot.subsystems.ArmSubsystem;
+import frc.robot.util.Vec3;
 
 public class GoTowardsCoordinatesCommandTeleop extends CommandBase{
 
@@ -11,11 +12,11 @@ public class GoTowardsCoordinatesCommandTeleop extends CommandBase{
     private final XboxController xboxController;
 
 
-    private double[] newArmPosition;
+    private Vec3 newArmPosition;
     private double speed1;
     private double speed2;
     
-    public GoTowardsCoordinatesCommandTeleop(ArmSubsystem arm, double[] newArmPosition, XboxController xboxController, double speed1, double speed2) {
+    public GoTowardsCoordinatesCommandTeleop(ArmSubsystem arm, Vec3 newArmPosition, XboxController xboxController, double speed1, double speed2) {
         this.arm = arm;
         this.newArmPosition = newArmPosition;
         this.xboxController = xboxController;
@@ -23,7 +24,7 @@ public class GoTowardsCoordinatesCommandTeleop extends CommandBase{
         this.speed2 = speed2;
         addRequirements(arm);
     }
-    public GoTowardsCoordinatesCommandTeleop(ArmSubsystem arm, double[] newArmPosition, XboxController xboxController, double speed1, double speed2, boolean is2D) {
+    public GoTowardsCoordinatesCommandTeleop(ArmSubsystem arm, Vec3 newArmPosition, XboxController xboxController, double speed1, double speed2, boolean is2D) {
         this.arm = arm;
         this.newArmPosition = newArmPosition;
         this.xboxController = xboxController;
@@ -38,7 +39,7 @@ public class GoTowardsCoordinatesCommandTeleop extends CommandBase{
         arm.setManualControlMode(false);
         arm.setMaxAndMinOutput1(speed1);
         arm.setMaxAndMinOutput2(speed2);
-        arm.setTargetCoordinates(newArmPosition[0], newArmPosition[1], newArmPosition[2]);
+        arm.setTargetCoordinates(newArmPosition);
     }
 
     @Override
@@ -6,6 +6,7 @@ import frc.robot.controllers.XboxController;
 import frc.robot.subsystems.ArmSubsystem;
 import frc.robot.subsystems.ClawGripSubsystem;
 import frc.robot.subsystems.staticsubsystems.LimeLight;
+import frc.robot.util.ArmCartesianState;
 
 /**
  * This is here for implementation in Autonomous mode, for teleop there is already an implementation in ArmControlCommand
@@ -14,6 +15,8 @@ public class PickupPieceCommand extends CommandBase{
     private final ArmSubsystem arm;
     private final ClawGripSubsystem claw;
     private final XboxController controller;
+    private final ArmCartesianState adjustments = new ArmCartesianState();
+    private final ArmCartesianState targetCoords = new ArmCartesianState();
 
     private final double X_SPEED = 0.8;
     //private final double Y_SPEED = 0.8;
@@ -42,8 +45,8 @@ public class PickupPieceCommand extends CommandBase{
     public void initialize() {
         this.currentState = states.AIM;
         timer.start();
-        double[] currentCoords = arm.getTargetCoordinates();
-        this.arm.setTargetCoordinates(currentCoords[0], this.height, currentCoords[2]); //set the wanted height of the arm
+        ArmCartesianState currentCoords = arm.getTargetCoordinates(this.targetCoords);
+        this.arm.setTargetCoordinates(currentCoords.getX(), this.height, currentCoords.getZ()); //set the wanted height of the arm
     }
 
     // Called every time the scheduler runs while the command is scheduled.
@@ -51,11 +54,11 @@ public class PickupPieceCommand extends CommandBase{
     public void execute() {
         switch(currentState){ //use limelight and ultrasonic sensor to move to cone or cube
             case AIM:
-                double[] adjustments = LimeLight.getAdjustmentFromError(this.arm.getFlipped()); 
-                this.arm.moveVector(adjustments[0] * X_SPEED, 0, 0);
-                this.arm.setTurretSpeed(TURRET_SPEED * adjustments[2]); 
+                ArmCartesianState adjustments = LimeLight.getAdjustmentFromError(this.arm.getFlipped(), this.adjustments); 
+                this.arm.moveVector(adjustments.getX() * X_SPEED, 0, 0);
+                this.arm.setTurretSpeed(TURRET_SPEED * adjustments.getZ()); 
 
-                if(adjustments[0] + adjustments[1] + adjustments[2] < 5){
+                if(adjustments.getX() + adjustments.getY() + adjustments.getZ() < 5){
                     this.currentState = states.CLOSE_CLAW;
                     timer.reset();
                 }
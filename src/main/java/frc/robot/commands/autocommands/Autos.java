@@ -11,11 +11,22 @@ import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj.Timer;
 import frc.robot.RobotContainer;
 import frc.robot.subsystems.staticsubsystems.RobotGyro;
+import frc.robot.util.AsyncLogger;
 import frc.robot.util.NetworkTablesUtil;
 
 public final class Autos {
     private static boolean blueTeam = NetworkTablesUtil.getIfOnBlueTeam(); // Whether we are on the blue team or not
     private static Timer timer = new Timer();
+
+    // These print from inside Commands.run(), i.e. every loop, so they go through the rate limited logger. One site per message, so a phase that
+    // starts right after another one still gets printed.
+    private static final AsyncLogger.Site TAXI_SLOW_DRIVE_LOG = AsyncLogger.site(AsyncLogger.Level.INFO, 0.5);
+    private static final AsyncLogger.Site TAXI_FINISH_LOG = AsyncLogger.site(AsyncLogger.Level.INFO, 0.5);
+    private static final AsyncLogger.Site BALANCE_SLOW_BACKWARDS_LOG = AsyncLogger.site(AsyncLogger.Level.INFO, 0.5);
+    private static final AsyncLogger.Site BALANCE_FAST_BACKWARDS_LOG = AsyncLogger.site(AsyncLogger.Level.INFO, 0.5);
+    private static final AsyncLogger.Site BALANCE_FAST_FORWARDS_LOG = AsyncLogger.site(AsyncLogger.Level.INFO, 0.5);
+    private static final AsyncLogger.Site BALANCE_FINISH_LOG = AsyncLogger.site(AsyncLogger.Level.INFO, 0.5);
+    private static final AsyncLogger.Site WAIT_LOG = AsyncLogger.site(AsyncLogger.Level.INFO, 0.1);
     /**
      * Example static factory for an autonomous command.
      */
@@ -77,11 +88,11 @@ public final class Autos {
             Commands.run(
                 () -> {      
                     if (timer.get() < 6) {
-                        System.out.println("Slow Drive");
+                        TAXI_SLOW_DRIVE_LOG.log("Slow Drive");
                         robot.driveTrain.tankDrive(0.25, 0); // Drives backwards slowly to edge of charge station for 1.15 seconds
                     } else {
                         robot.driveTrain.tankDrive(0, 0); // Stops driving
-                        System.out.println("Taxi Auto Finish");          
+                        TAXI_FINISH_LOG.log("Taxi Auto Finish");          
                     }
                 }, 
                 robot.driveTrain
@@ -103,17 +114,17 @@ public final class Autos {
             Commands.run(
                 () -> {      
                     if (timer.get() < 1.15) {
-                        System.out.println("Slow Drive Backwards");
+                        BALANCE_SLOW_BACKWARDS_LOG.log("Slow Drive Backwards");
                         robot.driveTrain.tankDrive(0.25, 0); // Drives backwards slowly to edge of charge station for 1.15 seconds
                     } else if (timer.get() < 3.45) {
-                        System.out.println("Fast Drive Backwards");
+                        BALANCE_FAST_BACKWARDS_LOG.log("Fast Drive Backwards");
                         robot.driveTrain.tankDrive(0.5, 0); // Drives backwards faster over charge station for 2.5 seconds
                     } else if (timer.get() < 4.90) {
-                        System.out.println("Fast Drive Forwards");
+                        BALANCE_FAST_FORWARDS_LOG.log("Fast Drive Forwards");
                         robot.driveTrain.tankDrive(-0.5, 0); // Drives forwards onto charge station for 1.5 seconds
                     } else {
                         robot.driveTrain.tankDrive(0, 0); // Stops driving
-                        System.out.println("Taxi For Balance Auto Finish");          
+                        BALANCE_FINISH_LOG.log("Taxi For Balance Auto Finish");          
                     }
                 }, 
                 robot.driveTrain
@@ -324,7 +335,7 @@ public final class Autos {
         .andThen(
             Commands.run(
                 () -> {
-                    System.out.println("Waiting for " + seconds + " seconds | " + timer.get());
+                    WAIT_LOG.log("Waiting for {} seconds | {}", seconds, timer.get());
                 }
             )
             .until( () -> timer.get() > seconds )
@@ -348,56 +359,30 @@ public final class Autos {
 
     // First half of balance auto
     public static CommandBase balanceAutoFirstHalfPW(RobotContainer robot) {
-
-        if (blueTeam) {
-            return Commands.runOnce(
-                () -> {
-                        // Any neccessary calibration code
-                        System.out.println("Balance Auto Blue Start");
-                }
-            )/*.alongWith(arm.calibrateArm())*/
-            .andThen(robot.driveForwardOverChargeStationBlue.get()); // Drives forward over charge station
-
-        } else {
-            return Commands.runOnce(
-                () -> {
-                    System.out.println("Balance Auto Red Start"); 
+        String alliance = blueTeam ? "Blue" : "Red";
+        return Commands.runOnce(
+            () -> {
                     // Any neccessary calibration code
-                }
-            )/*.alongWith(arm.calibrateArm())*/
-            .andThen(robot.driveForwardOverChargeStationRed.get()); // Drives forward over charge station
-        }
+                    System.out.println("Balance Auto " + alliance + " Start");
+            }
+        )/*.alongWith(arm.calibrateArm())*/
+        .andThen(robot.driveForwardOverChargeStation.getForAlliance(blueTeam)); // Drives forward over charge station
     }
 
     // Second half of balance auto
     public static CommandBase balanceAutoSecondHalfPW(RobotContainer robot) {
-        
-        if (blueTeam) {    
-            return robot.driveBackwardsOntoChargeStationBlue.get()
-            .andThen(
-                robot.balanceCommand.get() // Balances charge station (Runs until the end of autonomous)
-                .alongWith(
-                    Commands.runOnce(
-                        () -> {
-                            System.out.println("Balance Auto Blue Finish");
-                        }
-                    )
+        String alliance = blueTeam ? "Blue" : "Red";
+        return robot.driveBackwardsOntoChargeStation.getForAlliance(blueTeam)
+        .andThen(
+            robot.balanceCommand.get() // Balances charge station (Runs until the end of autonomous)
+            .alongWith(
+                Commands.runOnce(
+                    () -> {
+                        System.out.println("Balance Auto " + alliance + " Finish");
+                    }
                 )
-            );
-            
-        } else {
-            return robot.driveBackwardsOntoChargeStationRed.get()
-                .andThen(
-                    robot.balanceCommand.get() // Balances charge station (Runs until the end of autonomous)
-                    .alongWith(
-                        Commands.runOnce(
-                            () -> {
-                                System.out.println("Balance Auto Red Finish");
-                            }
-                        )
-                    )
-                );
-        }
+            )
+        );
     }
 
     // Autonomous mode for taxi points + balancing charge station
@@ -430,93 +415,48 @@ public final class Autos {
     // Places pre-loaded cone, drives backwards to pick up cube, drives forwards to place cube on grid
     public static CommandBase doublePlacementAutoPW(RobotContainer robot) {
         blueTeam = NetworkTablesUtil.getIfOnBlueTeam();
+        String alliance = blueTeam ? "Blue" : "Red";
         // TODO someone make this code into smaller chunks or something
-        if (blueTeam) {
-            return Commands.runOnce(
+        return Commands.runOnce(
+            () -> {
+                System.out.println("Double Placement Auto " + alliance + " Start");
+            }
+        )
+        .andThen(placeGamePieceAuto(robot)) // Drops pre-loaded cube onto top center platform
+        .andThen(robot.driveBackwardsToCone.getForAlliance(blueTeam) // Drives backwards to cone
+        .alongWith(robot.goToAbovePickupPos.get())) // Goes to 10 inches above pickup position
+        .andThen(
+            Commands.runOnce(
                 () -> {
-                    System.out.println("Double Placement Auto Blue Start");
+                    NetworkTablesUtil.setLimelightPipeline(1); // Changes pipeline to detect cones
                 }
             )
-            .andThen(placeGamePieceAuto(robot)) // Drops pre-loaded cube onto top center platform
-            .andThen(robot.driveBackwardsToConeBlue.get() // Drives backwards to cone
-            .alongWith(robot.goToAbovePickupPos.get())) // Goes to 10 inches above pickup position
-            .andThen(
-                Commands.runOnce(
-                    () -> {
-                        NetworkTablesUtil.setLimelightPipeline(1); // Changes pipeline to detect cones
-                    }
-                )
-            )
-            .andThen(robot.aimAssist.get()) // Guides claw to game piece
-            .andThen(robot.goToPickupPosX30.get()) // Goes to pickup position
-            .andThen(waitCommand(0.2)) // Waits 0.2 seconds
-            .andThen(
-                Commands.runOnce(
-                    () -> { // Closes claw around game piece
-                        System.out.println("Double Placement Auto Blue Running");
-                        robot.clawGrip.setClawOpened(false); // Closes claw
-                    }, 
-                    robot.clawGrip
-                )
+        )
+        .andThen(robot.aimAssist.get()) // Guides claw to game piece
+        .andThen(robot.goToPickupPosX30.get()) // Goes to pickup position
+        .andThen(waitCommand(0.2)) // Waits 0.2 seconds
+        .andThen(
+            Commands.runOnce(
+                () -> { // Closes claw around game piece
+                    System.out.println("Double Placement Auto " + alliance + " Running");
+                    robot.clawGrip.setClawOpened(false); // Closes claw
+                }, 
+                robot.clawGrip
             )
-            .andThen(waitCommand(0.2)) // Waits 0.2 seconds
-            .andThen(
-                robot.goToStartingPos.get() // Arm goes to starting position
-                .alongWith(robot.driveForwardsToGridBlue.get())
-            ) // Drive forwards to grid
-            .andThen(placeGamePieceAuto(robot)) // Drops cone onto top right pole
-            .andThen(
-                Commands.runOnce(
-                    () -> {
-                        System.out.println("Double Placement Auto Blue Finish");
-                    }
-                )
-            );
-
-        } else {
-            return Commands.runOnce(
+        )
+        .andThen(waitCommand(0.2)) // Waits 0.2 seconds
+        .andThen(
+            robot.goToStartingPos.get() // Arm goes to starting position
+            .alongWith(robot.driveForwardsToGrid.getForAlliance(blueTeam))
+        ) // Drive forwards to grid
+        .andThen(placeGamePieceAuto(robot)) // Drops cone onto the top pole (right on blue, left on red)
+        .andThen(
+            Commands.runOnce(
                 () -> {
-                    System.out.println("Double Placement Auto Red Start");
+                    System.out.println("Double Placement Auto " + alliance + " Finish");
                 }
             )
-            .andThen(placeGamePieceAuto(robot)) // Drops pre-loaded cube onto top center platform
-            .andThen(
-                robot.driveBackwardsToConeRed.get() // Drives backwards to cone
-                .alongWith(robot.goToAbovePickupPos.get()) // Goes to 10 inches above pickup position
-            ) 
-            .andThen(
-                Commands.runOnce(
-                    () -> {
-                        NetworkTablesUtil.setLimelightPipeline(1); // Changes pipeline to detect cones
-                    }
-                )
-            )
-            .andThen(robot.aimAssist.get()) // Guides claw to game piece
-            .andThen(robot.goToPickupPosX30.get()) // Goes to pickup position
-            .andThen(waitCommand(0.2)) // Waits 0.2 seconds
-            .andThen(
-                Commands.runOnce(
-                    () -> { // Closes claw around game piece
-                        System.out.println("Double Placement Auto Red Running");
-                        robot.clawGrip.setClawOpened(false); // Closes claw
-                    }, 
-                    robot.clawGrip
-                )
-            )
-            .andThen(waitCommand(0.2)) // Waits 0.2 seconds
-            .andThen(
-                robot.goToStartingPos.get() // Arm goes to starting position
-                .alongWith(robot.driveForwardsToGridRed.get()) // Drive forwards to grid
-            )
-            .andThen(placeGamePieceAuto(robot)) // Drops cone onto top left pole
-            .andThen(
-                Commands.runOnce(
-                    () -> {
-                        System.out.println("Double Placement Auto Red Finish");
-                    }
-                )
-            );
-        }
+        );
     }
 
     // Might need to add calibration
@@ -555,7 +495,7 @@ public final class Autos {
                 }
             )
             .andThen(doublePlacementAutoPW(robot)) // Runs double placement command
-            .andThen(blueTeam ? robot.driveBackwardsOntoChargeStationDPBlue.get() : robot.driveBackwardsOntoChargeStationDPRed.get()) // Drives backwards onto charge station
+            .andThen(robot.driveBackwardsOntoChargeStationDP.getForAlliance(blueTeam)) // Drives backwards onto charge station
             .andThen(robot.balanceCommand.get()) // Balances the charge station continuously
             .andThen(
                 Commands.runOnce(
@@ -0,0 +1,116 @@
+package frc.robot.commands.drivecommands;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.subsystems.DriveTrainSubsystem;
+import frc.robot.util.AsyncTrajectoryService;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Drives from wherever the robot is to a goal along a trajectory generated on the fly by the drivetrain's {@link AsyncTrajectoryService}, so the main
+ * loop never waits for the spline to be generated. The drivetrain is held stopped until the first trajectory is ready.
+ * <p>
+ * {@link #setGoal} changes the goal while the command runs: the robot keeps following the path it's on until the new one is ready, then switches to it.
+ * A newer goal replaces one that's still generating. The command ends when the last path finishes.
+ * <p>
+ * Unlike the PathWeaver paths this never resets odometry, since the robot may have moved on from the pose a path was generated from.
+ */
+public class FollowGeneratedPathCommand extends CommandBase {
+    private final DriveTrainSubsystem driveTrain;
+    private final boolean reversed;
+    private Pose2d goal;
+
+    private CompletableFuture<Trajectory> pending;
+    private Command follower;
+    private boolean done;
+    private boolean running; // between initialize() and end(), isScheduled() is false when this is part of a composition
+
+    /**
+     * @param driveTrain The drivetrain
+     * @param goal       Where to drive to, in field meters
+     * @param reversed   Whether to drive backwards
+     */
+    public FollowGeneratedPathCommand(DriveTrainSubsystem driveTrain, Pose2d goal, boolean reversed) {
+        this.driveTrain = driveTrain;
+        this.goal = goal;
+        this.reversed = reversed;
+        addRequirements(driveTrain);
+    }
+
+    /**
+     * Drives to a new goal instead, starting from wherever the robot is now. Call from the main thread.
+     */
+    public void setGoal(Pose2d goal) {
+        this.goal = goal;
+        if (this.running) {
+            requestPath();
+        }
+    }
+
+    private void requestPath() {
+        this.pending = driveTrain.getTrajectoryService().request(driveTrain.getPoseMeters(), List.of(), this.goal, this.reversed);
+    }
+
+    // Called when the command is initially scheduled.
+    @Override
+    public void initialize() {
+        this.follower = null;
+        this.done = false;
+        this.running = true;
+        requestPath();
+    }
+
+    // Called every time the scheduler runs while the command is scheduled.
+    @Override
+    public void execute() {
+        if (this.pending != null && this.pending.isDone()) {
+            Trajectory trajectory = this.pending.isCompletedExceptionally() ? null : this.pending.join();
+            this.pending = null;
+            if (trajectory != null) {
+                if (this.follower != null) {
+                    this.follower.end(true);
+                }
+                this.follower = driveTrain.generateRamseteFollower(trajectory);
+                this.follower.initialize();
+            }
+        }
+
+        if (this.follower != null) {
+            this.follower.execute();
+            if (this.follower.isFinished()) {
+                this.follower.end(false);
+                this.follower = null;
+            }
+        } else {
+            driveTrain.tankDriveVolts(0, 0);
+        }
+
+        // Done once nothing is being followed or generated (including when the only path couldn't be generated)
+        this.done = this.follower == null && this.pending == null;
+    }
+
+    // Called once the command ends or is interrupted.
+    @Override
+    public void end(boolean interrupted) {
+        this.running = false;
+        if (this.follower != null) {
+            this.follower.end(interrupted);
+            this.follower = null;
+        }
+        if (this.pending != null) {
+            this.pending.cancel(false);
+            this.pending = null;
+        }
+        driveTrain.tankDriveVolts(0, 0);
+    }
+
+    // Returns true when the command should end.
+    @Override
+    public boolean isFinished() {
+        return this.done;
+    }
+}
@@ -3,19 +3,38 @@ package frc.robot.subsystems;
 import com.revrobotics.CANSparkMax;
 import com.revrobotics.CANSparkMaxLowLevel.MotorType;
 import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkMaxPIDController;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.wpilibj.DigitalInput;
 import edu.wpi.first.wpilibj.DutyCycleEncoder;
+import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.Command.InterruptionBehavior;
 import frc.robot.Constants.ArmConstants;
+import frc.robot.Constants.ArmConstants.ControlMode;
 import frc.robot.Constants.PortConstants;
 import frc.robot.commands.armcommands.FlipArmCommand;
+import frc.robot.subsystems.staticsubsystems.SensorSnapshot;
+import frc.robot.util.ArmCartesianState;
+import frc.robot.util.ArmFeedforward;
+import frc.robot.util.ArmJointState;
+import frc.robot.util.ArmMotionProfile;
+import frc.robot.util.ArmPath;
+import frc.robot.util.AsyncLogger;
+import frc.robot.util.CANConfigurator;
 import frc.robot.util.ForwardKinematicsUtil;
+import frc.robot.util.InverseKinematicsTable;
 import frc.robot.util.InverseKinematicsUtil;
 import frc.robot.util.MathUtil;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.SetpointBuffer;
+import frc.robot.util.Vec3;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
 
 /*
  * Arm axis control scheme:
@@ -35,6 +54,41 @@ import frc.robot.util.MathUtil;
  */
 
 public class ArmSubsystem extends SubsystemBase {
+    private static final AsyncLogger.Site ABSOLUTE_ENCODER_LOG = AsyncLogger.site(AsyncLogger.Level.INFO, 0.5);
+    private static final AsyncLogger.Site ANGLE_NAN_LOG = AsyncLogger.site(AsyncLogger.Level.WARN, 1.0);
+    private static final AsyncLogger.Site PID_NAN_LOG = AsyncLogger.site(AsyncLogger.Level.WARN, 1.0);
+    private static final AsyncLogger.Site UNREACHABLE_TARGET_LOG = AsyncLogger.site(AsyncLogger.Level.WARN, 1.0);
+
+    // Joint PID gains (duty cycle per degree of error), shared by the RIO controllers and the SPARK MAX onboard controllers
+    // TODO: TUNE
+    private static final double PIVOT1_P = 1.6e-2; // nice
+    private static final double PIVOT2_P = 1.6e-2;
+    private static final double TURRET_P = 1e-2;
+
+    // Encoder offset applied to pivot1 when flipped (see getCurrentAnglesDeg)
+    private static final double FLIPPED_PIVOT1_OFFSET = 8;
+
+    // Full output speed of each joint, indexed with the ArmMotionProfile joint constants, to turn a velocity into a feedforward
+    private static final double[] JOINT_FREE_SPEEDS = {ArmConstants.PIVOT1_FREE_SPEED, ArmConstants.PIVOT2_FREE_SPEED, ArmConstants.TURRET_FREE_SPEED};
+
+    // Layout of the setpoint snapshots the control loop works from
+    private static final int SETPOINT_TARGET_ANGLE1 = 0;
+    private static final int SETPOINT_TARGET_ANGLE2 = 1;
+    private static final int SETPOINT_TARGET_ANGLE_TURRET = 2;
+    private static final int SETPOINT_ARM1_SPEED_MULTIPLIER = 3;
+    private static final int SETPOINT_ARM2_SPEED_MULTIPLIER = 4;
+    private static final int SETPOINT_MAX_OUTPUT = 5;
+    private static final int SETPOINT_MIN_OUTPUT = 6;
+    private static final int SETPOINT_MAX_OUTPUT2 = 7;
+    private static final int SETPOINT_MIN_OUTPUT2 = 8;
+    private static final int SETPOINT_PID_ON = 9;
+    private static final int SETPOINT_FLIPPED = 10;
+    private static final int SETPOINT_PAYLOAD_MASS = 11;
+    private static final int SETPOINT_SIZE = 12;
+
+    // In HIGH_RATE mode, a command calling goTowardTargetCoordinates() keeps the control loop driving the joints this long (a couple of scheduler loops),
+    // and a command setting a joint's speed directly keeps the control loop off that joint for this long
+    private static final long COMMAND_DRIVE_TIMEOUT_NANOS = 40_000_000L;
 
     private final CANSparkMax pivot1;
     private final CANSparkMax pivot2;
@@ -64,12 +118,35 @@ public class ArmSubsystem extends SubsystemBase {
     private double targetAngle2;
     private double targetAngleTurret;
 
+    // Scratch state reused every loop so the control path doesn't allocate
+    private final ArmJointState currentAngles = new ArmJointState();
+    private final ArmJointState newTargetAngles = new ArmJointState();
+    private final ArmCartesianState currentCoordinates = new ArmCartesianState();
+    private final ArmCartesianState adjustedCoordinates = new ArmCartesianState();
+
+    // Used by whichever thread runs the joint PIDs for the current ControlMode
+    private final ArmMotionProfile motionProfile = new ArmMotionProfile(
+            new TrapezoidProfile.Constraints(ArmConstants.PIVOT1_FREE_SPEED * ArmConstants.PROFILE_VELOCITY_HEADROOM, ArmConstants.PIVOT1_MAX_ACCELERATION),
+            new TrapezoidProfile.Constraints(ArmConstants.PIVOT2_FREE_SPEED * ArmConstants.PROFILE_VELOCITY_HEADROOM, ArmConstants.PIVOT2_MAX_ACCELERATION),
+            new TrapezoidProfile.Constraints(ArmConstants.TURRET_FREE_SPEED * ArmConstants.PROFILE_VELOCITY_HEADROOM, ArmConstants.TURRET_MAX_ACCELERATION));
+    private final ArmJointState profileGoal = new ArmJointState();
+    private final ArmJointState referenceAngles = new ArmJointState();
+    private final double[] referenceFeedforward = new double[3]; // indexed with the ArmMotionProfile joint constants
+    private final ArmFeedforward armFeedforward = new ArmFeedforward(ArmConstants.LIMB1_MASS, ArmConstants.LIMB2_MASS, ArmConstants.CLAW_MASS);
+
+    private volatile ActivePath activePath; // see followPath
+
+    private volatile InverseKinematicsTable ikTable; // null until it is built (or if ArmConstants.USE_IK_TABLE is off)
+
     private boolean pidOn = false;
     private boolean flipped = false;
 
     private double arm1SpeedMultiplier = 1;
     private double arm2SpeedMultiplier = 1;
 
+    private BooleanSupplier holdingGamePiece = () -> false;
+    private double payloadMass = 0;
+
     private boolean isManual = true;
 
     private double maxOutput = ArmConstants.MAX_OUTPUT;
@@ -77,6 +154,84 @@ public class ArmSubsystem extends SubsystemBase {
     private double maxOutput2 = ArmConstants.MAX_OUTPUT;
     private double minOutput2 = ArmConstants.MIN_OUTPUT;
 
+    private final LoopProfiler.Section periodicSection = LoopProfiler.section("ArmSubsystem.periodic()");
+
+    private final ControlMode controlMode = ArmConstants.CONTROL_MODE;
+    private final int positionFramePeriodMs;
+    private final double[] schedulerSetpoint = new double[SETPOINT_SIZE]; // SCHEDULER mode only
+    private final SetpointBuffer setpointBuffer = new SetpointBuffer(SETPOINT_SIZE); // HIGH_RATE mode only
+    private volatile long commandDriveUntilNanos = System.nanoTime();
+    private volatile long pivot1OverrideUntilNanos = System.nanoTime();
+    private volatile long pivot2OverrideUntilNanos = System.nanoTime();
+    private volatile long turretOverrideUntilNanos = System.nanoTime();
+
+    // Only touched by the high rate control loop's thread
+    private Notifier controlLoop;
+    private final ArmJointState controlLoopAngles = new ArmJointState();
+    private boolean controlLoopWasDriving = false;
+    private final LoopProfiler.Section controlLoopSection = LoopProfiler.backgroundSection("ArmSubsystem.controlLoop()");
+
+    // ONBOARD mode only, null otherwise
+    private OnboardJoint pivot1Onboard, pivot2Onboard, turretOnboard;
+
+    /**
+     * A path being followed and when it started, kept together so one read of {@link #activePath} always gets a matching pair.
+     */
+    private static final class ActivePath {
+        private final ArmPath path;
+        private final double startSeconds;
+
+        private ActivePath(ArmPath path, double startSeconds) {
+            this.path = path;
+            this.startSeconds = startSeconds;
+        }
+    }
+
+    /**
+     * A SPARK MAX's onboard position PID, plus what was last sent to it so unchanged values aren't sent over CAN again.
+     */
+    private static final class OnboardJoint {
+        private final CANSparkMax motor;
+        private final SparkMaxPIDController controller;
+        private double sentReference = Double.NaN; // NaN means the motor isn't in position mode, so the next reference always gets sent
+        private double sentFeedforward = Double.NaN;
+        private double sentP = Double.NaN;
+        private double sentMinOutput = Double.NaN;
+        private double sentMaxOutput = Double.NaN;
+
+        private OnboardJoint(CANSparkMax motor) {
+            this.motor = motor;
+            this.controller = motor.getPIDController();
+            this.controller.setI(0);
+            this.controller.setD(0);
+            this.controller.setFF(0);
+        }
+
+        private void update(double referenceDeg, double feedforward, double p, double minOutput, double maxOutput) {
+            if (p != this.sentP) {
+                this.controller.setP(p);
+                this.sentP = p;
+            }
+            if (minOutput != this.sentMinOutput || maxOutput != this.sentMaxOutput) {
+                this.controller.setOutputRange(minOutput, maxOutput);
+                this.sentMinOutput = minOutput;
+                this.sentMaxOutput = maxOutput;
+            }
+            if (referenceDeg != this.sentReference || feedforward != this.sentFeedforward) {
+                this.controller.setReference(referenceDeg, CANSparkMax.ControlType.kPosition, 0, feedforward, SparkMaxPIDController.ArbFFUnits.kPercentOut);
+                this.sentReference = referenceDeg;
+                this.sentFeedforward = feedforward;
+            }
+        }
+
+        /**
+         * Call whenever the motor is given a plain speed, which takes it out of position mode
+         */
+        private void invalidate() {
+            this.sentReference = Double.NaN;
+        }
+    }
+
     // arm control constructor
     public ArmSubsystem() {
         // Initialize arm motors
@@ -97,6 +252,10 @@ public class ArmSubsystem extends SubsystemBase {
         this.pivot1Encoder.setPositionConversionFactor(2.7); // 125:1 gearbox
         this.pivot2Encoder.setPositionConversionFactor(3.65); // 125:1 gearbox
         this.turretEncoder.setPositionConversionFactor(1); // 60:1 gearbox with drive wheel to lazy susan ratio
+        // Velocities in degrees per second (the encoders report per minute)
+        this.pivot1Encoder.setVelocityConversionFactor(2.7 / 60);
+        this.pivot2Encoder.setVelocityConversionFactor(3.65 / 60);
+        this.turretEncoder.setVelocityConversionFactor(1.0 / 60);
         // END
 
         testAbsoluteEncoder = new DutyCycleEncoder(3);
@@ -104,19 +263,38 @@ public class ArmSubsystem extends SubsystemBase {
         this.pivot1Encoder.setPosition(ArmConstants.ARM_1_INITIAL_ANGLE);
         this.pivot2Encoder.setPosition(ArmConstants.ARM_2_INITIAL_ANGLE);
         this.turretEncoder.setPosition(0);
+
+        double controlPeriod = 0.02;
+        int positionFramePeriodMs = CANConfigurator.Role.ARM_JOINT.getPositionFramePeriodMs();
+        if (this.controlMode == ControlMode.HIGH_RATE) {
+            controlPeriod = ArmConstants.HIGH_RATE_CONTROL_PERIOD;
+            // The encoder positions come in on status frame 2, which is only sent every 20ms by default. Send it as often as the control loop runs.
+            positionFramePeriodMs = (int) Math.round(controlPeriod * 1000);
+        }
+        this.positionFramePeriodMs = positionFramePeriodMs;
+        CANConfigurator.configure(this.pivot1, CANConfigurator.Role.ARM_JOINT, positionFramePeriodMs);
+        CANConfigurator.configure(this.pivot2, CANConfigurator.Role.ARM_JOINT, positionFramePeriodMs);
+        CANConfigurator.configure(this.turret, CANConfigurator.Role.ARM_JOINT, positionFramePeriodMs);
         // TODO: TUNE
-        this.pidController1 = new PIDController(1.6e-2, 0, 0); // nice
+        this.pidController1 = new PIDController(PIVOT1_P, 0, 0, controlPeriod);
         this.pidController1.setTolerance(ArmConstants.PID_TOLERANCE);
-        this.pidController2 = new PIDController(1.6e-2, 0, 0);
+        this.pidController2 = new PIDController(PIVOT2_P, 0, 0, controlPeriod);
         this.pidController2.setTolerance(ArmConstants.PID_TOLERANCE);
-        this.pidController3 = new PIDController(1e-2, 0, 0);
+        this.pidController3 = new PIDController(TURRET_P, 0, 0, controlPeriod);
         this.pidController3.setTolerance(ArmConstants.PID_TOLERANCE);
         // END
 
+        if (this.controlMode == ControlMode.ONBOARD) {
+            this.pivot1Onboard = new OnboardJoint(this.pivot1);
+            this.pivot2Onboard = new OnboardJoint(this.pivot2);
+            this.turretOnboard = new OnboardJoint(this.turret);
+        }
+
         // Initialize arm limit switches
         this.arm1Limit = new DigitalInput(PortConstants.PIVOT_1_LIMIT_PORT);
         this.arm2Limit = new DigitalInput(PortConstants.PIVOT_2_LIMIT_PORT);
         this.turretLimit = new DigitalInput(PortConstants.TURRET_LIMIT_PORT);
+        SensorSnapshot.registerArm(this.pivot1Encoder, this.pivot2Encoder, this.turretEncoder, this.arm1Limit, this.arm2Limit, this.turretLimit);
 
         // Set starting arm angles
         this.targetAngle1 = ArmConstants.ARM_1_INITIAL_ANGLE;
@@ -125,6 +303,28 @@ public class ArmSubsystem extends SubsystemBase {
 
         // Get starting coords from the initial angle constants
         resetCoords();
+
+        if (this.controlMode == ControlMode.HIGH_RATE) {
+            publishSetpoints();
+            this.controlLoop = new Notifier(this::runControlLoop);
+            this.controlLoop.setName("ArmControl");
+            this.controlLoop.startPeriodic(ArmConstants.HIGH_RATE_CONTROL_PERIOD);
+        }
+    }
+
+    /**
+     * Builds the inverse kinematics lookup table, if {@link ArmConstants#USE_IK_TABLE} is on. Takes a while, so it runs on a startup worker; the arm
+     * solves IK analytically until it's done.
+     */
+    public void buildInverseKinematicsTable() {
+        if (!ArmConstants.USE_IK_TABLE) {
+            return;
+        }
+        InverseKinematicsTable table = InverseKinematicsTable.build(ArmConstants.IK_TABLE_RESOLUTION);
+        if (ArmConstants.VERIFY_IK_TABLE) {
+            table.verify(100000);
+        }
+        this.ikTable = table;
     }
 
     /**
@@ -142,20 +342,23 @@ public class ArmSubsystem extends SubsystemBase {
         resetCoords();
     }
     public void resetCoords() {
-        this.targetX = ArmConstants.STARTING_COORDS[0];
-        this.targetY = ArmConstants.STARTING_COORDS[1];
-        this.targetZ = ArmConstants.STARTING_COORDS[2];
-        this.cur_x = ArmConstants.STARTING_COORDS[0];
-        this.cur_y = ArmConstants.STARTING_COORDS[1];
-        this.cur_z = ArmConstants.STARTING_COORDS[2];
+        this.targetX = ArmConstants.STARTING_COORDS.getX();
+        this.targetY = ArmConstants.STARTING_COORDS.getY();
+        this.targetZ = ArmConstants.STARTING_COORDS.getZ();
+        this.cur_x = ArmConstants.STARTING_COORDS.getX();
+        this.cur_y = ArmConstants.STARTING_COORDS.getY();
+        this.cur_z = ArmConstants.STARTING_COORDS.getZ();
         this.targetAngle1 = ArmConstants.ARM_1_INITIAL_ANGLE;
         this.targetAngle2 = ArmConstants.ARM_2_INITIAL_ANGLE;
+        this.activePath = null;
         this.pivot1Encoder.setPosition(ArmConstants.ARM_1_INITIAL_ANGLE);
         this.pivot2Encoder.setPosition(ArmConstants.ARM_2_INITIAL_ANGLE);
+        SensorSnapshot.resampleArm();
+        publishSetpoints();
     }
 
     public double resetTurretEncoder() {
-        return this.turretEncoder.getPosition();
+        return SensorSnapshot.getTurretPosition();
     }
 
     /**
@@ -171,15 +374,32 @@ public class ArmSubsystem extends SubsystemBase {
      * @return [pivot1Angle, pivot2Angle, turretAngle]
      */
     public double[] getCurrentAnglesDeg() {
-        double angle1 = pivot1Encoder.getPosition();
-        double angle2 = pivot2Encoder.getPosition();
-        double angle3 = turretEncoder.getPosition();
+        return getCurrentAnglesDeg(new ArmJointState()).toArray();
+    }
+
+    /**
+     * Get the current angles from motor encoders in DEGREES, without allocating. The angles come from this loop's {@link SensorSnapshot}.
+     * 
+     * @param out Where the angles are written
+     * @return {@code out}
+     */
+    public ArmJointState getCurrentAnglesDeg(ArmJointState out) {
+        return toJointAngles(this.flipped, SensorSnapshot.getPivot1Position(), SensorSnapshot.getPivot2Position(), SensorSnapshot.getTurretPosition(), out);
+    }
+
+    /**
+     * Reads the encoders directly instead of using the {@link SensorSnapshot}, for the control loop thread.
+     */
+    private ArmJointState readAnglesDeg(boolean flipped, ArmJointState out) {
+        return toJointAngles(flipped, pivot1Encoder.getPosition(), pivot2Encoder.getPosition(), turretEncoder.getPosition(), out);
+    }
 
+    private static ArmJointState toJointAngles(boolean flipped, double angle1, double angle2, double angle3, ArmJointState out) {
         if (flipped) { //offset for when arm is flipped because our gearbox is loose for some reason
-            angle1 -= 8;
+            angle1 -= FLIPPED_PIVOT1_OFFSET;
         }
 
-        return new double[]{angle1, angle2, angle3};
+        return out.set(angle1, angle2, angle3);
     }
 
     /**
@@ -188,39 +408,132 @@ public class ArmSubsystem extends SubsystemBase {
      * @return [pivot1Angle, pivot2Angle, turretAngle]
      */
     public double[] getCurrentAnglesRad() {
-        double angle1 = Math.toRadians(pivot1Encoder.getPosition());
-        double angle2 = pivot2Encoder.getPosition();
-        double angle3 = Math.toRadians(turretEncoder.getPosition());
+        double angle1 = Math.toRadians(SensorSnapshot.getPivot1Position());
+        double angle2 = SensorSnapshot.getPivot2Position();
+        double angle3 = Math.toRadians(SensorSnapshot.getTurretPosition());
 
         return new double[]{angle1, angle2, angle3};
     }
 
     public double getTurretAngleDeg() {
-        return this.turretEncoder.getPosition();
+        return SensorSnapshot.getTurretPosition();
     }
     /*
      * All the Setter methods below
      */
 
     public void setPivot1Speed(double speed) {
+        this.pivot1OverrideUntilNanos = System.nanoTime() + COMMAND_DRIVE_TIMEOUT_NANOS;
+        if (this.pivot1Onboard != null) {
+            this.pivot1Onboard.invalidate();
+        }
         this.pivot1.set(speed);
     }
 
     public void setPivot2Speed(double speed) {
+        this.pivot2OverrideUntilNanos = System.nanoTime() + COMMAND_DRIVE_TIMEOUT_NANOS;
+        if (this.pivot2Onboard != null) {
+            this.pivot2Onboard.invalidate();
+        }
         this.pivot2.set(speed);
     }
 
     public void setTurretSpeed(double speed) {
+        this.turretOverrideUntilNanos = System.nanoTime() + COMMAND_DRIVE_TIMEOUT_NANOS;
+        if (this.turretOnboard != null) {
+            this.turretOnboard.invalidate();
+        }
         this.turret.set(speed);
 
     }
 
+    /**
+     * Drives one joint at a voltage for system identification, taking it over from the PIDs for the next {@link #COMMAND_DRIVE_TIMEOUT_NANOS} (keep
+     * calling it). Unlike the speed setters this is safe to call from any thread, e.g. a characterization {@link Notifier}.
+     *
+     * @param joint {@link ArmMotionProfile#PIVOT1}, {@link ArmMotionProfile#PIVOT2} or {@link ArmMotionProfile#TURRET}
+     * @param volts The voltage to apply
+     */
+    public void setJointVoltage(int joint, double volts) {
+        long overrideUntil = System.nanoTime() + COMMAND_DRIVE_TIMEOUT_NANOS;
+        if (joint == ArmMotionProfile.PIVOT1) {
+            this.pivot1OverrideUntilNanos = overrideUntil;
+        } else if (joint == ArmMotionProfile.PIVOT2) {
+            this.pivot2OverrideUntilNanos = overrideUntil;
+        } else {
+            this.turretOverrideUntilNanos = overrideUntil;
+        }
+        jointMotor(joint).setVoltage(volts);
+    }
+
+    /**
+     * Reads a joint's encoder straight from the motor controller (not from {@link SensorSnapshot}), so it is safe to call from any thread.
+     *
+     * @return The raw encoder position in degrees, without the flipped offset
+     */
+    public double readJointPosition(int joint) {
+        return jointEncoder(joint).getPosition();
+    }
+
+    /**
+     * @return The joint's velocity in degrees per second, read straight from the motor controller
+     */
+    public double readJointVelocity(int joint) {
+        return jointEncoder(joint).getVelocity();
+    }
+
+    /**
+     * @return The voltage the joint's motor controller is actually applying, read straight from the motor controller
+     */
+    public double readJointVoltage(int joint) {
+        CANSparkMax motor = jointMotor(joint);
+        return motor.getAppliedOutput() * motor.getBusVoltage();
+    }
+
+    /**
+     * @return True if the joint's limit switch is pressed, read straight from the switch
+     */
+    public boolean readJointLimitPressed(int joint) {
+        DigitalInput limit = joint == ArmMotionProfile.PIVOT1 ? this.arm1Limit : joint == ArmMotionProfile.PIVOT2 ? this.arm2Limit : this.turretLimit;
+        return !limit.get(); // wired normally closed
+    }
+
+    /**
+     * Speeds up the status frames of a joint while it is being characterized, so every sample has fresh voltage, velocity and position readings.
+     * Call from the main thread.
+     *
+     * @param characterizing True to speed the frames up, false to go back to normal
+     */
+    public void setJointCharacterizing(int joint, boolean characterizing) {
+        CANSparkMax motor = jointMotor(joint);
+        if (characterizing) {
+            CANConfigurator.configure(motor, CANConfigurator.Role.CHARACTERIZATION);
+        } else {
+            CANConfigurator.configure(motor, CANConfigurator.Role.ARM_JOINT, this.positionFramePeriodMs);
+            // setJointVoltage replaced the onboard PID's reference, so make sure it gets sent again even if the setpoint hasn't changed
+            OnboardJoint onboard = joint == ArmMotionProfile.PIVOT1 ? this.pivot1Onboard : joint == ArmMotionProfile.PIVOT2 ? this.pivot2Onboard : this.turretOnboard;
+            if (onboard != null) {
+                onboard.invalidate();
+            }
+        }
+    }
+
+    private CANSparkMax jointMotor(int joint) {
+        return joint == ArmMotionProfile.PIVOT1 ? this.pivot1 : joint == ArmMotionProfile.PIVOT2 ? this.pivot2 : this.turret;
+    }
+
+    private RelativeEncoder jointEncoder(int joint) {
+        return joint == ArmMotionProfile.PIVOT1 ? this.pivot1Encoder : joint == ArmMotionProfile.PIVOT2 ? this.pivot2Encoder : this.turretEncoder;
+    }
+
     public void setArm1SpeedMultiplier(double mult) {
         this.arm1SpeedMultiplier = mult;
+        publishSetpoints();
     }
 
     public void setArm2SpeedMultiplier(double mult) {
         this.arm2SpeedMultiplier = mult;
+        publishSetpoints();
     }
 
     public void setManualControlMode(boolean isManual){
@@ -230,24 +543,35 @@ public class ArmSubsystem extends SubsystemBase {
     public void setMaxAndMinOutput1(double speed) {
         this.minOutput = -speed;
         this.maxOutput = speed;
+        publishSetpoints();
     }
     public void setMaxAndMinOutput2(double speed){
         this.minOutput2 = -speed;
         this.maxOutput2 = speed;
+        publishSetpoints();
     }
 
     public void setTargetAngle1(double angle) {
         this.targetAngle1 = angle;
+        this.activePath = null;
+        publishSetpoints();
     }
 
     public void setTargetAngle2(double angle) {
         this.targetAngle2 = angle;
+        this.activePath = null;
+        publishSetpoints();
     }
     
     public void stopAllMotors() {
         this.pivot1.set(0);
         this.pivot2.set(0);
         this.turret.set(0);
+        if (this.controlMode == ControlMode.ONBOARD) {
+            this.pivot1Onboard.invalidate();
+            this.pivot2Onboard.invalidate();
+            this.turretOnboard.invalidate();
+        }
     }
 
     public boolean getControlMode(){
@@ -258,11 +582,10 @@ public class ArmSubsystem extends SubsystemBase {
      * Uses motor encoder angles to update the current coordinates
      */
     public void updateCurrentCoordinates() {
-        double[] tempAngles = getCurrentAnglesDeg();
-        double[] coords = ForwardKinematicsUtil.getCoordinatesFromAngles(tempAngles[0], tempAngles[1], tempAngles[2]);
-        this.cur_x = coords[0];
-        this.cur_y = coords[1];
-        this.cur_z = coords[2];
+        ForwardKinematicsUtil.getCoordinatesFromAngles(getCurrentAnglesDeg(this.currentAngles), this.currentCoordinates);
+        this.cur_x = this.currentCoordinates.getX();
+        this.cur_y = this.currentCoordinates.getY();
+        this.cur_z = this.currentCoordinates.getZ();
     }
 
     /*
@@ -275,6 +598,17 @@ public class ArmSubsystem extends SubsystemBase {
         return new double[]{this.cur_x, this.cur_y, this.cur_z};
     }
 
+    /**
+     * returns current coordinates, without allocating
+     * 
+     * @param out Where the coordinates are written, y is the height above ground
+     * @return {@code out}
+     */
+    public ArmCartesianState getCurrentCoordinates(ArmCartesianState out) {
+        updateCurrentCoordinates();
+        return out.set(this.cur_x, this.cur_y, this.cur_z);
+    }
+
     /**
      * return coordinates in which the arm "should" move towards
      * 
@@ -284,34 +618,68 @@ public class ArmSubsystem extends SubsystemBase {
         return new double[]{this.targetX, this.targetY, this.targetZ};
     }
 
+    /**
+     * return coordinates in which the arm "should" move towards, without allocating
+     * 
+     * @param out Where the coordinates are written, y is the height above ground
+     * @return {@code out}
+     */
+    public ArmCartesianState getTargetCoordinates(ArmCartesianState out) {
+        return out.set(this.targetX, this.targetY, this.targetZ);
+    }
+
     public boolean getPivot1LimitPressed() {
-        return !this.arm1Limit.get();
+        return SensorSnapshot.isPivot1LimitPressed();
     }
 
     public boolean getPivot2LimitPressed() {
-        return !this.arm2Limit.get();
+        return SensorSnapshot.isPivot2LimitPressed();
     }
 
     public boolean getTurretLimitPressed(){
-        return !this.turretLimit.get();
+        return SensorSnapshot.isTurretLimitPressed();
     }
 
     public void goTowardTargetCoordinates() {
-        double[] angles = getCurrentAnglesDeg(); // gets the current angles read from motor encoders
+        if (this.controlMode == ControlMode.HIGH_RATE) {
+            // The control loop does the actual work, this just keeps it driving the joints while the command keeps calling this
+            this.commandDriveUntilNanos = System.nanoTime() + COMMAND_DRIVE_TIMEOUT_NANOS;
+            return;
+        }
+        if (this.controlMode == ControlMode.ONBOARD) {
+            updateOnboardControllers();
+            return;
+        }
+        writeSetpoint(this.schedulerSetpoint);
+        driveJoints(this.schedulerSetpoint, getCurrentAnglesDeg(this.currentAngles)); // gets the current angles read from motor encoders
+    }
 
-        if (Double.isNaN(angles[0]) || Double.isNaN(angles[1]) || Double.isNaN(angles[2]) || Double.isNaN(targetAngle1) || Double.isNaN(targetAngle2) || Double.isNaN(targetAngleTurret)) {
-            System.out.println("An angle is NaN, so skip");
+    /**
+     * Runs the joint PIDs once and sets the motor speeds. Called from whichever thread runs the control loop for the current {@link ControlMode}.
+     */
+    private void driveJoints(double[] setpoint, ArmJointState angles) {
+        double targetAngle1 = setpoint[SETPOINT_TARGET_ANGLE1];
+        double targetAngle2 = setpoint[SETPOINT_TARGET_ANGLE2];
+        double targetAngleTurret = setpoint[SETPOINT_TARGET_ANGLE_TURRET];
+        double maxOutput = setpoint[SETPOINT_MAX_OUTPUT], minOutput = setpoint[SETPOINT_MIN_OUTPUT];
+        double maxOutput2 = setpoint[SETPOINT_MAX_OUTPUT2], minOutput2 = setpoint[SETPOINT_MIN_OUTPUT2];
+
+        if (!angles.isValid() || Double.isNaN(targetAngle1) || Double.isNaN(targetAngle2) || Double.isNaN(targetAngleTurret)) {
+            ANGLE_NAN_LOG.log("An angle is NaN, so skip");
             return;
         }
 
+        // Follow the path or the motion profile towards the targets, with its velocity (and the arm's weight) as feedforward
+        ArmJointState reference = computeReference(targetAngle1, targetAngle2, targetAngleTurret, angles, setpoint[SETPOINT_ARM1_SPEED_MULTIPLIER], setpoint[SETPOINT_ARM2_SPEED_MULTIPLIER], maxOutput, maxOutput2, setpoint[SETPOINT_PAYLOAD_MASS]);
+
         // gets PID control calculations
-        double p1Speed = pidController1.calculate(angles[0], targetAngle1) * arm1SpeedMultiplier;
-        double p2Speed = pidController2.calculate(angles[1], targetAngle2) * arm2SpeedMultiplier;
-        double turretSpeed = pidController3.calculate(angles[2], targetAngleTurret);
+        double p1Speed = pidController1.calculate(angles.getPivot1Angle(), reference.getPivot1Angle()) * setpoint[SETPOINT_ARM1_SPEED_MULTIPLIER] + this.referenceFeedforward[ArmMotionProfile.PIVOT1];
+        double p2Speed = pidController2.calculate(angles.getPivot2Angle(), reference.getPivot2Angle()) * setpoint[SETPOINT_ARM2_SPEED_MULTIPLIER] + this.referenceFeedforward[ArmMotionProfile.PIVOT2];
+        double turretSpeed = pidController3.calculate(angles.getTurretAngle(), reference.getTurretAngle()) + this.referenceFeedforward[ArmMotionProfile.TURRET];
 
         // if power is NaN, don't run it :D
         if (Double.isNaN(p1Speed) || Double.isNaN(p2Speed) || Double.isNaN(turretSpeed)) {
-            System.out.println("PID is NaN, so skip");
+            PID_NAN_LOG.log("PID is NaN, so skip");
             return;
         }
 
@@ -319,13 +687,150 @@ public class ArmSubsystem extends SubsystemBase {
         p2Speed = Math.min(maxOutput2, Math.max(p2Speed, minOutput2));
         turretSpeed = Math.min(maxOutput, Math.max(turretSpeed, minOutput));
 
-        setTurretSpeed(turretSpeed);
-        setPivot1Speed(p1Speed);
-        setPivot2Speed(p2Speed);
+        // In HIGH_RATE mode, skip any joint a command is setting the speed of directly (in SCHEDULER mode the command runs after this anyway)
+        boolean checkOverrides = this.controlMode == ControlMode.HIGH_RATE;
+        long now = System.nanoTime();
+        if (!checkOverrides || now - this.turretOverrideUntilNanos >= 0) {
+            this.turret.set(turretSpeed);
+        }
+        if (!checkOverrides || now - this.pivot1OverrideUntilNanos >= 0) {
+            this.pivot1.set(p1Speed);
+        }
+        if (!checkOverrides || now - this.pivot2OverrideUntilNanos >= 0) {
+            this.pivot2.set(p2Speed);
+        }
 
         //System.out.println("SPEEDS: " + p1Speed + " " + p2Speed + " " + turretSpeed);
     }
 
+    /**
+     * Works out where the joints should be this tick: along the active path while there is one, otherwise along the motion profile towards the targets
+     * (or straight at the targets if {@link ArmConstants#USE_MOTION_PROFILE} is off). Writes the matching feedforward, as a fraction of full output,
+     * into {@link #referenceFeedforward}: the reference velocity, plus for the pivots the gravity and inertia torques from {@link ArmFeedforward}.
+     * <p>
+     * The gravity torques come from the reference angles, not the measured ones. The measurement jitters every tick, so a feedforward worked out from it
+     * would too, and the onboard controllers would get the same reference resent over CAN every loop just for a slightly different arbitrary
+     * feedforward. Whatever the reference and the measurement disagree on is left to the PID.
+     *
+     * @param angles      The current angles, which the motion profile starts from after a reset
+     * @param payloadMass The mass of the game piece in the claw, in pounds
+     * @return The reference angles for this tick
+     */
+    private ArmJointState computeReference(double targetAngle1, double targetAngle2, double targetAngleTurret, ArmJointState angles,
+                                           double arm1SpeedMultiplier, double arm2SpeedMultiplier, double maxOutput, double maxOutput2, double payloadMass) {
+        double now = System.nanoTime() / 1e9;
+        ActivePath active = this.activePath;
+        ArmJointState reference;
+        double pivot1Acceleration = 0, pivot2Acceleration = 0;
+        if (active != null && now - active.startSeconds < active.path.getTotalTime()) {
+            ArmPath path = active.path;
+            double t = now - active.startSeconds;
+            for (int joint = 0; joint < JOINT_FREE_SPEEDS.length; joint++) {
+                this.referenceFeedforward[joint] = path.getVelocity(t, joint) / JOINT_FREE_SPEEDS[joint];
+            }
+            pivot1Acceleration = path.getAcceleration(t, ArmMotionProfile.PIVOT1);
+            pivot2Acceleration = path.getAcceleration(t, ArmMotionProfile.PIVOT2);
+            this.motionProfile.reset(); // once the path ends, the profile picks up from wherever the joints got to
+            reference = path.sample(t, this.referenceAngles);
+        } else if (!ArmConstants.USE_MOTION_PROFILE) {
+            Arrays.fill(this.referenceFeedforward, 0);
+            reference = this.referenceAngles.set(targetAngle1, targetAngle2, targetAngleTurret);
+        } else {
+            reference = updateMotionProfile(targetAngle1, targetAngle2, targetAngleTurret, angles, arm1SpeedMultiplier, arm2SpeedMultiplier, maxOutput, maxOutput2);
+            for (int joint = 0; joint < JOINT_FREE_SPEEDS.length; joint++) {
+                this.referenceFeedforward[joint] = this.motionProfile.getVelocity(joint) / JOINT_FREE_SPEEDS[joint];
+            }
+            pivot1Acceleration = this.motionProfile.getAcceleration(ArmMotionProfile.PIVOT1);
+            pivot2Acceleration = this.motionProfile.getAcceleration(ArmMotionProfile.PIVOT2);
+        }
+
+        if (ArmConstants.USE_ARM_FEEDFORWARD) {
+            this.armFeedforward.calculate(reference, pivot1Acceleration, pivot2Acceleration, payloadMass);
+            this.referenceFeedforward[ArmMotionProfile.PIVOT1] += this.armFeedforward.getPivot1Output();
+            this.referenceFeedforward[ArmMotionProfile.PIVOT2] += this.armFeedforward.getPivot2Output();
+        }
+        return reference;
+    }
+
+    /**
+     * Advances the motion profile towards the targets. The speed multipliers and output limits slow the profile down, so it never plans a move the clamped
+     * output can't keep up with.
+     *
+     * @return The profiled angles for this tick
+     */
+    private ArmJointState updateMotionProfile(double targetAngle1, double targetAngle2, double targetAngleTurret, ArmJointState angles,
+                                              double arm1SpeedMultiplier, double arm2SpeedMultiplier, double maxOutput, double maxOutput2) {
+        return this.motionProfile.update(System.nanoTime() / 1e9, this.profileGoal.set(targetAngle1, targetAngle2, targetAngleTurret), angles,
+                maxOutput * Math.min(1, Math.abs(arm1SpeedMultiplier)), maxOutput2 * Math.min(1, Math.abs(arm2SpeedMultiplier)), maxOutput);
+    }
+
+    /**
+     * Sends the targets, gains and output limits to the SPARK MAX onboard PIDs (only the ones that changed)
+     */
+    private void updateOnboardControllers() {
+        if (Double.isNaN(targetAngle1) || Double.isNaN(targetAngle2) || Double.isNaN(targetAngleTurret)) {
+            ANGLE_NAN_LOG.log("An angle is NaN, so skip");
+            return;
+        }
+        ArmJointState reference = computeReference(targetAngle1, targetAngle2, targetAngleTurret, getCurrentAnglesDeg(this.currentAngles), arm1SpeedMultiplier, arm2SpeedMultiplier, maxOutput, maxOutput2, payloadMass);
+        // The onboard PID sees the raw encoder, so the flipped offset goes on the reference instead of the measurement.
+        // Speed multipliers scale the output, which for a P controller is the same as scaling P.
+        double pivot1Reference = this.flipped ? reference.getPivot1Angle() + FLIPPED_PIVOT1_OFFSET : reference.getPivot1Angle();
+        this.pivot1Onboard.update(pivot1Reference, this.referenceFeedforward[ArmMotionProfile.PIVOT1], PIVOT1_P * arm1SpeedMultiplier, minOutput, maxOutput);
+        this.pivot2Onboard.update(reference.getPivot2Angle(), this.referenceFeedforward[ArmMotionProfile.PIVOT2], PIVOT2_P * arm2SpeedMultiplier, minOutput2, maxOutput2);
+        this.turretOnboard.update(reference.getTurretAngle(), this.referenceFeedforward[ArmMotionProfile.TURRET], TURRET_P, minOutput, maxOutput);
+    }
+
+    /**
+     * Copies everything the joint PIDs need into a setpoint snapshot
+     */
+    private void writeSetpoint(double[] setpoint) {
+        setpoint[SETPOINT_TARGET_ANGLE1] = this.targetAngle1;
+        setpoint[SETPOINT_TARGET_ANGLE2] = this.targetAngle2;
+        setpoint[SETPOINT_TARGET_ANGLE_TURRET] = this.targetAngleTurret;
+        setpoint[SETPOINT_ARM1_SPEED_MULTIPLIER] = this.arm1SpeedMultiplier;
+        setpoint[SETPOINT_ARM2_SPEED_MULTIPLIER] = this.arm2SpeedMultiplier;
+        setpoint[SETPOINT_MAX_OUTPUT] = this.maxOutput;
+        setpoint[SETPOINT_MIN_OUTPUT] = this.minOutput;
+        setpoint[SETPOINT_MAX_OUTPUT2] = this.maxOutput2;
+        setpoint[SETPOINT_MIN_OUTPUT2] = this.minOutput2;
+        setpoint[SETPOINT_PID_ON] = this.pidOn ? 1 : 0;
+        setpoint[SETPOINT_FLIPPED] = this.flipped ? 1 : 0;
+        setpoint[SETPOINT_PAYLOAD_MASS] = this.payloadMass;
+    }
+
+    /**
+     * Hands the current targets over to the high rate control loop. Call after changing anything {@link #writeSetpoint(double[])} copies.
+     */
+    private void publishSetpoints() {
+        if (this.controlMode != ControlMode.HIGH_RATE) {
+            return;
+        }
+        writeSetpoint(this.setpointBuffer.beginWrite());
+        this.setpointBuffer.publish();
+    }
+
+    /**
+     * The high rate control loop, runs on the {@link Notifier}'s thread
+     */
+    private void runControlLoop() {
+        this.controlLoopSection.start();
+        double[] setpoint = this.setpointBuffer.read();
+        boolean drive = setpoint[SETPOINT_PID_ON] != 0 || System.nanoTime() - this.commandDriveUntilNanos < 0;
+        if (drive) {
+            driveJoints(setpoint, readAnglesDeg(setpoint[SETPOINT_FLIPPED] != 0, this.controlLoopAngles));
+        } else if (this.controlLoopWasDriving) {
+            stopAllMotors(); // make sure the last speeds from this thread don't stick around after PID is turned off
+            this.motionProfile.reset();
+        }
+        this.controlLoopWasDriving = drive;
+        this.controlLoopSection.stop();
+    }
+
+    public ControlMode getControlLoopMode() {
+        return this.controlMode;
+    }
+
     /**
      * sets the coordinate in which the arm "should" move towards
      * 
@@ -338,29 +843,84 @@ public class ArmSubsystem extends SubsystemBase {
         if (this.targetX == x && this.targetY == y && this.targetZ == z) { // if intended coordinates are same, then don't change target
             return;
         }
+        this.activePath = null;
 
         // Updates target Angles
-        double[] targetAngles = InverseKinematicsUtil.getAnglesFromCoordinates(x, y, z, getFlipped());
+        InverseKinematicsTable table = this.ikTable;
+        ArmJointState targetAngles = table != null ? table.getAnglesFromCoordinates(x, y, z, getFlipped(), this.newTargetAngles)
+                : InverseKinematicsUtil.getAnglesFromCoordinates(x, y, z, getFlipped(), this.newTargetAngles);
     
         // Stops any updates if IKU is out of bounds or calculation error occurs
-        if (Double.isNaN(targetAngles[0]) || Double.isNaN(targetAngles[1]) || Double.isNaN(targetAngles[2])) {
-            System.out.println("Hi this is the Arm Death Prevention Hotline @copyright setIntendedCoordinates");
+        if (!targetAngles.isValid()) {
+            UNREACHABLE_TARGET_LOG.log("Hi this is the Arm Death Prevention Hotline @copyright setIntendedCoordinates");
             return;
         }
-        double[] adjustedCoordinates = ForwardKinematicsUtil.getCoordinatesFromAngles(targetAngle1, targetAngle2, targetAngleTurret);
+        ArmCartesianState adjustedCoordinates = ForwardKinematicsUtil.getCoordinatesFromAngles(targetAngle1, targetAngle2, targetAngleTurret, this.adjustedCoordinates);
 
         //update current coordinates
         updateCurrentCoordinates();
 
         // Updates target angles
-        targetAngle1 = targetAngles[0];
-        targetAngle2 = targetAngles[1];
-        targetAngleTurret = targetAngles[2];
+        targetAngle1 = targetAngles.getPivot1Angle();
+        targetAngle2 = targetAngles.getPivot2Angle();
+        targetAngleTurret = targetAngles.getTurretAngle();
 
         // Updates target coordinates
-        this.targetX = adjustedCoordinates[0];
-        this.targetY = adjustedCoordinates[1];
-        this.targetZ = adjustedCoordinates[2];
+        this.targetX = adjustedCoordinates.getX();
+        this.targetY = adjustedCoordinates.getY();
+        this.targetZ = adjustedCoordinates.getZ();
+        publishSetpoints();
+    }
+
+    /**
+     * Moves the arm along a planned path (see {@link frc.robot.util.ArmPathPlanner}) instead of straight at the target angles. The path's goal becomes the target, so once
+     * the path ends the arm holds it like any other target. Setting a new target cancels the path.
+     *
+     * @param path The path to follow, planned from where the claw is now
+     */
+    public void followPath(ArmPath path) {
+        ArmJointState finalAngles = path.getFinalAngles(this.newTargetAngles);
+        this.targetAngle1 = finalAngles.getPivot1Angle();
+        this.targetAngle2 = finalAngles.getPivot2Angle();
+        this.targetAngleTurret = finalAngles.getTurretAngle();
+        this.targetX = path.getGoal().getX();
+        this.targetY = path.getGoal().getY();
+        this.targetZ = path.getGoal().getZ();
+        this.activePath = new ActivePath(path, System.nanoTime() / 1e9);
+        publishSetpoints();
+    }
+
+    /**
+     * Makes wherever the joints are now the target, so the arm holds still there. Cancels any path.
+     */
+    public void holdCurrentPosition() {
+        ArmJointState angles = getCurrentAnglesDeg(this.currentAngles);
+        this.activePath = null;
+        this.targetAngle1 = angles.getPivot1Angle();
+        this.targetAngle2 = angles.getPivot2Angle();
+        this.targetAngleTurret = angles.getTurretAngle();
+        updateCurrentCoordinates();
+        this.targetX = this.cur_x;
+        this.targetY = this.cur_y;
+        this.targetZ = this.cur_z;
+        publishSetpoints();
+    }
+
+    /**
+     * @return True while the arm is still moving along the path from {@link #followPath(ArmPath)}
+     */
+    public boolean isFollowingPath() {
+        ActivePath active = this.activePath;
+        return active != null && System.nanoTime() / 1e9 - active.startSeconds < active.path.getTotalTime();
+    }
+
+    /**
+     * sets the coordinate in which the arm "should" move towards
+     * 
+     * @param coordinates the target coordinates, where y is the height
+     */
+    public void setTargetCoordinates(Vec3 coordinates) {
+        setTargetCoordinates(coordinates.getX(), coordinates.getY(), coordinates.getZ());
     }
 
     /**
@@ -369,6 +929,7 @@ public class ArmSubsystem extends SubsystemBase {
      */
     public void setPIDControlState(boolean value) {
         pidOn = value;
+        publishSetpoints();
         if(!value) {
             stopAllMotors();
         }
@@ -382,6 +943,15 @@ public class ArmSubsystem extends SubsystemBase {
         return pidOn;
     }
 
+    /**
+     * Tells the arm how to find out whether the claw is holding a game piece, so the feedforward can account for its weight.
+     *
+     * @param holdingGamePiece Returns true while the claw is holding a game piece
+     */
+    public void setGamePieceSupplier(BooleanSupplier holdingGamePiece) {
+        this.holdingGamePiece = holdingGamePiece;
+    }
+
     public boolean getFlipped(){
         return flipped;
     }
@@ -391,12 +961,13 @@ public class ArmSubsystem extends SubsystemBase {
             moveVector(0, 10, 0);
         }
         this.flipped = flipped;
+        publishSetpoints();
         (new FlipArmCommand(this, flipped)).withInterruptBehavior(InterruptionBehavior.kCancelSelf).schedule();
     }
 
     public boolean isAtCoords(){
-        double[] curAngles = getCurrentAnglesDeg();
-        return (Math.abs(targetAngle1 - curAngles[0]) < ArmConstants.ANGLE_DELTA) && (Math.abs(targetAngle2 - curAngles[1]) < ArmConstants.ANGLE_DELTA) && (Math.abs(targetAngleTurret - curAngles[2]) < ArmConstants.ANGLE_DELTA);
+        ArmJointState curAngles = getCurrentAnglesDeg(this.currentAngles);
+        return (Math.abs(targetAngle1 - curAngles.getPivot1Angle()) < ArmConstants.ANGLE_DELTA) && (Math.abs(targetAngle2 - curAngles.getPivot2Angle()) < ArmConstants.ANGLE_DELTA) && (Math.abs(targetAngleTurret - curAngles.getTurretAngle()) < ArmConstants.ANGLE_DELTA);
     }
 
     /**
@@ -410,18 +981,22 @@ public class ArmSubsystem extends SubsystemBase {
 
     @Override
     public void periodic() {
+        periodicSection.start();
         // System.out.println("ARM MOTOR ENCODERS: PIV1: " + this.pivot1Encoder.getPosition() + ", PIV2: " + this.pivot2Encoder.getPosition() + ", TURRET: " + this.turretEncoder.getPosition());
         // System.out.println("TARGET COORDS: " + targetX + ", " + targetY + ", " + targetZ);
         // System.out.println("ARM IKU FLIP STATE: " + this.flipped);
         // System.out.println("TARGET ANGLES: " + targetAngle1 + ", " + targetAngle2 + ", " + targetAngleTurret);
         // System.out.println("CURRENT ANGLES " + getCurrentAnglesDeg()[0] + " " + getCurrentAnglesDeg()[1] + " " + getCurrentAnglesDeg()[2]);
         // System.out.println("LIMIT 1: " + getPivot1LimitPressed() + ", LIMIT 2: " + getPivot2LimitPressed() + ", Turret Limit: " + getTurretLimitPressed());
-        System.out.println("getAbsolute: " + this.testAbsoluteEncoder.getAbsolutePosition() + ", get: " + this.testAbsoluteEncoder.get());
+        if (ABSOLUTE_ENCODER_LOG.ready()) { // only read the encoder when it's actually going to be logged
+            ABSOLUTE_ENCODER_LOG.emit("getAbsolute: {}, get: {}", this.testAbsoluteEncoder.getAbsolutePosition(), this.testAbsoluteEncoder.get());
+        }
 
-        boolean resetPivot1 = getPivot1LimitPressed() && Math.abs(this.pivot1Encoder.getPosition() - ArmConstants.ARM_1_INITIAL_ANGLE) > 0.1 && Math.abs(targetAngle1 - ArmConstants.ARM_1_INITIAL_ANGLE) < 5;
-        boolean resetPivot2 = getPivot2LimitPressed() && Math.abs(this.pivot2Encoder.getPosition() - ArmConstants.ARM_2_INITIAL_ANGLE) > 0.1 && Math.abs(targetAngle2 - ArmConstants.ARM_2_INITIAL_ANGLE) < 5;
+        boolean resetPivot1 = getPivot1LimitPressed() && Math.abs(SensorSnapshot.getPivot1Position() - ArmConstants.ARM_1_INITIAL_ANGLE) > 0.1 && Math.abs(targetAngle1 - ArmConstants.ARM_1_INITIAL_ANGLE) < 5;
+        boolean resetPivot2 = getPivot2LimitPressed() && Math.abs(SensorSnapshot.getPivot2Position() - ArmConstants.ARM_2_INITIAL_ANGLE) > 0.1 && Math.abs(targetAngle2 - ArmConstants.ARM_2_INITIAL_ANGLE) < 5;
+        boolean resetTurret = getTurretLimitPressed();
                 
-        if(getTurretLimitPressed()){
+        if(resetTurret){
             this.turretEncoder.setPosition(0);
         }
 
@@ -433,15 +1008,26 @@ public class ArmSubsystem extends SubsystemBase {
             this.pivot2Encoder.setPosition(ArmConstants.ARM_2_INITIAL_ANGLE);
         }
 
+        if (resetTurret || resetPivot1 || resetPivot2) {
+            SensorSnapshot.resampleArm();
+        }
+
         if(resetPivot1 && resetPivot2) {
             resetCoords();
         }
 
+        double payloadMass = this.holdingGamePiece.getAsBoolean() ? ArmConstants.GAME_PIECE_MASS : 0;
+        if (payloadMass != this.payloadMass) {
+            this.payloadMass = payloadMass;
+            publishSetpoints();
+        }
+
         //handles PID
         // System.out.println("PID STATE: " + pidOn);
-        if (pidOn) {
+        if (pidOn && this.controlMode != ControlMode.HIGH_RATE) { // in HIGH_RATE mode the control loop handles it
             goTowardTargetCoordinates();
         }
+        periodicSection.stop();
     }
 
     @Override
@@ -5,12 +5,15 @@ import edu.wpi.first.wpilibj.DoubleSolenoid;
 import edu.wpi.first.wpilibj.DoubleSolenoid.Value;
 import edu.wpi.first.wpilibj.PneumaticsModuleType;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.util.LoopProfiler;
 
 public class ClawGripSubsystem extends SubsystemBase {
     private final DoubleSolenoid doubleSolenoid;
     private final Compressor compressor;
     private boolean clawClosed;
 
+    private final LoopProfiler.Section periodicSection = LoopProfiler.section("ClawGripSubsystem.periodic()");
+
     public ClawGripSubsystem() {
         this.doubleSolenoid = new DoubleSolenoid(12, PneumaticsModuleType.REVPH, 1, 0);
         this.clawClosed = false;
@@ -51,7 +54,9 @@ public class ClawGripSubsystem extends SubsystemBase {
 
     @Override
     public void periodic() {
+        periodicSection.start();
         this.doubleSolenoid.set(this.clawClosed ? Value.kForward : Value.kReverse); //open and close claw based on clawClosed boolean
+        periodicSection.stop();
     }
 
     @Override
@@ -13,6 +13,9 @@ import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.ClawConstants;
 import frc.robot.Constants.PortConstants;
 import frc.robot.subsystems.staticsubsystems.LimeLight;
+import frc.robot.subsystems.staticsubsystems.SensorSnapshot;
+import frc.robot.util.CANConfigurator;
+import frc.robot.util.LoopProfiler;
 
 
 public class ClawRotationSubsystem extends SubsystemBase {
@@ -27,8 +30,11 @@ public class ClawRotationSubsystem extends SubsystemBase {
 
     private double targetAngle;
 
+    private final LoopProfiler.Section periodicSection = LoopProfiler.section("ClawRotationSubsystem.periodic()");
+
     public ClawRotationSubsystem() {
         this.clawRotator = new CANSparkMax(PortConstants.CLAW_ROTATE_PORT, MotorType.kBrushless);
+        CANConfigurator.configure(this.clawRotator, CANConfigurator.Role.POSITION_ONLY);
         this.clawRotationEncoder = this.clawRotator.getEncoder();
         this.clawRotationEncoder.setPositionConversionFactor(30); // each motor rotation is 30 degrees
 
@@ -36,6 +42,7 @@ public class ClawRotationSubsystem extends SubsystemBase {
         this.clawPIDController.setTolerance(ClawConstants.CORRECT_CLAW_ROTATION_AT_DELTA);
         this.targetAngle = 0;
         this.clawRotationEncoder.setPosition(0.0);
+        SensorSnapshot.registerClawRotation(this.clawRotationEncoder);
     }
     public void changeAngle(double changeBy){
         targetAngle += changeBy;
@@ -63,12 +70,14 @@ public class ClawRotationSubsystem extends SubsystemBase {
     }
 
     public double getClawAngle() {
-        return this.clawRotationEncoder.getPosition();
+        return SensorSnapshot.getClawRotationPosition();
     }
 
     @Override
     public void periodic() {
+        periodicSection.start();
         setAngle(targetAngle);
+        periodicSection.stop();
     }
 
     @Override
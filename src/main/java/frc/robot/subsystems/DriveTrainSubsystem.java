@@ -23,8 +23,10 @@ import edu.wpi.first.math.trajectory.Trajectory;
 import edu.wpi.first.math.trajectory.TrajectoryConfig;
 import edu.wpi.first.math.trajectory.TrajectoryGenerator;
 import edu.wpi.first.math.trajectory.constraint.DifferentialDriveVoltageConstraint;
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.drive.DifferentialDrive;
-import edu.wpi.first.wpilibj.motorcontrol.MotorControllerGroup;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.RamseteCommand;
@@ -36,7 +38,16 @@ import frc.robot.controllers.FlightJoystick;
 import frc.robot.Constants.PortConstants;
 import frc.robot.Constants.RobotConstants;
 import frc.robot.subsystems.staticsubsystems.RobotGyro;
+import frc.robot.subsystems.staticsubsystems.SensorSnapshot;
+import frc.robot.util.AsyncTrajectoryService;
+import frc.robot.util.CANConfigurator;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.NetworkTablesRegistry;
 import frc.robot.util.NetworkTablesUtil;
+import frc.robot.util.OdometrySampleQueue;
+import frc.robot.util.PoseHistory;
+import frc.robot.util.TrajectoryCache;
+import frc.robot.util.VisionPoseFusion;
 
 import java.util.List;
 
@@ -47,9 +58,6 @@ public class DriveTrainSubsystem extends SubsystemBase {
     private final CANSparkMax rearLeftMotor;
     private final CANSparkMax rearRightMotor;
 
-    private final MotorControllerGroup leftMotorGroup;
-    private final MotorControllerGroup rightMotorGroup;
-
     private final RelativeEncoder frontLeftEncoder;
     private final RelativeEncoder frontRightEncoder;
     private final RelativeEncoder rearLeftEncoder;
@@ -65,6 +73,34 @@ public class DriveTrainSubsystem extends SubsystemBase {
     //private boolean blueTeam = NetworkTablesUtil.getIfOnBlueTeam();
 
     private final DifferentialDrivePoseEstimator m_poseEstimator;
+    private final VisionPoseFusion visionPoseFusion;
+    private final PoseHistory poseHistory = new PoseHistory(DriveConstants.POSE_HISTORY_SIZE);
+
+    // Odometry is sampled on its own thread every DriveConstants.ODOMETRY_PERIOD and fed into the estimator by updateOdometry() on the main thread, so
+    // only the main thread ever touches the estimator
+    private final OdometrySampleQueue odometrySamples = new OdometrySampleQueue(DriveConstants.ODOMETRY_QUEUE_SIZE);
+    private final double[] odometrySample = new double[4];
+    private final Notifier odometryLoop;
+    private final LoopProfiler.Section odometryLoopSection = LoopProfiler.backgroundSection("DriveTrainSubsystem.odometryLoop()");
+    private double odometryResetTime = Double.NEGATIVE_INFINITY; // samples from before the last reset are thrown away
+    // A SPARK MAX reports the position from its last status frame, so right after a reset the encoders can still read the old positions. Until they
+    // read near 0 (or a couple of frames have come in, in case the robot really is moving) samples after a reset are thrown away too.
+    private static final double RESET_POSITION_TOLERANCE = 0.1; // meters
+    private final double odometrySettleSeconds;
+    private double odometrySettleDeadline = Double.NEGATIVE_INFINITY;
+    private boolean odometrySettled = true;
+
+    private final LoopProfiler.Section periodicSection = LoopProfiler.section("DriveTrainSubsystem.periodic()");
+    private final DoubleArrayPublisher odometryPublisher = NetworkTablesRegistry.getDoubleArrayPublisher("robot", "drive_odometry");
+
+    // Shared by every path following command. Only one can run at a time (they all require this subsystem), and RamseteCommand resets the PIDs when it starts.
+    private final SimpleMotorFeedforward feedforward = new SimpleMotorFeedforward(DriveConstants.KS_VOLTS, DriveConstants.KV_VOLTS_SECONDS_PER_METER, DriveConstants.KA_VOLTS_SECONDS_SQ_PER_METER);
+    private final RamseteController ramseteController = new RamseteController(TrajectoryConstants.RAMSETE_B, TrajectoryConstants.RAMSETE_ZETA);
+    private final PIDController leftVelocityController = new PIDController(DriveConstants.P_DRIVE_VEL, 0, 0);
+    private final PIDController rightVelocityController = new PIDController(DriveConstants.P_DRIVE_VEL, 0, 0);
+    private final TrajectoryCache trajectoryCache = new TrajectoryCache(TrajectoryConstants.CACHE_SIZE, TrajectoryConstants.CACHE_POSITION_QUANTUM_METERS,
+            TrajectoryConstants.CACHE_ANGLE_QUANTUM_DEGREES, createTrajectoryConfig(false), createTrajectoryConfig(true));
+    private final AsyncTrajectoryService trajectoryService = new AsyncTrajectoryService(this.trajectoryCache);
 
     public DriveTrainSubsystem(FlightJoystick joystick) {
         this.frontLeftMotor = new CANSparkMax(PortConstants.FRONT_LEFT_MOTOR_PORT, MotorType.kBrushless);
@@ -85,14 +121,19 @@ public class DriveTrainSubsystem extends SubsystemBase {
         }
 
         resetEncoders();
-
-        this.leftMotorGroup = new MotorControllerGroup(frontLeftMotor, rearLeftMotor);
-        this.rightMotorGroup = new MotorControllerGroup(frontRightMotor, rearRightMotor);
+        SensorSnapshot.registerDrive(this.frontLeftEncoder, this.frontRightEncoder);
 
         this.frontRightMotor.setInverted(true);
-        this.rearRightMotor.setInverted(true);
         this.frontLeftMotor.setInverted(false);
-        this.rearLeftMotor.setInverted(false);
+
+        // The rear motors copy their front motor on the SPARK MAX itself instead of getting their own set every loop. They spin the same way as their leader.
+        // The positions come in on status frame 2, send it as often as the odometry loop samples it.
+        int positionFramePeriodMs = (int) Math.round(DriveConstants.ODOMETRY_PERIOD * 1000);
+        this.odometrySettleSeconds = 2 * positionFramePeriodMs / 1000.0;
+        CANConfigurator.configure(this.frontLeftMotor, CANConfigurator.Role.DRIVE_LEADER, positionFramePeriodMs);
+        CANConfigurator.configure(this.frontRightMotor, CANConfigurator.Role.DRIVE_LEADER, positionFramePeriodMs);
+        CANConfigurator.follow(this.rearLeftMotor, this.frontLeftMotor, false);
+        CANConfigurator.follow(this.rearRightMotor, this.frontRightMotor, false);
 
         this.m_poseEstimator = new DifferentialDrivePoseEstimator(
             DriveConstants.DRIVE_KINEMATICS,
@@ -103,12 +144,15 @@ public class DriveTrainSubsystem extends SubsystemBase {
             new MatBuilder<>(Nat.N3(), Nat.N1()).fill(0.02,0.02,0.01), 
             new MatBuilder<>(Nat.N3(), Nat.N1()).fill(0.1,0.1,0.01)
         );
+        this.visionPoseFusion = new VisionPoseFusion(this.m_poseEstimator, this.poseHistory);
         this.joystick = joystick;
 
-        this.tankDrive = new DifferentialDrive(leftMotorGroup, rightMotorGroup);
+        this.tankDrive = new DifferentialDrive(frontLeftMotor, frontRightMotor);
         tankDrive.setSafetyEnabled(false);
 
-
+        this.odometryLoop = new Notifier(this::sampleOdometry);
+        this.odometryLoop.setName("DriveOdometry");
+        this.odometryLoop.startPeriodic(DriveConstants.ODOMETRY_PERIOD);
     }
 
     /**
@@ -124,8 +168,8 @@ public class DriveTrainSubsystem extends SubsystemBase {
 
     public void tankDriveVolts(double leftVolts, double rightVolts) {
         //System.out.println("L VOLTS: " + leftVolts + ", R VOLTS; " + rightVolts);
-        this.leftMotorGroup.setVoltage(leftVolts);
-        this.rightMotorGroup.setVoltage(rightVolts);
+        this.frontLeftMotor.setVoltage(leftVolts);
+        this.frontRightMotor.setVoltage(rightVolts);
         this.tankDrive.feed();
     }
 
@@ -133,21 +177,29 @@ public class DriveTrainSubsystem extends SubsystemBase {
         for (RelativeEncoder encoder : encoders) {
             encoder.setPosition(0);
         }
+        SensorSnapshot.resampleDrive();
     }
 
     public void setAllEncoders(double position) {
         for (RelativeEncoder encoder : encoders) {
             encoder.setPosition(position);
         }
+        SensorSnapshot.resampleDrive();
     }
 
     public void resetOdometry(Pose2d pose) {
         resetEncoders();
-        m_poseEstimator.resetPosition(new Rotation2d(RobotGyro.getGyroAngleDegreesYaw()), frontLeftEncoder.getPosition(), frontRightEncoder.getPosition(), pose);
+        // 0, not the snapshot: the snapshot may have read the old positions back before the new ones came in
+        m_poseEstimator.resetPosition(new Rotation2d(RobotGyro.getGyroAngleDegreesYaw()), 0, 0, pose);
+        poseHistory.clear(); // the old poses are from before the jump
+        // Samples still queued from before this have the old positions. Newer ones can too, until the next status frames come in, see updateOdometry.
+        odometryResetTime = Timer.getFPGATimestamp();
+        odometrySettleDeadline = odometryResetTime + odometrySettleSeconds;
+        odometrySettled = false;
     }
 
     public DifferentialDriveWheelSpeeds getWheelSpeeds() {
-        return new DifferentialDriveWheelSpeeds(frontLeftEncoder.getVelocity() / 60d, frontRightEncoder.getVelocity() / 60d);
+        return new DifferentialDriveWheelSpeeds(SensorSnapshot.getDriveLeftVelocity() / 60d, SensorSnapshot.getDriveRightVelocity() / 60d);
     }
 
     public Pose2d getPoseMeters() {
@@ -165,13 +217,61 @@ public class DriveTrainSubsystem extends SubsystemBase {
         return new InstantCommand(() -> resetOdometry(pose), this);
     }
 
+    /**
+     * Feeds every odometry sample taken since the last call into the pose estimator, then the vision measurements. Call from the main thread only.
+     */
     public void updateOdometry() {
-        m_poseEstimator.update(RobotGyro.getRotation2d(), frontLeftEncoder.getPosition(), frontRightEncoder.getPosition()); //update pose
-    
-        // Also apply vision measurements
-        // m_poseEstimator.addVisionMeasurement(
-        //     NetworkTablesUtil.getJetsonPoseMeters(),
-        //    Timer.getFPGATimestamp() - AprilTagConstants.LATENCY);
+        while (odometrySamples.poll(odometrySample)) {
+            double time = odometrySample[0];
+            if (time <= odometryResetTime) {
+                continue;
+            }
+            if (!odometrySettled) {
+                boolean nearReset = Math.abs(odometrySample[1]) < RESET_POSITION_TOLERANCE && Math.abs(odometrySample[2]) < RESET_POSITION_TOLERANCE;
+                if (!nearReset && time < odometrySettleDeadline) {
+                    continue; // still the positions from before the reset
+                }
+                odometrySettled = true;
+            }
+            Pose2d pose = m_poseEstimator.updateWithTime(time, new Rotation2d(odometrySample[3]), odometrySample[1], odometrySample[2]);
+            poseHistory.add(time, pose);
+        }
+
+        // Also apply vision measurements, at the time they were captured
+        visionPoseFusion.update();
+    }
+
+    /**
+     * The high rate odometry loop, runs on the {@link Notifier}'s thread. Reads the hardware directly, {@link SensorSnapshot} is for the main thread.
+     */
+    private void sampleOdometry() {
+        odometryLoopSection.start();
+        // Take the time first, so a sample timestamped after a reset was read after it (it can still be the old cached frame, see updateOdometry)
+        double time = Timer.getFPGATimestamp();
+        odometrySamples.offer(time, frontLeftEncoder.getPosition(), frontRightEncoder.getPosition(), Math.toRadians(RobotGyro.readYawDegrees()));
+        odometryLoopSection.stop();
+    }
+
+    /**
+     * @return How many odometry samples were dropped because the main loop didn't keep up
+     */
+    public long getDroppedOdometrySamples() {
+        return odometrySamples.getDropped();
+    }
+
+    /**
+     * Where the robot was at a time in the last few seconds, interpolated between odometry updates. Use it to line up something measured in the past
+     * (like a camera frame) with the robot's pose.
+     *
+     * @param timestamp The FPGA time, in seconds ({@link Timer#getFPGATimestamp()})
+     * @return The estimated pose at that time, or the oldest or newest one remembered if it's out of range, or null before the first odometry update
+     */
+    public Pose2d getPoseAt(double timestamp) {
+        return poseHistory.getPoseAt(timestamp);
+    }
+
+    public PoseHistory getPoseHistory() {
+        return poseHistory;
     }
 
     /**
@@ -192,28 +292,37 @@ public class DriveTrainSubsystem extends SubsystemBase {
         return this.generateRamseteCommand(trajectory);
     }
 
-    /**
-     * A wrapper around {@link TrajectoryGenerator#generateTrajectory(Pose2d, List, Pose2d, TrajectoryConfig) that handles the config internally.
-     * @param start The start Pose2d
-     * @param waypoints A list of Translation2d waypoints to follow. Pass in {@link List#of()} if you don't want any waypoints.
-     * @param end The end Pose2d
-     * @return A trajectory. Use this to generate a follow command with {@link #generateRamseteCommand(Trajectory)}.
-     */
-    public Trajectory generateTrajectory(Pose2d start, List<Translation2d> waypoints, Pose2d end, boolean reversed) {
+    private static TrajectoryConfig createTrajectoryConfig(boolean reversed) {
         // Create a voltage constraint to ensure we don't accelerate too fast
         var autoVoltageConstraint = new DifferentialDriveVoltageConstraint(new SimpleMotorFeedforward(DriveConstants.KS_VOLTS, DriveConstants.KV_VOLTS_SECONDS_PER_METER, DriveConstants.KA_VOLTS_SECONDS_SQ_PER_METER), DriveConstants.DRIVE_KINEMATICS, 10);
 
         // Create config for trajectory
-        TrajectoryConfig config = new TrajectoryConfig(TrajectoryConstants.MAX_SPEED_METERS_PER_SECOND, TrajectoryConstants.MAX_ACCELERATION_METERS_PER_SECOND_SQUARED)
+        return new TrajectoryConfig(TrajectoryConstants.MAX_SPEED_METERS_PER_SECOND, TrajectoryConstants.MAX_ACCELERATION_METERS_PER_SECOND_SQUARED)
                 // Add kinematics to ensure max speed is actually obeyed
                 .setKinematics(DriveConstants.DRIVE_KINEMATICS)
                 // Apply the voltage constraint   
                 .addConstraint(autoVoltageConstraint)
                 // Set reversed
                 .setReversed(reversed);
+    }
 
-        // A trajectory to follow. All units in meters.
-        return TrajectoryGenerator.generateTrajectory(start, waypoints, end, config);
+    /**
+     * A wrapper around {@link TrajectoryGenerator#generateTrajectory(Pose2d, List, Pose2d, TrajectoryConfig) that handles the config internally, and caches the result (see {@link TrajectoryCache}).
+     * @param start The start Pose2d
+     * @param waypoints A list of Translation2d waypoints to follow. Pass in {@link List#of()} if you don't want any waypoints.
+     * @param end The end Pose2d
+     * @return A trajectory. Use this to generate a follow command with {@link #generateRamseteCommand(Trajectory)}.
+     */
+    public Trajectory generateTrajectory(Pose2d start, List<Translation2d> waypoints, Pose2d end, boolean reversed) {
+        // Paths like the teleop alignment moves get asked for over and over, so they come from the cache
+        return this.trajectoryCache.get(start, waypoints, end, reversed);
+    }
+
+    /**
+     * @return The cache {@link #generateTrajectory} uses, e.g. to check its hit rate
+     */
+    public TrajectoryCache getTrajectoryCache() {
+        return this.trajectoryCache;
     }
 
     /**
@@ -223,39 +332,56 @@ public class DriveTrainSubsystem extends SubsystemBase {
      */
     
     public Command generateRamseteCommand(Trajectory trajectory) {
+        // Reset odometry to the starting pose of the trajectory.
+        // this.resetOdometry(trajectory.getInitialPose());
+
+        // Reset odometry, run path following command, then stop at the end.    
+        return this.resetOdometryCommand(trajectory.getInitialPose()).andThen(this.generateRamseteFollower(trajectory));
+
+        // ORIGINAL:
+        // Run path following command, then stop at the end.
+        // return ramseteCommand.andThen(() -> this.tankDriveVolts(0, 0));
+    }
+
+    /**
+     * Like {@link #generateRamseteCommand(Trajectory)}, but doesn't reset odometry first. For trajectories generated from where odometry already says the
+     * robot is.
+     * @param trajectory the trajectory to follow
+     * @return the command to follow the trajectory, which stops the robot at the end
+     */
+    public Command generateRamseteFollower(Trajectory trajectory) {
         RamseteCommand ramseteCommand = new RamseteCommand(
                 trajectory,
                 this::getPoseMeters,
-                new RamseteController(TrajectoryConstants.RAMSETE_B, TrajectoryConstants.RAMSETE_ZETA),
-                new SimpleMotorFeedforward(DriveConstants.KS_VOLTS, DriveConstants.KV_VOLTS_SECONDS_PER_METER, DriveConstants.KA_VOLTS_SECONDS_SQ_PER_METER),
+                this.ramseteController,
+                this.feedforward,
                 DriveConstants.DRIVE_KINEMATICS,
                 this::getWheelSpeeds,
-                new PIDController(DriveConstants.P_DRIVE_VEL, 0, 0),
-                new PIDController(DriveConstants.P_DRIVE_VEL, 0, 0),
+                this.leftVelocityController,
+                this.rightVelocityController,
                 // RamseteCommand passes volts to the callback
                 this::tankDriveVolts,
                 this
         );
+        return ramseteCommand.andThen(() -> this.tankDriveVolts(0, 0), this);
+    }
 
-        // Reset odometry to the starting pose of the trajectory.
-        // this.resetOdometry(trajectory.getInitialPose());
-
-        // Reset odometry, run path following command, then stop at the end.    
-        return this.resetOdometryCommand(trajectory.getInitialPose()).andThen(ramseteCommand).andThen(() -> this.tankDriveVolts(0, 0), this);
-
-        // ORIGINAL:
-        // Run path following command, then stop at the end.
-        // return ramseteCommand.andThen(() -> this.tankDriveVolts(0, 0));
+    /**
+     * @return The service that generates trajectories off the main thread, through the same cache as {@link #generateTrajectory}
+     */
+    public AsyncTrajectoryService getTrajectoryService() {
+        return this.trajectoryService;
     }
 
     @Override
     public void periodic() {
+        periodicSection.start();
 
         updateOdometry();
 
         Pose2d pose = getPoseMeters();
         double[] sendPose = {pose.getX(), pose.getY(), pose.getRotation().getRadians()};
-        NetworkTablesUtil.getEntry("robot", "drive_odometry").setDoubleArray(sendPose);
+        odometryPublisher.set(sendPose);
 
         // System.out.println("Gyro Yaw: " + RobotGyro.getGyroAngleDegreesYaw());
         // System.out.println("Gyro Roll: " + RobotGyro.getGyroAngleDegreesRoll());
@@ -278,8 +404,8 @@ public class DriveTrainSubsystem extends SubsystemBase {
 
         // System.out.println("FL: " + getFrontLeftEncoder() + ", FR: " + getFrontRightEncoder() + ", RL: " + getRearLeftEncoder() + ", RR: " + getRearRightEncoder());
         // System.out.println("FL: " + frontLeft.get() + ", FR: " + frontRight.get() + ", RL: " + rearLeft.get() + ", RR: " + rearRight.get());
-        
 
+        periodicSection.stop();
     }
 
     @Override
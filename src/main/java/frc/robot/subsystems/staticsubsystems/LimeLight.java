@@ -1,6 +1,6 @@
 package frc.robot.subsystems.staticsubsystems;
 import edu.wpi.first.math.controller.PIDController;
-import frc.robot.util.NetworkTablesUtil;
+import frc.robot.util.ArmCartesianState;
 
 public class LimeLight {
     private static final double DESIRED_AREA_CONE = 5000; // tentative measurement, pixels
@@ -19,7 +19,7 @@ public class LimeLight {
     }
 
     public static double getXAdjustment() {
-        double tx = adjustmentPID.calculate(NetworkTablesUtil.getLimeLightErrorX());
+        double tx = adjustmentPID.calculate(SensorSnapshot.getLimeLightErrorX());
         // if tx is too big, return the max of 1 or -1
         if (Math.abs(tx) > 1) {
             // return 1 if tx is greater than 1, -1 if tx is less than -1
@@ -29,7 +29,7 @@ public class LimeLight {
     }
 
     public static double getYAdjustment() {
-        double ty =  adjustmentPID2.calculate(NetworkTablesUtil.getLimeLightErrorY());
+        double ty =  adjustmentPID2.calculate(SensorSnapshot.getLimeLightErrorY());
 
         // if ty is too big, return the max of 1 or -1
         if (Math.abs(ty) > 1) {
@@ -40,12 +40,12 @@ public class LimeLight {
     }
 
     public static float getArea() {
-        float tA = (NetworkTablesUtil.getLimeLightArea());
+        float tA = (float) SensorSnapshot.getLimeLightArea();
         return tA;
     }
 
     public static double getAngle() {
-        float angle = (NetworkTablesUtil.getConeOrientation());
+        float angle = (float) SensorSnapshot.getConeOrientation();
         angle = angle > 180?angle-360:angle;
 
         // calculate the PID for the steering adjustment
@@ -56,32 +56,33 @@ public class LimeLight {
     // Gets adjustments from limelight and converts them to position adjustments
     // Super messy right now, TODO: clean up later
     public static double[] getAdjustmentFromError(boolean flipped){
-        double[] adjustments = new double[3];
+        return getAdjustmentFromError(flipped, new ArmCartesianState()).toArray();
+    }
 
+    // Same as above but writes the [x, y, z] adjustments into the caller's state, for commands that call this every loop
+    public static ArmCartesianState getAdjustmentFromError(boolean flipped, ArmCartesianState adjustments){
         if(flipped){
     
-            adjustments[0] = UltrasonicSensor.getDistanceInches(); // x-axis adjustment
-    
-            adjustments[1] = 0; // y-axis adjustment
-    
-            adjustments[2] = getXAdjustment(); // z-axis adjustment
+            return adjustments.set(
+                UltrasonicSensor.getDistanceInches(), // x-axis adjustment
+                0, // y-axis adjustment
+                getXAdjustment() // z-axis adjustment
+            );
     
         }
         else{
 
-            double xAdjustment = NetworkTablesUtil.getLimeLightPipeline() == 1 ? (DESIRED_AREA_CONE - getArea()) / DESIRED_AREA_CONE : 
+            double xAdjustment = SensorSnapshot.getLimeLightPipeline() == 1 ? (DESIRED_AREA_CONE - getArea()) / DESIRED_AREA_CONE : 
                     (DESIRED_AREA_CUBE - getArea()) / DESIRED_AREA_CUBE; // z axis from perspective of the camera
             xAdjustment = xAdjustment > 1 ? 1 : xAdjustment;
     
-            adjustments[0] = getYAdjustment(); // x-axis adjustment
-    
-            adjustments[1] = UltrasonicSensor.getDistanceInches(); // y-axis adjustment
-    
-            adjustments[2] = getXAdjustment(); // z-axis adjustment
+            return adjustments.set(
+                getYAdjustment(), // x-axis adjustment
+                UltrasonicSensor.getDistanceInches(), // y-axis adjustment
+                getXAdjustment() // z-axis adjustment
+            );
     
         }
-            
-        return adjustments;
 
     }
-}
\ No newline at end of file
+}
@@ -5,62 +5,105 @@ import edu.wpi.first.wpilibj.ADIS16470_IMU;
 
 /**
  * Wrapper around gyro
+ * <p>
+ * Bringing up the IMU blocks for its whole calibration time, so it isn't made until {@link #initialize()} is called (on a startup worker, see
+ * {@link frc.robot.util.StartupPipeline}). Until then every reading is 0.
  */
 
 public class RobotGyro {
-    private static final ADIS16470_IMU gyro = new ADIS16470_IMU();
+    private static volatile ADIS16470_IMU gyro;
 
-    static {
-        gyro.setYawAxis(ADIS16470_IMU.IMUAxis.kZ);
-        gyro.calibrate();
-        gyro.reset();
+    /**
+     * Makes and calibrates the IMU. Blocks until it's done, keep the robot still.
+     */
+    public static void initialize() {
+        ADIS16470_IMU imu = new ADIS16470_IMU();
+        imu.setYawAxis(ADIS16470_IMU.IMUAxis.kZ);
+        imu.calibrate();
+        imu.reset();
+        gyro = imu;
+        SensorSnapshot.resampleGyro();
     }
 
     /**
-     * make sure this class is instantiated properly by poking it
+     * @return Whether {@link #initialize()} has finished
      */
-    public static void poke() {
-        System.out.println("RobotGyro init");
+    public static boolean isInitialized() {
+        return gyro != null;
     }
 
-    private static double angleAdjust = 0;
+    private static volatile double angleAdjust = 0;
+
+    // The getters return the values from this loop's SensorSnapshot, only the snapshot reads the gyro itself
 
     public static Rotation2d getRotation2d(){
-        return new Rotation2d(Math.toRadians(gyro.getAngle() + angleAdjust));
+        return new Rotation2d(Math.toRadians(SensorSnapshot.getGyroYawDegrees()));
     }
 
     public static double getGyroAngleDegreesYaw() {
-        return gyro.getAngle() + angleAdjust;
+        return SensorSnapshot.getGyroYawDegrees();
     }
 
     public static double getGyroAngleDegreesRoll() {
-        return gyro.getXComplementaryAngle() + angleAdjust;
+        return SensorSnapshot.getGyroRollDegrees();
     }
 
     public static double getGyroAngleDegreesPitch() {
-        return gyro.getYComplementaryAngle() + angleAdjust;
+        return SensorSnapshot.getGyroPitchDegrees();
+    }
+
+    /**
+     * Reads the yaw from the IMU itself instead of the snapshot. Safe to call from any thread, e.g. a high rate loop that can't wait for the next snapshot.
+     */
+    public static double readYawDegrees() {
+        ADIS16470_IMU imu = gyro;
+        return imu == null ? angleAdjust : imu.getAngle() + angleAdjust;
+    }
+
+    static double readRollDegrees() {
+        ADIS16470_IMU imu = gyro;
+        return imu == null ? angleAdjust : imu.getXComplementaryAngle() + angleAdjust;
+    }
+
+    static double readPitchDegrees() {
+        ADIS16470_IMU imu = gyro;
+        return imu == null ? angleAdjust : imu.getYComplementaryAngle() + angleAdjust;
     }
     
 
+    // Everything below does nothing (or reads 0) if the IMU isn't up yet
+
     public static void setGyroAxis(ADIS16470_IMU.IMUAxis axis) {
-        gyro.setYawAxis(axis);
+        ADIS16470_IMU imu = gyro;
+        if (imu != null) {
+            imu.setYawAxis(axis);
+        }
     }
 
     public static void resetGyroAngle() {
-        gyro.reset();
+        ADIS16470_IMU imu = gyro;
+        if (imu != null) {
+            imu.reset();
+        }
         angleAdjust = 0;
+        SensorSnapshot.resampleGyro();
     }
 
     public static void setGyroAngle(double angle) {
         resetGyroAngle();
         angleAdjust = angle;
+        SensorSnapshot.resampleGyro();
     }
 
     public static void robotCalibrate() {
-        gyro.calibrate();
+        ADIS16470_IMU imu = gyro;
+        if (imu != null) {
+            imu.calibrate();
+        }
     }
 
     public static double getGyroGeneralAcceleration(){
-        return gyro.getAccelX() + gyro.getAccelY();
+        ADIS16470_IMU imu = gyro;
+        return imu == null ? 0 : imu.getAccelX() + imu.getAccelY();
     }
 }
@@ -0,0 +1,256 @@
+package frc.robot.subsystems.staticsubsystems;
+
+import com.revrobotics.RelativeEncoder;
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.wpilibj.DigitalInput;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.NetworkTablesRegistry;
+import frc.robot.util.NetworkTablesUtil;
+
+/**
+ * Every sensor value the robot code reads during a loop, sampled exactly once at the start of the loop.
+ * <p>
+ * Reading an encoder, limit switch or the gyro is a JNI call, and reading the same sensor from several places in one loop can return values from different
+ * CAN frames. Instead, {@link #sample()} runs once from robotPeriodic before the scheduler, and everything in the loop (subsystems, commands and the
+ * static sensor wrappers) reads the stored values. Everything here is only touched from the main robot thread; code running on its own thread (like the
+ * arm's high-rate control loop) should keep reading its hardware directly.
+ * <p>
+ * Subsystems hand over their hardware with the {@code register} methods from their constructor. Code that changes a sensor reading (e.g. resetting an
+ * encoder or the gyro) should call the matching {@code resample} method so the rest of the loop sees the new value.
+ */
+public final class SensorSnapshot {
+    private SensorSnapshot() {
+        throw new UnsupportedOperationException("SensorSnapshot is a utility class and cannot be instantiated!");
+    }
+
+    private static final LoopProfiler.Section sampleSection = LoopProfiler.section("SensorSnapshot.sample()");
+
+    // Hardware, handed over by the subsystems
+    private static RelativeEncoder pivot1Encoder;
+    private static RelativeEncoder pivot2Encoder;
+    private static RelativeEncoder turretEncoder;
+    private static DigitalInput pivot1Limit;
+    private static DigitalInput pivot2Limit;
+    private static DigitalInput turretLimit;
+    private static RelativeEncoder driveLeftEncoder;
+    private static RelativeEncoder driveRightEncoder;
+    private static RelativeEncoder clawRotationEncoder;
+
+    private static final DoubleSubscriber limeLightTxSub = NetworkTablesRegistry.getDoubleSubscriber("limelight", "tx", 0.0);
+    private static final DoubleSubscriber limeLightTySub = NetworkTablesRegistry.getDoubleSubscriber("limelight", "ty", 0.0);
+
+    // Sampled values
+    private static double timestampSeconds;
+
+    private static double pivot1Position;
+    private static double pivot2Position;
+    private static double turretPosition;
+    private static boolean pivot1LimitPressed;
+    private static boolean pivot2LimitPressed;
+    private static boolean turretLimitPressed;
+
+    private static double driveLeftPosition;
+    private static double driveRightPosition;
+    private static double driveLeftVelocity;
+    private static double driveRightVelocity;
+
+    private static double clawRotationPosition;
+
+    private static double gyroYawDegrees;
+    private static double gyroRollDegrees;
+    private static double gyroPitchDegrees;
+
+    private static double ultrasonicDistanceInches;
+
+    private static int limeLightPipeline = 1;
+    private static double limeLightErrorX;
+    private static double limeLightErrorY;
+    private static double limeLightArea;
+    private static double coneOrientation;
+
+    public static void registerArm(RelativeEncoder pivot1, RelativeEncoder pivot2, RelativeEncoder turret, DigitalInput pivot1LimitSwitch, DigitalInput pivot2LimitSwitch, DigitalInput turretLimitSwitch) {
+        pivot1Encoder = pivot1;
+        pivot2Encoder = pivot2;
+        turretEncoder = turret;
+        pivot1Limit = pivot1LimitSwitch;
+        pivot2Limit = pivot2LimitSwitch;
+        turretLimit = turretLimitSwitch;
+        resampleArm();
+    }
+
+    /**
+     * @param left  The encoder odometry uses for the left side
+     * @param right The encoder odometry uses for the right side
+     */
+    public static void registerDrive(RelativeEncoder left, RelativeEncoder right) {
+        driveLeftEncoder = left;
+        driveRightEncoder = right;
+        resampleDrive();
+    }
+
+    public static void registerClawRotation(RelativeEncoder encoder) {
+        clawRotationEncoder = encoder;
+        resampleClawRotation();
+    }
+
+    /**
+     * Samples every sensor. Call once per loop from robotPeriodic, right before the command scheduler runs.
+     */
+    public static void sample() {
+        sampleSection.start();
+        timestampSeconds = Timer.getFPGATimestamp();
+        resampleArm();
+        resampleDrive();
+        resampleClawRotation();
+        resampleGyro();
+        ultrasonicDistanceInches = UltrasonicSensor.readDistanceInches();
+        sampleLimeLight();
+        sampleSection.stop();
+    }
+
+    public static void resampleArm() {
+        if (pivot1Encoder == null) {
+            return;
+        }
+        pivot1Position = pivot1Encoder.getPosition();
+        pivot2Position = pivot2Encoder.getPosition();
+        turretPosition = turretEncoder.getPosition();
+        // The limit switches are wired normally closed, so false means pressed
+        pivot1LimitPressed = !pivot1Limit.get();
+        pivot2LimitPressed = !pivot2Limit.get();
+        turretLimitPressed = !turretLimit.get();
+    }
+
+    public static void resampleDrive() {
+        if (driveLeftEncoder == null) {
+            return;
+        }
+        driveLeftPosition = driveLeftEncoder.getPosition();
+        driveRightPosition = driveRightEncoder.getPosition();
+        driveLeftVelocity = driveLeftEncoder.getVelocity();
+        driveRightVelocity = driveRightEncoder.getVelocity();
+    }
+
+    public static void resampleClawRotation() {
+        if (clawRotationEncoder == null) {
+            return;
+        }
+        clawRotationPosition = clawRotationEncoder.getPosition();
+    }
+
+    public static void resampleGyro() {
+        gyroYawDegrees = RobotGyro.readYawDegrees();
+        gyroRollDegrees = RobotGyro.readRollDegrees();
+        gyroPitchDegrees = RobotGyro.readPitchDegrees();
+    }
+
+    /**
+     * Same math as the LimeLight getters in {@link NetworkTablesUtil}, but the llpython array is only fetched once.
+     */
+    private static void sampleLimeLight() {
+        limeLightPipeline = NetworkTablesUtil.getLimeLightPipeline();
+        double[] python = NetworkTablesUtil.getLimeLightPythonData();
+        boolean hasPythonData = python.length >= 4;
+
+        coneOrientation = hasPythonData ? (float) python[0] : 0;
+        limeLightArea = hasPythonData ? (float) python[3] : 0;
+        if (limeLightPipeline == 1) {
+            limeLightErrorX = hasPythonData ? (float) python[1] - 160.0f : -160.0f;
+            limeLightErrorY = hasPythonData ? (float) python[2] - 120.0f : -120.0f;
+        } else {
+            limeLightErrorX = (float) limeLightTxSub.get() * 5.369f;
+            limeLightErrorY = (float) limeLightTySub.get() * 5.2516f;
+        }
+    }
+
+    /**
+     * @return The FPGA time the current snapshot was taken at, in seconds
+     */
+    public static double getTimestampSeconds() {
+        return timestampSeconds;
+    }
+
+    /**
+     * @return The raw pivot1 encoder position in degrees (without the flipped offset)
+     */
+    public static double getPivot1Position() {
+        return pivot1Position;
+    }
+
+    public static double getPivot2Position() {
+        return pivot2Position;
+    }
+
+    public static double getTurretPosition() {
+        return turretPosition;
+    }
+
+    public static boolean isPivot1LimitPressed() {
+        return pivot1LimitPressed;
+    }
+
+    public static boolean isPivot2LimitPressed() {
+        return pivot2LimitPressed;
+    }
+
+    public static boolean isTurretLimitPressed() {
+        return turretLimitPressed;
+    }
+
+    public static double getDriveLeftPosition() {
+        return driveLeftPosition;
+    }
+
+    public static double getDriveRightPosition() {
+        return driveRightPosition;
+    }
+
+    public static double getDriveLeftVelocity() {
+        return driveLeftVelocity;
+    }
+
+    public static double getDriveRightVelocity() {
+        return driveRightVelocity;
+    }
+
+    public static double getClawRotationPosition() {
+        return clawRotationPosition;
+    }
+
+    public static double getGyroYawDegrees() {
+        return gyroYawDegrees;
+    }
+
+    public static double getGyroRollDegrees() {
+        return gyroRollDegrees;
+    }
+
+    public static double getGyroPitchDegrees() {
+        return gyroPitchDegrees;
+    }
+
+    public static double getUltrasonicDistanceInches() {
+        return ultrasonicDistanceInches;
+    }
+
+    public static int getLimeLightPipeline() {
+        return limeLightPipeline;
+    }
+
+    public static double getLimeLightErrorX() {
+        return limeLightErrorX;
+    }
+
+    public static double getLimeLightErrorY() {
+        return limeLightErrorY;
+    }
+
+    public static double getLimeLightArea() {
+        return limeLightArea;
+    }
+
+    public static double getConeOrientation() {
+        return coneOrientation;
+    }
+}
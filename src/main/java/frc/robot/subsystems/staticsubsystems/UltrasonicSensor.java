@@ -12,6 +12,10 @@ public class UltrasonicSensor {
         distanceFinder.setAverageBits(2); // change later
     }
     public static double getDistanceInches(){
+        return SensorSnapshot.getUltrasonicDistanceInches();
+    }
+
+    static double readDistanceInches(){
         double volts = distanceFinder.getAverageVoltage();
         return (double) (volts * SCALING_FACTOR);
     }
@@ -0,0 +1,53 @@
+package frc.robot.util;
+
+/**
+ * Mutable holder for a position in the arm's coordinate system, in inches. y is the height above the ground (see the axis diagram in
+ * {@link frc.robot.subsystems.ArmSubsystem}). Used as a caller-owned output buffer so the arm control loop doesn't allocate a new {@code double[]} every time.
+ */
+public final class ArmCartesianState {
+    private double x;
+    private double y;
+    private double z;
+
+    public ArmCartesianState() {
+    }
+
+    public ArmCartesianState(double x, double y, double z) {
+        set(x, y, z);
+    }
+
+    public ArmCartesianState set(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    public ArmCartesianState set(ArmCartesianState other) {
+        return set(other.x, other.y, other.z);
+    }
+
+    public double getX() {
+        return this.x;
+    }
+
+    public double getY() {
+        return this.y;
+    }
+
+    public double getZ() {
+        return this.z;
+    }
+
+    /**
+     * @return A new array of [x, y, z], for the older array based APIs
+     */
+    public double[] toArray() {
+        return new double[]{this.x, this.y, this.z};
+    }
+
+    @Override
+    public String toString() {
+        return "ArmCartesianState(" + this.x + ", " + this.y + ", " + this.z + ")";
+    }
+}
@@ -0,0 +1,92 @@
+package frc.robot.util;
+
+import frc.robot.Constants.ArmConstants;
+
+/**
+ * Feedforward for the two arm pivots from a two-link arm model: the torque each pivot needs to hold the arm up against gravity, plus the torque to
+ * accelerate it, turned into a motor output. The P-only PIDs on top of this only have to correct for what the model gets wrong, so the arm doesn't sag
+ * and settles faster.
+ * <p>
+ * Uses the same angles as {@link ForwardKinematicsUtil}: pivot1 is limb 1's angle from straight down, and limb 2 points at {@code pivot2 - pivot1} from
+ * straight up. Each limb is a uniform rod, and the claw (plus any game piece) is a point mass at the end of limb 2. Because the torques come from the
+ * angles, flipping the arm flips the feedforward with it. Masses are in pounds, so gravity torques come out in inch-pounds (force).
+ * <p>
+ * Velocity dependent (Coriolis) torques are left out, they are small at the speeds the arm moves. Not thread safe, only call it from the one thread
+ * that runs the joint PIDs.
+ */
+public class ArmFeedforward {
+    private static final double GRAVITY = 386.09; // inches per second squared, turns lb*in^2/s^2 into inch-pounds of force
+
+    private final double limb1Mass;
+    private final double limb2Mass;
+    private final double clawMass;
+
+    private double pivot1Output;
+    private double pivot2Output;
+
+    /**
+     * @param limb1Mass The mass of limb 1 in pounds
+     * @param limb2Mass The mass of limb 2 in pounds, without the claw
+     * @param clawMass  The mass of the claw in pounds
+     */
+    public ArmFeedforward(double limb1Mass, double limb2Mass, double clawMass) {
+        this.limb1Mass = limb1Mass;
+        this.limb2Mass = limb2Mass;
+        this.clawMass = clawMass;
+    }
+
+    /**
+     * Works out the feedforward for the current arm state. Read the results with {@link #getPivot1Output()} and {@link #getPivot2Output()}.
+     *
+     * @param angles             The current joint angles in degrees
+     * @param pivot1Acceleration How fast pivot1 should be accelerating, in degrees per second squared (0 to only hold the arm up)
+     * @param pivot2Acceleration How fast pivot2 should be accelerating
+     * @param payloadMass        The mass of whatever the claw is holding, in pounds
+     */
+    public void calculate(ArmJointState angles, double pivot1Acceleration, double pivot2Acceleration, double payloadMass) {
+        double pivot1Rad = Math.toRadians(angles.getPivot1Angle());
+        double pivot2Rad = Math.toRadians(angles.getPivot2Angle());
+        double limb2Rad = pivot2Rad - pivot1Rad;
+
+        double limb1Center = ArmConstants.LIMB1_LENGTH * ArmConstants.LIMB1_CENTER_OF_MASS;
+        double limb2Center = ArmConstants.LIMB2_LENGTH * ArmConstants.LIMB2_CENTER_OF_MASS;
+        double endMass = this.clawMass + payloadMass;
+        double limb2Moment = this.limb2Mass * limb2Center + endMass * ArmConstants.LIMB2_LENGTH; // everything past pivot2, in lb*in
+
+        // Gravity: how much the potential energy changes per radian of each joint
+        double pivot1Gravity = (this.limb1Mass * limb1Center + (this.limb2Mass + endMass) * ArmConstants.LIMB1_LENGTH) * Math.sin(pivot1Rad) + limb2Moment * Math.sin(limb2Rad);
+        double pivot2Gravity = -limb2Moment * Math.sin(limb2Rad);
+
+        // Inertia: the mass matrix of the two links, in lb*in^2
+        double limb1Inertia = this.limb1Mass * (limb1Center * limb1Center + ArmConstants.LIMB1_LENGTH * ArmConstants.LIMB1_LENGTH / 12)
+                + (this.limb2Mass + endMass) * ArmConstants.LIMB1_LENGTH * ArmConstants.LIMB1_LENGTH;
+        double limb2Inertia = this.limb2Mass * (limb2Center * limb2Center + ArmConstants.LIMB2_LENGTH * ArmConstants.LIMB2_LENGTH / 12)
+                + endMass * ArmConstants.LIMB2_LENGTH * ArmConstants.LIMB2_LENGTH;
+        double coupling = limb2Moment * ArmConstants.LIMB1_LENGTH * Math.cos(pivot2Rad);
+        double m11 = limb1Inertia - 2 * coupling + limb2Inertia;
+        double m12 = coupling - limb2Inertia;
+        double m22 = limb2Inertia;
+
+        double pivot1Alpha = Math.toRadians(pivot1Acceleration);
+        double pivot2Alpha = Math.toRadians(pivot2Acceleration);
+        double pivot1Inertial = (m11 * pivot1Alpha + m12 * pivot2Alpha) / GRAVITY;
+        double pivot2Inertial = (m12 * pivot1Alpha + m22 * pivot2Alpha) / GRAVITY;
+
+        this.pivot1Output = (pivot1Gravity + pivot1Inertial) / ArmConstants.PIVOT1_STALL_TORQUE;
+        this.pivot2Output = (pivot2Gravity + pivot2Inertial) / ArmConstants.PIVOT2_STALL_TORQUE;
+    }
+
+    /**
+     * @return The pivot1 feedforward from the last {@link #calculate}, as a fraction of full output
+     */
+    public double getPivot1Output() {
+        return this.pivot1Output;
+    }
+
+    /**
+     * @return The pivot2 feedforward from the last {@link #calculate}, as a fraction of full output
+     */
+    public double getPivot2Output() {
+        return this.pivot2Output;
+    }
+}
@@ -0,0 +1,69 @@
+package frc.robot.util;
+
+/**
+ * Mutable holder for the arm's joint angles, in degrees. Used as a caller-owned output buffer by {@link InverseKinematicsUtil} and
+ * {@link frc.robot.subsystems.ArmSubsystem} so the arm control loop doesn't allocate a new {@code double[]} every time it needs angles.
+ */
+public final class ArmJointState {
+    private double pivot1Angle;
+    private double pivot2Angle;
+    private double turretAngle;
+
+    public ArmJointState() {
+    }
+
+    public ArmJointState(double pivot1Angle, double pivot2Angle, double turretAngle) {
+        set(pivot1Angle, pivot2Angle, turretAngle);
+    }
+
+    public ArmJointState set(double pivot1Angle, double pivot2Angle, double turretAngle) {
+        this.pivot1Angle = pivot1Angle;
+        this.pivot2Angle = pivot2Angle;
+        this.turretAngle = turretAngle;
+        return this;
+    }
+
+    public ArmJointState set(ArmJointState other) {
+        return set(other.pivot1Angle, other.pivot2Angle, other.turretAngle);
+    }
+
+    /**
+     * Marks the state as invalid (all NaN), which is what the inverse kinematics returns for an unreachable target.
+     *
+     * @return this
+     */
+    public ArmJointState setInvalid() {
+        return set(Double.NaN, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * @return False if any of the angles are NaN
+     */
+    public boolean isValid() {
+        return !Double.isNaN(this.pivot1Angle) && !Double.isNaN(this.pivot2Angle) && !Double.isNaN(this.turretAngle);
+    }
+
+    public double getPivot1Angle() {
+        return this.pivot1Angle;
+    }
+
+    public double getPivot2Angle() {
+        return this.pivot2Angle;
+    }
+
+    public double getTurretAngle() {
+        return this.turretAngle;
+    }
+
+    /**
+     * @return A new array of [pivot1Angle, pivot2Angle, turretAngle], for the older array based APIs
+     */
+    public double[] toArray() {
+        return new double[]{this.pivot1Angle, this.pivot2Angle, this.turretAngle};
+    }
+
+    @Override
+    public String toString() {
+        return "ArmJointState(" + this.pivot1Angle + ", " + this.pivot2Angle + ", " + this.turretAngle + ")";
+    }
+}
@@ -0,0 +1,304 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+
+/**
+ * Trapezoidal motion profiles for the three arm joints that are time-synchronized, so pivot1, pivot2 and the turret all start and finish a move together.
+ * <p>
+ * Instead of handing the joint PIDs the final target angles (which saturates them, overshoots, and then crawls in on a P-only controller), the control loop
+ * calls {@link #update} every tick and gives the PIDs the profiled position, plus the profiled velocity as feedforward.
+ * <p>
+ * Whenever a goal or a joint's speed limit changes, every joint gets a new profile from where its setpoint currently is. The joint whose move takes the longest
+ * uses its full limits, and the other joints' limits are scaled down until their moves take just as long. Scaling the velocity limit by {@code s} and the
+ * acceleration limit by {@code s * s} stretches a profile in time without changing its shape. Goal changes smaller than {@link #GOAL_EPSILON_DEG}
+ * (e.g. a joystick nudging the target) don't start new profiles until they add up to more than that.
+ * <p>
+ * The profiles follow the same math as {@link TrapezoidProfile}, but are worked out in place into arrays, so neither starting a profile nor sampling one
+ * allocates. Not thread safe, only call it from the one thread that runs the joint PIDs.
+ */
+public class ArmMotionProfile {
+    public static final int PIVOT1 = 0;
+    public static final int PIVOT2 = 1;
+    public static final int TURRET = 2;
+    private static final int JOINT_COUNT = 3;
+
+    /**
+     * If the profile hasn't been updated in this long, the joints weren't being driven, so the next update starts over from the measured angles.
+     */
+    private static final double STALE_SECONDS = 0.1;
+    /**
+     * If a joint's measured angle is this far from its setpoint when a new profile starts (e.g. because a command moved it by hand), start that joint from
+     * the measured angle instead.
+     */
+    private static final double RESYNC_ERROR_DEG = 10.0;
+    /**
+     * A goal has to move at least this far (in degrees) from the one the running profile is heading to before a new profile is started.
+     */
+    public static final double GOAL_EPSILON_DEG = 0.1;
+    private static final int SYNC_ITERATIONS = 30;
+    private static final double MIN_SYNC_SCALE = 1e-3;
+
+    private final double[] baseMaxVelocities = new double[JOINT_COUNT];
+    private final double[] baseMaxAccelerations = new double[JOINT_COUNT];
+
+    private final double[] goals = new double[JOINT_COUNT];
+    private final double[] speedScales = new double[JOINT_COUNT];
+    private final double[] positions = new double[JOINT_COUNT];
+    private final double[] velocities = new double[JOINT_COUNT];
+    private final double[] accelerations = new double[JOINT_COUNT];
+
+    // Scratch space used when starting new profiles
+    private final double[] startPositions = new double[JOINT_COUNT];
+    private final double[] startVelocities = new double[JOINT_COUNT];
+    private final double[] maxVelocities = new double[JOINT_COUNT];
+    private final double[] maxAccelerations = new double[JOINT_COUNT];
+
+    // The running profile of each joint, in its own direction (the move always goes up, direction turns it back into a real angle)
+    private final double[] directions = new double[JOINT_COUNT];
+    private final double[] profileStartPositions = new double[JOINT_COUNT];
+    private final double[] profileStartVelocities = new double[JOINT_COUNT];
+    private final double[] profileGoals = new double[JOINT_COUNT];
+    private final double[] profileMaxVelocities = new double[JOINT_COUNT];
+    private final double[] profileMaxAccelerations = new double[JOINT_COUNT];
+    private final double[] endAccelerations = new double[JOINT_COUNT]; // seconds into the profile each phase ends at
+    private final double[] endFullSpeeds = new double[JOINT_COUNT];
+    private final double[] endDecelerations = new double[JOINT_COUNT];
+
+    private final ArmJointState setpoint = new ArmJointState();
+
+    private boolean active = false;
+    private double startSeconds;
+    private double lastUpdateSeconds;
+
+    /**
+     * @param pivot1 The pivot1 limits at full speed, in degrees per second (and per second squared)
+     * @param pivot2 The pivot2 limits at full speed
+     * @param turret The turret limits at full speed
+     */
+    public ArmMotionProfile(TrapezoidProfile.Constraints pivot1, TrapezoidProfile.Constraints pivot2, TrapezoidProfile.Constraints turret) {
+        TrapezoidProfile.Constraints[] constraints = {pivot1, pivot2, turret};
+        for (int joint = 0; joint < JOINT_COUNT; joint++) {
+            this.baseMaxVelocities[joint] = constraints[joint].maxVelocity;
+            this.baseMaxAccelerations[joint] = constraints[joint].maxAcceleration;
+        }
+    }
+
+    /**
+     * Advances the profiles to the given time, starting new ones first if a goal or speed limit changed.
+     *
+     * @param nowSeconds   The current time in seconds (any monotonic clock, e.g. {@code System.nanoTime() / 1e9})
+     * @param goal         The target angles in degrees
+     * @param measured     The current angles in degrees, where new profiles start from when the joints weren't being driven
+     * @param pivot1Scale  Fraction of pivot1's full speed velocity limit to use (e.g. its output limit), in (0, 1]
+     * @param pivot2Scale  Fraction of pivot2's full speed velocity limit to use
+     * @param turretScale  Fraction of the turret's full speed velocity limit to use
+     * @return The profiled angles to give the PIDs this tick. Use {@link #getVelocity(int)} and {@link #getAcceleration(int)} for the feedforward.
+     */
+    public ArmJointState update(double nowSeconds, ArmJointState goal, ArmJointState measured, double pivot1Scale, double pivot2Scale, double turretScale) {
+        boolean stale = !this.active || nowSeconds - this.lastUpdateSeconds > STALE_SECONDS;
+        boolean changed = Math.abs(goal.getPivot1Angle() - this.goals[PIVOT1]) > GOAL_EPSILON_DEG || Math.abs(goal.getPivot2Angle() - this.goals[PIVOT2]) > GOAL_EPSILON_DEG
+                || Math.abs(goal.getTurretAngle() - this.goals[TURRET]) > GOAL_EPSILON_DEG
+                || pivot1Scale != this.speedScales[PIVOT1] || pivot2Scale != this.speedScales[PIVOT2] || turretScale != this.speedScales[TURRET];
+        this.lastUpdateSeconds = nowSeconds;
+
+        if (stale || changed) {
+            this.goals[PIVOT1] = goal.getPivot1Angle();
+            this.goals[PIVOT2] = goal.getPivot2Angle();
+            this.goals[TURRET] = goal.getTurretAngle();
+            this.speedScales[PIVOT1] = pivot1Scale;
+            this.speedScales[PIVOT2] = pivot2Scale;
+            this.speedScales[TURRET] = turretScale;
+            start(nowSeconds, stale, measured);
+        }
+
+        double t = nowSeconds - this.startSeconds;
+        for (int joint = 0; joint < JOINT_COUNT; joint++) {
+            sample(joint, t);
+        }
+        return this.setpoint.set(this.positions[PIVOT1], this.positions[PIVOT2], this.positions[TURRET]);
+    }
+
+    /**
+     * Forgets the running profiles, so the next {@link #update} starts over from the measured angles. Call when the joints stop being driven.
+     */
+    public void reset() {
+        this.active = false;
+    }
+
+    /**
+     * @param joint {@link #PIVOT1}, {@link #PIVOT2} or {@link #TURRET}
+     * @return The profiled velocity of that joint from the last update, in degrees per second
+     */
+    public double getVelocity(int joint) {
+        return this.velocities[joint];
+    }
+
+    /**
+     * @param joint {@link #PIVOT1}, {@link #PIVOT2} or {@link #TURRET}
+     * @return The profiled acceleration of that joint from the last update, in degrees per second squared
+     */
+    public double getAcceleration(int joint) {
+        return this.accelerations[joint];
+    }
+
+    /**
+     * @return True if every joint has reached the end of its profile
+     */
+    public boolean isFinished(double nowSeconds) {
+        if (!this.active) {
+            return true;
+        }
+        double t = nowSeconds - this.startSeconds;
+        for (int joint = 0; joint < JOINT_COUNT; joint++) {
+            if (t < this.endDecelerations[joint]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void start(double nowSeconds, boolean fromMeasured, ArmJointState measured) {
+        this.startPositions[PIVOT1] = measured.getPivot1Angle();
+        this.startPositions[PIVOT2] = measured.getPivot2Angle();
+        this.startPositions[TURRET] = measured.getTurretAngle();
+
+        double longestTime = 0;
+        for (int joint = 0; joint < JOINT_COUNT; joint++) {
+            // Carry on from the current setpoint so retargeting mid-move doesn't jerk the joint, unless the joint isn't where the setpoint thinks it is
+            if (!fromMeasured && Math.abs(this.positions[joint] - this.startPositions[joint]) < RESYNC_ERROR_DEG) {
+                this.startPositions[joint] = this.positions[joint];
+                this.startVelocities[joint] = this.velocities[joint];
+            } else {
+                this.startVelocities[joint] = 0;
+            }
+            double scale = Math.max(MIN_SYNC_SCALE, Math.min(1, Math.abs(this.speedScales[joint])));
+            this.maxVelocities[joint] = this.baseMaxVelocities[joint] * scale;
+            this.maxAccelerations[joint] = this.baseMaxAccelerations[joint];
+            longestTime = Math.max(longestTime, profileTime(this.goals[joint] - this.startPositions[joint], this.startVelocities[joint], this.maxVelocities[joint], this.maxAccelerations[joint]));
+        }
+
+        for (int joint = 0; joint < JOINT_COUNT; joint++) {
+            double scale = syncScale(this.goals[joint] - this.startPositions[joint], this.startVelocities[joint], this.maxVelocities[joint], this.maxAccelerations[joint], longestTime);
+            plan(joint, this.maxVelocities[joint] * scale, this.maxAccelerations[joint] * scale * scale);
+        }
+
+        this.startSeconds = nowSeconds;
+        this.active = true;
+    }
+
+    /**
+     * Starts a joint's profile from {@link #startPositions}/{@link #startVelocities} to its goal, at rest. Same as the {@link TrapezoidProfile}
+     * constructor.
+     */
+    private void plan(int joint, double maxVelocity, double maxAcceleration) {
+        double direction = this.startPositions[joint] > this.goals[joint] ? -1 : 1;
+        double startVelocity = Math.min(this.startVelocities[joint] * direction, maxVelocity);
+        double goal = this.goals[joint] * direction;
+
+        double cutoffBegin = startVelocity / maxAcceleration;
+        double fullTrapezoidDistance = cutoffBegin * cutoffBegin * maxAcceleration / 2.0 + goal - this.startPositions[joint] * direction;
+        double accelerationTime = maxVelocity / maxAcceleration;
+        double fullSpeedDistance = fullTrapezoidDistance - accelerationTime * accelerationTime * maxAcceleration;
+        if (fullSpeedDistance < 0) { // never reaches full speed
+            accelerationTime = Math.sqrt(fullTrapezoidDistance / maxAcceleration);
+            fullSpeedDistance = 0;
+        }
+
+        this.directions[joint] = direction;
+        this.profileStartPositions[joint] = this.startPositions[joint] * direction;
+        this.profileStartVelocities[joint] = startVelocity;
+        this.profileGoals[joint] = goal;
+        this.profileMaxVelocities[joint] = maxVelocity;
+        this.profileMaxAccelerations[joint] = maxAcceleration;
+        this.endAccelerations[joint] = accelerationTime - cutoffBegin;
+        this.endFullSpeeds[joint] = this.endAccelerations[joint] + fullSpeedDistance / maxVelocity;
+        this.endDecelerations[joint] = this.endFullSpeeds[joint] + accelerationTime;
+    }
+
+    /**
+     * Writes a joint's position, velocity and acceleration {@code t} seconds into its profile. Same as {@link TrapezoidProfile#calculate(double)}, plus
+     * the acceleration of whichever phase the profile is in.
+     */
+    private void sample(int joint, double t) {
+        double startPosition = this.profileStartPositions[joint];
+        double startVelocity = this.profileStartVelocities[joint];
+        double maxVelocity = this.profileMaxVelocities[joint];
+        double maxAcceleration = this.profileMaxAccelerations[joint];
+        double endAcceleration = this.endAccelerations[joint];
+        double endDeceleration = this.endDecelerations[joint];
+        double position, velocity, acceleration;
+        if (t < endAcceleration) {
+            velocity = startVelocity + t * maxAcceleration;
+            position = startPosition + (startVelocity + t * maxAcceleration / 2.0) * t;
+            acceleration = maxAcceleration;
+        } else if (t < this.endFullSpeeds[joint]) {
+            velocity = maxVelocity;
+            position = startPosition + (startVelocity + endAcceleration * maxAcceleration / 2.0) * endAcceleration + maxVelocity * (t - endAcceleration);
+            acceleration = 0;
+        } else if (t <= endDeceleration) {
+            double timeLeft = endDeceleration - t;
+            velocity = timeLeft * maxAcceleration;
+            position = this.profileGoals[joint] - timeLeft * maxAcceleration / 2.0 * timeLeft;
+            acceleration = -maxAcceleration;
+        } else {
+            velocity = 0;
+            position = this.profileGoals[joint];
+            acceleration = 0;
+        }
+        double direction = this.directions[joint];
+        this.positions[joint] = position * direction;
+        this.velocities[joint] = velocity * direction;
+        this.accelerations[joint] = acceleration * direction;
+    }
+
+    /**
+     * Finds how much to scale a joint's limits down by (velocity by the result, acceleration by its square) so its move takes {@code targetTime}.
+     *
+     * @return The scale, in (0, 1]. 1 if the move already takes at least {@code targetTime}.
+     */
+    private static double syncScale(double distance, double initialVelocity, double maxVelocity, double maxAcceleration, double targetTime) {
+        if (profileTime(distance, initialVelocity, maxVelocity, maxAcceleration) >= targetTime || (distance == 0 && initialVelocity == 0)) {
+            return 1;
+        }
+        // The time only goes up as the limits go down, so bisect
+        double low = MIN_SYNC_SCALE;
+        double high = 1;
+        for (int i = 0; i < SYNC_ITERATIONS; i++) {
+            double middle = (low + high) / 2;
+            if (profileTime(distance, initialVelocity, maxVelocity * middle, maxAcceleration * middle * middle) > targetTime) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * How long a {@link TrapezoidProfile} that ends at rest takes, without creating one. Follows the same math as {@link TrapezoidProfile#totalTime()}.
+     *
+     * @param distance        Goal position minus initial position
+     * @param initialVelocity The velocity at the start
+     * @param maxVelocity     The velocity limit
+     * @param maxAcceleration The acceleration limit
+     * @return The duration in seconds
+     */
+    static double profileTime(double distance, double initialVelocity, double maxVelocity, double maxAcceleration) {
+        if (distance < 0) { // the profile mirrors moves in the negative direction
+            distance = -distance;
+            initialVelocity = -initialVelocity;
+        }
+        initialVelocity = Math.min(initialVelocity, maxVelocity);
+
+        double cutoffBegin = initialVelocity / maxAcceleration;
+        double fullTrapezoidDistance = cutoffBegin * cutoffBegin * maxAcceleration / 2.0 + distance;
+
+        double accelerationTime = maxVelocity / maxAcceleration;
+        double fullSpeedDistance = fullTrapezoidDistance - accelerationTime * accelerationTime * maxAcceleration;
+        if (fullSpeedDistance < 0) { // never reaches full speed
+            accelerationTime = Math.sqrt(fullTrapezoidDistance / maxAcceleration);
+            fullSpeedDistance = 0;
+        }
+        return accelerationTime - cutoffBegin + fullSpeedDistance / maxVelocity + accelerationTime;
+    }
+}
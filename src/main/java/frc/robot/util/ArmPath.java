@@ -0,0 +1,99 @@
+package frc.robot.util;
+
+/**
+ * A time-parameterized arm move from {@link ArmPathPlanner}: joint setpoints at evenly spaced times, from the start of the move (time 0) to the goal.
+ * Immutable once built, so it can be handed to the arm's control loop thread as is.
+ */
+public final class ArmPath {
+    private final double[] times;
+    private final double[][] angles; // [joint][sample], indexed with the ArmMotionProfile joint constants
+    private final double samplePeriod;
+    private final Vec3 goal;
+
+    ArmPath(double[] times, double[] pivot1Angles, double[] pivot2Angles, double[] turretAngles, double samplePeriod, Vec3 goal) {
+        this.times = times;
+        this.angles = new double[][]{pivot1Angles, pivot2Angles, turretAngles};
+        this.samplePeriod = samplePeriod;
+        this.goal = goal;
+    }
+
+    /**
+     * @return How long the move takes, in seconds
+     */
+    public double getTotalTime() {
+        return this.times[this.times.length - 1];
+    }
+
+    /**
+     * @return The claw position the path ends at
+     */
+    public Vec3 getGoal() {
+        return this.goal;
+    }
+
+    public int getSampleCount() {
+        return this.times.length;
+    }
+
+    /**
+     * @param out Where the final joint angles are written
+     * @return {@code out}
+     */
+    public ArmJointState getFinalAngles(ArmJointState out) {
+        int last = this.times.length - 1;
+        return out.set(this.angles[ArmMotionProfile.PIVOT1][last], this.angles[ArmMotionProfile.PIVOT2][last], this.angles[ArmMotionProfile.TURRET][last]);
+    }
+
+    /**
+     * Gets the joint setpoints at a time along the path, interpolating between samples. Times past the end give the final angles.
+     *
+     * @param t   Seconds since the start of the move
+     * @param out Where the angles are written
+     * @return {@code out}
+     */
+    public ArmJointState sample(double t, ArmJointState out) {
+        int i = indexAt(t);
+        double fraction = Math.max(0, Math.min(1, (t - this.times[i]) / (this.times[i + 1] - this.times[i])));
+        return out.set(
+                lerp(this.angles[ArmMotionProfile.PIVOT1], i, fraction),
+                lerp(this.angles[ArmMotionProfile.PIVOT2], i, fraction),
+                lerp(this.angles[ArmMotionProfile.TURRET], i, fraction));
+    }
+
+    /**
+     * @param t     Seconds since the start of the move
+     * @param joint {@link ArmMotionProfile#PIVOT1}, {@link ArmMotionProfile#PIVOT2} or {@link ArmMotionProfile#TURRET}
+     * @return How fast the joint setpoint is moving at that time, in degrees per second. 0 past the end.
+     */
+    public double getVelocity(double t, int joint) {
+        if (t >= getTotalTime()) {
+            return 0;
+        }
+        int i = indexAt(t);
+        return (this.angles[joint][i + 1] - this.angles[joint][i]) / (this.times[i + 1] - this.times[i]);
+    }
+
+    /**
+     * @param t     Seconds since the start of the move
+     * @param joint {@link ArmMotionProfile#PIVOT1}, {@link ArmMotionProfile#PIVOT2} or {@link ArmMotionProfile#TURRET}
+     * @return How fast the joint setpoint is accelerating at that time, in degrees per second squared. 0 past the end.
+     */
+    public double getAcceleration(double t, int joint) {
+        if (t >= getTotalTime()) {
+            return 0;
+        }
+        return (getVelocity(t + this.samplePeriod, joint) - getVelocity(t, joint)) / this.samplePeriod;
+    }
+
+    /**
+     * @return The index of the sample at or right before {@code t}, always leaving room for the next one
+     */
+    private int indexAt(double t) {
+        int i = (int) (t / this.samplePeriod); // samples are evenly spaced apart from the last one, which lands exactly on the end
+        return Math.max(0, Math.min(i, this.times.length - 2));
+    }
+
+    private static double lerp(double[] values, int i, double fraction) {
+        return values[i] + (values[i + 1] - values[i]) * fraction;
+    }
+}
@@ -0,0 +1,365 @@
+package frc.robot.util;
+
+import frc.robot.Constants.ArmConstants;
+import frc.robot.Constants.PositionConstants;
+import frc.robot.Constants.RobotConstants;
+
+import java.util.Arrays;
+
+/**
+ * Turns a Cartesian start and goal for the claw into an {@link ArmPath}, so the claw moves along a predictable route instead of sweeping whatever arc a
+ * single jump in joint space happens to take.
+ * <p>
+ * The claw has to stay out of three keep-out volumes: below the floor, above {@link ArmConstants#MAX_HEIGHT}, and the robot's own frame (a box around the
+ * bumpers up to {@link ArmConstants#ROBOT_FRAME_HEIGHT}), each with {@link ArmConstants#CLAW_CLEARANCE} of margin. The planner tries, in order:
+ * <ol>
+ *     <li>A straight line from the start to the goal.</li>
+ *     <li>Lift straight up to a safe height above the frame, move across at that height, then lower onto the goal.</li>
+ * </ol>
+ * Each segment of a route is a straight line if it can be. A straight line that passes close to the turret axis or straight behind the robot (where the
+ * turret would have to spin around instantly), or leaves the arm's reach, instead swings around the axis, with the claw's distance from the axis and its
+ * height changing linearly. Only the claw position is checked against the keep-out volumes, not the limbs.
+ * <p>
+ * The claw stops at every waypoint. In between, it goes as fast as {@link ArmConstants#PATH_MAX_SPEED} and {@link ArmConstants#PATH_MAX_ACCELERATION}
+ * allow, slowing down wherever a joint would otherwise have to go over its speed limit (e.g. near full reach, where a small move of the claw is a big
+ * move of the joints). Planning a move takes well under a millisecond, so it is fine to replan inside a loop.
+ * <p>
+ * Reuses its scratch space between calls, so an instance should only be used from one thread.
+ */
+public class ArmPathPlanner {
+    private static final AsyncLogger.Site NO_ROUTE_LOG = AsyncLogger.site(AsyncLogger.Level.WARN, 1.0);
+
+    private static final double VALIDATION_STEP = 1.0; // inches between the points checked along a segment
+    private static final double MAX_JOINT_STEP = 15.0; // degrees a joint may move between two checked points, more means the inverse kinematics jumped
+    private static final double SAMPLE_PERIOD = 0.02; // seconds between path samples
+    private static final double MIN_SPEED_SCALE = 1e-3;
+    private static final int MAX_WAYPOINTS = 4;
+
+    private static final int STRAIGHT = 0;
+    private static final int SWING = 1;
+
+    private static final double FRAME_HALF_LENGTH = RobotConstants.ROBOT_LENGTH / 2 + ArmConstants.CLAW_CLEARANCE;
+    private static final double FRAME_HALF_WIDTH = RobotConstants.ROBOT_WIDTH / 2 + ArmConstants.CLAW_CLEARANCE;
+    private static final double FRAME_TOP = ArmConstants.ROBOT_FRAME_HEIGHT + ArmConstants.CLAW_CLEARANCE;
+    private static final double FLOOR = PositionConstants.Y_FLOOR + ArmConstants.CLAW_CLEARANCE;
+
+    private final double[] jointSpeedLimits = new double[3];
+
+    // Scratch space for the route being checked
+    private final double[] waypointX = new double[MAX_WAYPOINTS];
+    private final double[] waypointY = new double[MAX_WAYPOINTS];
+    private final double[] waypointZ = new double[MAX_WAYPOINTS];
+    private int waypointCount;
+    private final int[] segmentTypes = new int[MAX_WAYPOINTS - 1];
+    private boolean leftKeepOut; // whether the route being checked has been outside the keep-out volumes yet
+
+    // Every checked point along the route (a knot), with how fast the claw may go through it and when it gets there
+    private int knotCount;
+    private int[] knotSegments = new int[256];
+    private double[] knotFractions = new double[256]; // how far along its segment, from 0 to 1
+    private double[] knotDistances = new double[256]; // inches from the previous knot, 0 for the first knot of a segment
+    private double[] knotSpeeds = new double[256]; // inches per second, first the limit and then the planned speed
+    private double[] knotTimes = new double[256];
+
+    private final ArmCartesianState point = new ArmCartesianState();
+    private final ArmJointState angles = new ArmJointState();
+    private final ArmJointState previousAngles = new ArmJointState();
+
+    public ArmPathPlanner() {
+        setJointSpeedScales(1, 1, 1);
+    }
+
+    /**
+     * Sets how fast the joints may move, as a fraction of the speed they reach at full output (like the output limits given to the arm).
+     *
+     * @param pivot1Scale Fraction of pivot1's full speed
+     * @param pivot2Scale Fraction of pivot2's full speed
+     * @param turretScale Fraction of the turret's full speed
+     */
+    public void setJointSpeedScales(double pivot1Scale, double pivot2Scale, double turretScale) {
+        this.jointSpeedLimits[ArmMotionProfile.PIVOT1] = ArmConstants.PIVOT1_FREE_SPEED * ArmConstants.PROFILE_VELOCITY_HEADROOM * Math.max(MIN_SPEED_SCALE, Math.abs(pivot1Scale));
+        this.jointSpeedLimits[ArmMotionProfile.PIVOT2] = ArmConstants.PIVOT2_FREE_SPEED * ArmConstants.PROFILE_VELOCITY_HEADROOM * Math.max(MIN_SPEED_SCALE, Math.abs(pivot2Scale));
+        this.jointSpeedLimits[ArmMotionProfile.TURRET] = ArmConstants.TURRET_FREE_SPEED * ArmConstants.PROFILE_VELOCITY_HEADROOM * Math.max(MIN_SPEED_SCALE, Math.abs(turretScale));
+    }
+
+    /**
+     * Plans a move of the claw.
+     *
+     * @param start   Where the claw is now
+     * @param goal    Where the claw should end up
+     * @param flipped Whether the arm is flipped, see {@link InverseKinematicsUtil#getAnglesFromCoordinates(double, double, double, boolean)}
+     * @return The path, or null if the goal can't be reached without going through a keep-out volume
+     */
+    public ArmPath plan(Vec3 start, Vec3 goal, boolean flipped) {
+        if (isInKeepOut(goal.getX(), goal.getY(), goal.getZ()) || !InverseKinematicsUtil.getAnglesFromCoordinates(goal.getX(), goal.getY(), goal.getZ(), flipped, this.angles).isValid()) {
+            NO_ROUTE_LOG.log("Arm path goal is out of reach or inside a keep-out volume");
+            return null;
+        }
+
+        // 1. Straight there
+        this.waypointCount = 0;
+        addWaypoint(start.getX(), start.getY(), start.getZ());
+        addWaypoint(goal.getX(), goal.getY(), goal.getZ());
+        if (checkRoute(flipped)) {
+            return buildPath(goal, flipped);
+        }
+
+        // 2. Up, across, down
+        double safeHeight = Math.max(FRAME_TOP, Math.max(Math.min(start.getY(), goal.getY()), FLOOR));
+        if (safeHeight <= ArmConstants.MAX_HEIGHT) {
+            this.waypointCount = 0;
+            addWaypoint(start.getX(), start.getY(), start.getZ());
+            addWaypoint(start.getX(), Math.max(start.getY(), safeHeight), start.getZ());
+            addWaypoint(goal.getX(), Math.max(goal.getY(), safeHeight), goal.getZ());
+            addWaypoint(goal.getX(), goal.getY(), goal.getZ());
+            if (checkRoute(flipped)) {
+                return buildPath(goal, flipped);
+            }
+        }
+
+        NO_ROUTE_LOG.log("No arm path around the keep-out volumes");
+        return null;
+    }
+
+    /**
+     * Adds a waypoint to the route, skipping it if it is the same as the last one.
+     */
+    private void addWaypoint(double x, double y, double z) {
+        int last = this.waypointCount - 1;
+        if (last >= 0 && this.waypointX[last] == x && this.waypointY[last] == y && this.waypointZ[last] == z) {
+            return;
+        }
+        this.waypointX[this.waypointCount] = x;
+        this.waypointY[this.waypointCount] = y;
+        this.waypointZ[this.waypointCount] = z;
+        this.waypointCount++;
+    }
+
+    /**
+     * Picks a shape for every segment of the current route and lays the knots along it.
+     *
+     * @return False if some segment can't be driven either way
+     */
+    private boolean checkRoute(boolean flipped) {
+        this.leftKeepOut = false;
+        this.knotCount = 0;
+        for (int segment = 0; segment < this.waypointCount - 1; segment++) {
+            boolean leftKeepOutBefore = this.leftKeepOut;
+            int knotCountBefore = this.knotCount;
+            if (checkSegment(segment, STRAIGHT, flipped)) {
+                this.segmentTypes[segment] = STRAIGHT;
+                continue;
+            }
+            this.leftKeepOut = leftKeepOutBefore;
+            this.knotCount = knotCountBefore;
+            if (!checkSegment(segment, SWING, flipped)) {
+                return false;
+            }
+            this.segmentTypes[segment] = SWING;
+        }
+        return true;
+    }
+
+    /**
+     * Walks along a segment checking the keep-out volumes, reachability and that the joints move smoothly, adding a knot at every checked point with the
+     * fastest the claw can go there without a joint going over its speed limit.
+     *
+     * @return True if the segment can be driven
+     */
+    private boolean checkSegment(int segment, int type, boolean flipped) {
+        double length = segmentLength(segment, type);
+        int steps = Math.max(1, (int) Math.ceil(length / VALIDATION_STEP));
+        double stepLength = length / steps;
+
+        for (int step = 0; step <= steps; step++) {
+            double fraction = (double) step / steps;
+            pointAlong(segment, type, fraction, this.point);
+            double x = this.point.getX(), y = this.point.getY(), z = this.point.getZ();
+
+            // The arm is allowed to start inside a keep-out volume, but once it is out it can't go back in
+            if (isInKeepOut(x, y, z)) {
+                if (this.leftKeepOut) {
+                    return false;
+                }
+            } else {
+                this.leftKeepOut = true;
+            }
+
+            if (!InverseKinematicsUtil.getAnglesFromCoordinates(x, y, z, flipped, this.angles).isValid()) {
+                return false;
+            }
+
+            double speedLimit = ArmConstants.PATH_MAX_SPEED;
+            if (step > 0) {
+                double pivot1Step = Math.abs(this.angles.getPivot1Angle() - this.previousAngles.getPivot1Angle());
+                double pivot2Step = Math.abs(this.angles.getPivot2Angle() - this.previousAngles.getPivot2Angle());
+                double turretStep = Math.abs(this.angles.getTurretAngle() - this.previousAngles.getTurretAngle());
+                if (pivot1Step > MAX_JOINT_STEP || pivot2Step > MAX_JOINT_STEP || turretStep > MAX_JOINT_STEP) {
+                    return false;
+                }
+                // The shortest time the joints can cover this step in, at their speed limits
+                double stepSeconds = Math.max(pivot1Step / this.jointSpeedLimits[ArmMotionProfile.PIVOT1],
+                        Math.max(pivot2Step / this.jointSpeedLimits[ArmMotionProfile.PIVOT2], turretStep / this.jointSpeedLimits[ArmMotionProfile.TURRET]));
+                if (stepSeconds > 0) {
+                    speedLimit = Math.min(speedLimit, stepLength / stepSeconds);
+                }
+                // A knot is limited by the steps on both sides of it
+                this.knotSpeeds[this.knotCount - 1] = Math.min(this.knotSpeeds[this.knotCount - 1], speedLimit);
+            }
+            addKnot(segment, fraction, step == 0 ? 0 : stepLength, step == steps ? 0 : speedLimit); // stop at the end of every segment
+            this.previousAngles.set(this.angles);
+        }
+        return true;
+    }
+
+    private void addKnot(int segment, double fraction, double distance, double speedLimit) {
+        if (this.knotCount == this.knotSegments.length) {
+            int capacity = this.knotCount * 2;
+            this.knotSegments = Arrays.copyOf(this.knotSegments, capacity);
+            this.knotFractions = Arrays.copyOf(this.knotFractions, capacity);
+            this.knotDistances = Arrays.copyOf(this.knotDistances, capacity);
+            this.knotSpeeds = Arrays.copyOf(this.knotSpeeds, capacity);
+            this.knotTimes = Arrays.copyOf(this.knotTimes, capacity);
+        }
+        this.knotSegments[this.knotCount] = segment;
+        this.knotFractions[this.knotCount] = fraction;
+        this.knotDistances[this.knotCount] = distance;
+        this.knotSpeeds[this.knotCount] = speedLimit;
+        this.knotCount++;
+    }
+
+    /**
+     * Turns the knot speed limits into planned speeds that respect the acceleration limit, and works out when the claw reaches each knot.
+     * Standard forward-backward pass: a knot can't be faster than accelerating from the knot before allows, or than braking to the knot after allows.
+     */
+    private void timeKnots() {
+        double acceleration = ArmConstants.PATH_MAX_ACCELERATION;
+        for (int k = 0; k < this.knotCount; k++) {
+            if (this.knotDistances[k] == 0) {
+                this.knotSpeeds[k] = 0; // start of a segment
+            } else {
+                this.knotSpeeds[k] = Math.min(this.knotSpeeds[k], Math.sqrt(this.knotSpeeds[k - 1] * this.knotSpeeds[k - 1] + 2 * acceleration * this.knotDistances[k]));
+            }
+        }
+        for (int k = this.knotCount - 2; k >= 0; k--) {
+            if (this.knotDistances[k + 1] != 0) {
+                this.knotSpeeds[k] = Math.min(this.knotSpeeds[k], Math.sqrt(this.knotSpeeds[k + 1] * this.knotSpeeds[k + 1] + 2 * acceleration * this.knotDistances[k + 1]));
+            }
+        }
+        this.knotTimes[0] = 0;
+        for (int k = 1; k < this.knotCount; k++) {
+            double speedSum = this.knotSpeeds[k - 1] + this.knotSpeeds[k];
+            this.knotTimes[k] = this.knotTimes[k - 1] + (this.knotDistances[k] == 0 || speedSum == 0 ? 0 : 2 * this.knotDistances[k] / speedSum);
+        }
+    }
+
+    /**
+     * Samples the route at even times and turns every sample into joint angles.
+     */
+    private ArmPath buildPath(Vec3 goal, boolean flipped) {
+        if (this.knotCount < 2) { // already at the goal, make a path that just holds it
+            InverseKinematicsUtil.getAnglesFromCoordinates(goal.getX(), goal.getY(), goal.getZ(), flipped, this.angles);
+            double pivot1 = this.angles.getPivot1Angle(), pivot2 = this.angles.getPivot2Angle(), turret = this.angles.getTurretAngle();
+            return new ArmPath(new double[]{0, SAMPLE_PERIOD}, new double[]{pivot1, pivot1}, new double[]{pivot2, pivot2}, new double[]{turret, turret}, SAMPLE_PERIOD, goal);
+        }
+
+        timeKnots();
+        double totalTime = Math.max(this.knotTimes[this.knotCount - 1], SAMPLE_PERIOD);
+        int sampleCount = (int) Math.ceil(totalTime / SAMPLE_PERIOD) + 1;
+
+        double[] times = new double[sampleCount];
+        double[] pivot1Angles = new double[sampleCount];
+        double[] pivot2Angles = new double[sampleCount];
+        double[] turretAngles = new double[sampleCount];
+
+        int knot = 1; // the knot at the end of the interval the current sample is in
+        for (int i = 0; i < sampleCount; i++) {
+            double t = i == sampleCount - 1 ? totalTime : i * SAMPLE_PERIOD;
+            while (knot < this.knotCount - 1 && this.knotTimes[knot] < t) {
+                knot++;
+            }
+            positionAt(knot, t, this.point);
+            if (!InverseKinematicsUtil.getAnglesFromCoordinates(this.point.getX(), this.point.getY(), this.point.getZ(), flipped, this.angles).isValid()) {
+                return null; // can't happen, every segment was checked
+            }
+            times[i] = t;
+            pivot1Angles[i] = this.angles.getPivot1Angle();
+            pivot2Angles[i] = this.angles.getPivot2Angle();
+            turretAngles[i] = this.angles.getTurretAngle();
+        }
+        return new ArmPath(times, pivot1Angles, pivot2Angles, turretAngles, SAMPLE_PERIOD, goal);
+    }
+
+    /**
+     * Finds where the claw is at a time between a knot and the one before it, accelerating evenly between the two.
+     */
+    private void positionAt(int knot, double t, ArmCartesianState out) {
+        double distance = this.knotDistances[knot];
+        double intervalTime = this.knotTimes[knot] - this.knotTimes[knot - 1];
+        int segment = this.knotSegments[knot];
+        if (distance == 0 || intervalTime <= 0) {
+            pointAlong(segment, this.segmentTypes[segment], this.knotFractions[knot], out);
+            return;
+        }
+        double startSpeed = this.knotSpeeds[knot - 1];
+        double acceleration = (this.knotSpeeds[knot] - startSpeed) / intervalTime;
+        double elapsed = Math.max(0, Math.min(intervalTime, t - this.knotTimes[knot - 1]));
+        double travelled = Math.max(0, Math.min(distance, startSpeed * elapsed + acceleration * elapsed * elapsed / 2));
+        double fraction = this.knotFractions[knot - 1] + (this.knotFractions[knot] - this.knotFractions[knot - 1]) * travelled / distance;
+        pointAlong(segment, this.segmentTypes[segment], fraction, out);
+    }
+
+    private double segmentLength(int segment, int type) {
+        double dx = this.waypointX[segment + 1] - this.waypointX[segment];
+        double dy = this.waypointY[segment + 1] - this.waypointY[segment];
+        double dz = this.waypointZ[segment + 1] - this.waypointZ[segment];
+        if (type == STRAIGHT) {
+            return Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+        // Swinging around the axis: the radius changes, the claw travels along the arc, and the height changes, roughly independently
+        double startRadius = Math.hypot(this.waypointX[segment], this.waypointZ[segment]);
+        double endRadius = Math.hypot(this.waypointX[segment + 1], this.waypointZ[segment + 1]);
+        double arc = (startRadius + endRadius) / 2 * Math.abs(Math.toRadians(swingAngle(segment)));
+        double dr = endRadius - startRadius;
+        return Math.sqrt(dr * dr + arc * arc + dy * dy);
+    }
+
+    /**
+     * @return How far the turret turns over a swing segment, in degrees. Uses the same (-180, 180] range as the turret angles from inverse kinematics, so a
+     * swing never crosses straight behind the robot, same as the turret itself.
+     */
+    private double swingAngle(int segment) {
+        return turretAngleOf(segment + 1) - turretAngleOf(segment);
+    }
+
+    private double turretAngleOf(int waypoint) {
+        return Math.toDegrees(Math.atan2(this.waypointZ[waypoint], this.waypointX[waypoint]));
+    }
+
+    /**
+     * @param fraction 0 at the start of the segment, 1 at the end
+     */
+    private void pointAlong(int segment, int type, double fraction, ArmCartesianState out) {
+        double y = this.waypointY[segment] + (this.waypointY[segment + 1] - this.waypointY[segment]) * fraction;
+        if (type == STRAIGHT) {
+            out.set(this.waypointX[segment] + (this.waypointX[segment + 1] - this.waypointX[segment]) * fraction, y,
+                    this.waypointZ[segment] + (this.waypointZ[segment + 1] - this.waypointZ[segment]) * fraction);
+            return;
+        }
+        double startRadius = Math.hypot(this.waypointX[segment], this.waypointZ[segment]);
+        double endRadius = Math.hypot(this.waypointX[segment + 1], this.waypointZ[segment + 1]);
+        double radius = startRadius + (endRadius - startRadius) * fraction;
+        double angle = Math.toRadians(turretAngleOf(segment) + swingAngle(segment) * fraction);
+        out.set(radius * Math.cos(angle), y, radius * Math.sin(angle));
+    }
+
+    /**
+     * @return True if the claw at this position is under the floor, over the height limit, or in the robot's frame
+     */
+    public static boolean isInKeepOut(double x, double y, double z) {
+        if (y < FLOOR || y > ArmConstants.MAX_HEIGHT) {
+            return true;
+        }
+        return y < FRAME_TOP && Math.abs(x) < FRAME_HALF_LENGTH && Math.abs(z) < FRAME_HALF_WIDTH;
+    }
+}
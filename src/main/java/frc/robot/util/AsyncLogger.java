@@ -0,0 +1,304 @@
+package frc.robot.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logger for code that runs every loop. Printing straight to {@code System.out} blocks the main thread on stdout/netconsole, so instead a log call copies
+ * its template and arguments into a preallocated lock-free ring buffer, and a low-priority background thread formats and prints them.
+ * <p>
+ * Every call site gets its own {@link Site}, which has a log level and a rate limit. Make them {@code static final} fields:
+ * <pre>
+ * private static final AsyncLogger.Site NAN_LOG = AsyncLogger.site(AsyncLogger.Level.WARN, 1.0);
+ * ...
+ * NAN_LOG.log("Target angle is NaN: {}, {}", targetAngle1, targetAngle2);
+ * </pre>
+ * {@code {}} in the template is replaced by the arguments in order. Arguments are doubles or Strings, so logging a number never boxes.
+ */
+public final class AsyncLogger {
+    private AsyncLogger() {
+        throw new UnsupportedOperationException("AsyncLogger is a utility class and cannot be instantiated!");
+    }
+
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    private static final int CAPACITY = 1024; // must be a power of 2
+    private static final int MASK = CAPACITY - 1;
+    private static final int MAX_ARGS = 4;
+    private static final long DRAIN_IDLE_NANOS = 20_000_000L;
+
+    private static final Slot[] slots = new Slot[CAPACITY];
+    private static final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    private static final AtomicLong tail = new AtomicLong(0);
+    private static final AtomicLong dropped = new AtomicLong(0);
+    private static long head = 0; // only touched by the drain thread
+
+    private static volatile Level minimumLevel = Level.INFO;
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+        Thread drainThread = new Thread(AsyncLogger::drainLoop, "AsyncLogger");
+        drainThread.setDaemon(true);
+        drainThread.setPriority(Thread.MIN_PRIORITY);
+        drainThread.start();
+    }
+
+    /**
+     * A preallocated entry in the ring buffer.
+     */
+    private static final class Slot {
+        Level level;
+        String template;
+        long suppressed;
+        int argCount;
+        final double[] numberArgs = new double[MAX_ARGS];
+        final String[] stringArgs = new String[MAX_ARGS]; // non-null means the argument at that index is a String
+    }
+
+    /**
+     * A single logging call site with its own level and rate limit.
+     */
+    public static final class Site {
+        private final Level level;
+        private final long minIntervalNanos;
+        private long lastEmitNanos = Long.MIN_VALUE;
+        private long suppressed = 0;
+
+        private Site(Level level, double minIntervalSeconds) {
+            this.level = level;
+            this.minIntervalNanos = (long) (minIntervalSeconds * 1e9);
+        }
+
+        /**
+         * Checks the level and rate limit, and if this site may log right now, uses up the rate limit window. Use this to guard code that would
+         * have to do work (like building a list) before logging, then call the {@code emit} methods.
+         *
+         * @return True if the caller should log now
+         */
+        public boolean ready() {
+            if (this.level.ordinal() < minimumLevel.ordinal()) {
+                return false;
+            }
+            long now = System.nanoTime();
+            if (this.lastEmitNanos != Long.MIN_VALUE && now - this.lastEmitNanos < this.minIntervalNanos) {
+                this.suppressed++;
+                return false;
+            }
+            this.lastEmitNanos = now;
+            return true;
+        }
+
+        public void log(String message) {
+            if (ready()) {
+                emit(message);
+            }
+        }
+
+        public void log(String template, double a) {
+            if (ready()) {
+                emit(template, a);
+            }
+        }
+
+        public void log(String template, double a, double b) {
+            if (ready()) {
+                emit(template, a, b);
+            }
+        }
+
+        public void log(String template, double a, double b, double c) {
+            if (ready()) {
+                emit(template, a, b, c);
+            }
+        }
+
+        public void log(String template, String a) {
+            if (ready()) {
+                emit(template, a);
+            }
+        }
+
+        public void emit(String message) {
+            long position = claim(message);
+            if (position >= 0) {
+                slotAt(position).argCount = 0;
+                publish(position);
+            }
+        }
+
+        public void emit(String template, double a) {
+            long position = claim(template);
+            if (position >= 0) {
+                Slot slot = slotAt(position);
+                setNumber(slot, 0, a);
+                slot.argCount = 1;
+                publish(position);
+            }
+        }
+
+        public void emit(String template, double a, double b) {
+            long position = claim(template);
+            if (position >= 0) {
+                Slot slot = slotAt(position);
+                setNumber(slot, 0, a);
+                setNumber(slot, 1, b);
+                slot.argCount = 2;
+                publish(position);
+            }
+        }
+
+        public void emit(String template, double a, double b, double c) {
+            long position = claim(template);
+            if (position >= 0) {
+                Slot slot = slotAt(position);
+                setNumber(slot, 0, a);
+                setNumber(slot, 1, b);
+                setNumber(slot, 2, c);
+                slot.argCount = 3;
+                publish(position);
+            }
+        }
+
+        public void emit(String template, String a) {
+            long position = claim(template);
+            if (position >= 0) {
+                Slot slot = slotAt(position);
+                slot.stringArgs[0] = a;
+                slot.argCount = 1;
+                publish(position);
+            }
+        }
+
+        /**
+         * Reserves the next slot in the ring buffer.
+         *
+         * @return The position of the reserved slot, or -1 if the buffer is full
+         */
+        private long claim(String template) {
+            long position = tail.get();
+            while (true) {
+                long sequence = sequences.get((int) (position & MASK));
+                long difference = sequence - position;
+                if (difference == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        break;
+                    }
+                } else if (difference < 0) { // buffer is full, the drain thread is behind
+                    dropped.incrementAndGet();
+                    return -1;
+                } else {
+                    position = tail.get();
+                }
+            }
+            Slot slot = slotAt(position);
+            slot.level = this.level;
+            slot.template = template;
+            slot.suppressed = this.suppressed;
+            this.suppressed = 0;
+            return position;
+        }
+    }
+
+    private static Slot slotAt(long position) {
+        return slots[(int) (position & MASK)];
+    }
+
+    /**
+     * Hands a filled slot over to the drain thread.
+     */
+    private static void publish(long position) {
+        sequences.lazySet((int) (position & MASK), position + 1);
+    }
+
+    private static void setNumber(Slot slot, int index, double value) {
+        slot.numberArgs[index] = value;
+        slot.stringArgs[index] = null;
+    }
+
+    /**
+     * Creates a new call site. Store the result in a {@code static final} field rather than calling this every loop.
+     *
+     * @param level              The level messages from this site are logged at
+     * @param minIntervalSeconds The minimum time between two messages from this site. Messages in between are dropped and counted.
+     * @return The new site
+     */
+    public static Site site(Level level, double minIntervalSeconds) {
+        return new Site(level, minIntervalSeconds);
+    }
+
+    /**
+     * Sets the lowest level that gets logged. Defaults to {@link Level#INFO}.
+     *
+     * @param level The minimum level
+     */
+    public static void setMinimumLevel(Level level) {
+        minimumLevel = level;
+    }
+
+    private static void drainLoop() {
+        StringBuilder builder = new StringBuilder(256);
+        long reportedDropped = 0;
+        while (true) {
+            boolean drainedAny = false;
+            while (true) {
+                int index = (int) (head & MASK);
+                if (sequences.get(index) != head + 1) {
+                    break;
+                }
+                format(slots[index], builder);
+                sequences.lazySet(index, head + CAPACITY);
+                head++;
+                drainedAny = true;
+                System.out.println(builder);
+            }
+
+            long totalDropped = dropped.get();
+            if (totalDropped != reportedDropped) {
+                System.out.println("[WARN] Log buffer full, dropped " + (totalDropped - reportedDropped) + " messages");
+                reportedDropped = totalDropped;
+            }
+
+            if (!drainedAny) {
+                LockSupport.parkNanos(DRAIN_IDLE_NANOS);
+            }
+        }
+    }
+
+    private static void format(Slot slot, StringBuilder builder) {
+        builder.setLength(0);
+        builder.append('[').append(slot.level).append("] ");
+        String template = slot.template;
+        int argIndex = 0;
+        int start = 0;
+        int placeholder;
+        while (argIndex < slot.argCount && (placeholder = template.indexOf("{}", start)) >= 0) {
+            builder.append(template, start, placeholder);
+            if (slot.stringArgs[argIndex] != null) {
+                builder.append(slot.stringArgs[argIndex]);
+                slot.stringArgs[argIndex] = null; // don't hold on to the string
+            } else {
+                appendNumber(builder, slot.numberArgs[argIndex]);
+            }
+            argIndex++;
+            start = placeholder + 2;
+        }
+        builder.append(template, start, template.length());
+        if (slot.suppressed > 0) {
+            builder.append(" (").append(slot.suppressed).append(" similar messages suppressed)");
+        }
+    }
+
+    private static void appendNumber(StringBuilder builder, double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) { // whole numbers (ids, counts, timestamps) print without the trailing .0
+            builder.append((long) value);
+        } else {
+            builder.append(value);
+        }
+    }
+}
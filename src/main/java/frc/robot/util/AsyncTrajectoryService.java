@@ -0,0 +1,64 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Generates trajectories on a background thread, so a command that needs a new path doesn't stall the main loop for the tens of milliseconds a spline
+ * optimization takes on the RoboRIO. Trajectories come from a {@link TrajectoryCache}, so a repeated request finishes almost straight away.
+ * <p>
+ * The robot only follows one path at a time, so a request cancels the one before it. A cancelled request that hasn't started yet is never generated,
+ * and one that's already generating finishes but is thrown away.
+ */
+public class AsyncTrajectoryService {
+    private static final AsyncLogger.Site FAILED_LOG = AsyncLogger.site(AsyncLogger.Level.ERROR, 1.0);
+
+    private final TrajectoryCache cache;
+    private final ExecutorService executor;
+    private CompletableFuture<Trajectory> latest;
+
+    /**
+     * @param cache Where the trajectories come from
+     */
+    public AsyncTrajectoryService(TrajectoryCache cache) {
+        this.cache = cache;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Trajectory generator");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1); // below the main robot thread
+            return thread;
+        });
+    }
+
+    /**
+     * Starts generating a trajectory and cancels the last request, if it isn't done yet.
+     *
+     * @return The trajectory once it's generated. It completes exceptionally if generation fails (e.g. the path is impossible).
+     * @see TrajectoryCache#get(Pose2d, List, Pose2d, boolean)
+     */
+    public synchronized CompletableFuture<Trajectory> request(Pose2d start, List<Translation2d> waypoints, Pose2d end, boolean reversed) {
+        if (this.latest != null) {
+            this.latest.cancel(false);
+        }
+        CompletableFuture<Trajectory> future = new CompletableFuture<>();
+        this.latest = future;
+        this.executor.execute(() -> {
+            if (future.isDone()) {
+                return; // cancelled while it was waiting
+            }
+            try {
+                future.complete(this.cache.get(start, waypoints, end, reversed));
+            } catch (RuntimeException e) {
+                FAILED_LOG.emit("Couldn't generate trajectory: {}", String.valueOf(e));
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+}
@@ -0,0 +1,170 @@
+package frc.robot.util;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
+import com.revrobotics.REVLibError;
+import edu.wpi.first.hal.can.CANStatus;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * Sets the periodic status frame rates of every SPARK MAX based on what the robot actually reads from it, and publishes CAN bus utilization to the "can" table.
+ * <p>
+ * By default every SPARK MAX sends all of its status frames (applied output, velocity, position, analog, alternate encoder, duty cycle) whether anyone
+ * reads them or not. Each device gets a {@link Role} instead, and frames nobody uses are slowed down to free up bus bandwidth for the ones we do read.
+ * <ul>
+ *     <li>Status 0: applied output and faults. Followers copy their leader's output from this frame, so leaders keep it fast.</li>
+ *     <li>Status 1: velocity, temperature, voltage and current.</li>
+ *     <li>Status 2: position.</li>
+ *     <li>Status 3-6: analog sensor, alternate encoder and duty cycle encoder. Not used on this robot.</li>
+ * </ul>
+ */
+public final class CANConfigurator {
+    private CANConfigurator() {
+        throw new UnsupportedOperationException("CANConfigurator is a utility class and cannot be instantiated!");
+    }
+
+    /**
+     * The slowest period a SPARK MAX accepts. Used for frames nothing on the robot reads.
+     */
+    public static final int UNUSED_FRAME_PERIOD_MS = 65535;
+    private static final double PUBLISH_PERIOD_SECONDS = 1.0;
+
+    /**
+     * What a motor controller is used for, which decides which status frames need to be fast.
+     */
+    public enum Role {
+        /**
+         * Front drive motors: their encoders feed odometry (position) and the Ramsete wheel speeds (velocity), and a rear motor follows each one.
+         */
+        DRIVE_LEADER(10, 20, 20),
+        /**
+         * Rear drive motors: they follow a leader and nothing reads their encoders every loop.
+         */
+        DRIVE_FOLLOWER(100, 500, 500),
+        /**
+         * Arm joints: only the position is read, but it is read every loop.
+         */
+        ARM_JOINT(100, 250, 20),
+        /**
+         * Any other motor where only the encoder position is read (e.g. claw rotation).
+         */
+        POSITION_ONLY(100, 250, 20),
+        /**
+         * A motor being characterized for SysId: its applied output, velocity and position are all recorded every few milliseconds. Only used for the
+         * length of a test.
+         */
+        CHARACTERIZATION(5, 5, 5);
+
+        private final int status0PeriodMs;
+        private final int status1PeriodMs;
+        private final int status2PeriodMs;
+
+        Role(int status0PeriodMs, int status1PeriodMs, int status2PeriodMs) {
+            this.status0PeriodMs = status0PeriodMs;
+            this.status1PeriodMs = status1PeriodMs;
+            this.status2PeriodMs = status2PeriodMs;
+        }
+
+        public int getPositionFramePeriodMs() {
+            return this.status2PeriodMs;
+        }
+    }
+
+    private static final AsyncLogger.Site CONFIG_FAILED_LOG = AsyncLogger.site(AsyncLogger.Level.WARN, 0);
+
+    private static final NetworkTable TABLE = NetworkTablesUtil.getTable("can");
+    private static DoublePublisher utilizationPublisher;
+    private static DoublePublisher peakUtilizationPublisher;
+    private static IntegerPublisher busOffPublisher;
+    private static IntegerPublisher txFullPublisher;
+    private static IntegerPublisher receiveErrorPublisher;
+    private static IntegerPublisher transmitErrorPublisher;
+
+    private static long lastPublishNanos;
+    private static double peakUtilization = 0;
+
+    /**
+     * Sets the status frame periods of a motor controller for its role.
+     *
+     * @param motor The motor controller
+     * @param role  What the motor controller is used for
+     */
+    public static void configure(CANSparkMax motor, Role role) {
+        configure(motor, role, role.status2PeriodMs);
+    }
+
+    /**
+     * Sets the status frame periods of a motor controller for its role, but with a custom position frame period. Use this when the position is read
+     * faster than the 20ms robot loop (e.g. from a {@link edu.wpi.first.wpilibj.Notifier}), otherwise the extra reads just see the same stale frame.
+     *
+     * @param motor                 The motor controller
+     * @param role                  What the motor controller is used for
+     * @param positionFramePeriodMs The period of status frame 2 (position) in milliseconds
+     */
+    public static void configure(CANSparkMax motor, Role role, int positionFramePeriodMs) {
+        setFramePeriod(motor, PeriodicFrame.kStatus0, role.status0PeriodMs);
+        setFramePeriod(motor, PeriodicFrame.kStatus1, role.status1PeriodMs);
+        setFramePeriod(motor, PeriodicFrame.kStatus2, Math.max(1, positionFramePeriodMs));
+        setFramePeriod(motor, PeriodicFrame.kStatus3, UNUSED_FRAME_PERIOD_MS);
+        setFramePeriod(motor, PeriodicFrame.kStatus4, UNUSED_FRAME_PERIOD_MS);
+        setFramePeriod(motor, PeriodicFrame.kStatus5, UNUSED_FRAME_PERIOD_MS);
+        setFramePeriod(motor, PeriodicFrame.kStatus6, UNUSED_FRAME_PERIOD_MS);
+    }
+
+    /**
+     * Makes a motor controller follow a leader and configures it as a {@link Role#DRIVE_FOLLOWER}. The follower mirrors the leader's output on the motor
+     * controller itself, so the roboRIO only has to send one set per side instead of one per motor.
+     *
+     * @param follower The motor controller that copies the leader
+     * @param leader   The motor controller being copied
+     * @param invert   True if the follower should spin opposite to the leader
+     */
+    public static void follow(CANSparkMax follower, CANSparkMax leader, boolean invert) {
+        REVLibError error = follower.follow(leader, invert);
+        if (error != REVLibError.kOk) {
+            CONFIG_FAILED_LOG.emit("SPARK MAX " + follower.getDeviceId() + " failed to follow " + leader.getDeviceId() + ": {}", String.valueOf(error));
+        }
+        configure(follower, Role.DRIVE_FOLLOWER);
+    }
+
+    private static void setFramePeriod(CANSparkMax motor, PeriodicFrame frame, int periodMs) {
+        REVLibError error = motor.setPeriodicFramePeriod(frame, periodMs);
+        if (error != REVLibError.kOk) {
+            CONFIG_FAILED_LOG.emit("SPARK MAX " + motor.getDeviceId() + " rejected " + frame + " period: {}", String.valueOf(error));
+        }
+    }
+
+    /**
+     * Publishes the CAN bus utilization and error counters once a second. Call every loop from robotPeriodic.
+     */
+    public static void periodic() {
+        long now = System.nanoTime();
+        if (now - lastPublishNanos < PUBLISH_PERIOD_SECONDS * 1e9) {
+            return;
+        }
+        lastPublishNanos = now;
+
+        if (utilizationPublisher == null) {
+            utilizationPublisher = TABLE.getDoubleTopic("utilizationPercent").publish();
+            peakUtilizationPublisher = TABLE.getDoubleTopic("peakUtilizationPercent").publish();
+            busOffPublisher = TABLE.getIntegerTopic("busOffCount").publish();
+            txFullPublisher = TABLE.getIntegerTopic("txFullCount").publish();
+            receiveErrorPublisher = TABLE.getIntegerTopic("receiveErrorCount").publish();
+            transmitErrorPublisher = TABLE.getIntegerTopic("transmitErrorCount").publish();
+        }
+
+        CANStatus status = RobotController.getCANStatus();
+        double utilization = status.percentBusUtilization * 100;
+        peakUtilization = Math.max(peakUtilization, utilization);
+
+        utilizationPublisher.set(utilization);
+        peakUtilizationPublisher.set(peakUtilization);
+        busOffPublisher.set(status.busOffCount);
+        txFullPublisher.set(status.txFullCount);
+        receiveErrorPublisher.set(status.receiveErrorCount);
+        transmitErrorPublisher.set(status.transmitErrorCount);
+    }
+}
@@ -1,6 +1,7 @@
 package frc.robot.util;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.function.Supplier;
 import java.util.ArrayList;
@@ -11,16 +12,33 @@ import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.subsystems.DriveTrainSubsystem;
 
+/**
+ * Makes Ramsete commands for a deployed trajectory. Constructing one doesn't load anything: {@link #preloadAll} loads every trajectory (and mirrors it,
+ * if it needs mirroring) on the startup workers as required tasks, so they're all in memory before the robot is ready. Anything not loaded by then is
+ * loaded the first time it's asked for. It's read from the {@link TrajectoryBinary} that {@code ./gradlew compileTrajectories} deploys, or from the
+ * PathWeaver JSON if there isn't one (e.g. in simulation).
+ * <p>
+ * Field paths are drawn for the blue alliance only. {@link #getForAlliance} mirrors them with {@link TrajectoryMirror} for red, and the mirrored
+ * trajectory is kept after the first time, like the original. Paths that don't depend on the alliance (e.g. a test drive relative to wherever the robot
+ * starts) are made with {@code mirrorForRed} off and never mirrored.
+ */
 public class CommandGenerator {
+    private static final AsyncLogger.Site JSON_FALLBACK_LOG = AsyncLogger.site(AsyncLogger.Level.INFO, 0);
 
     private static String trajectoryFolder = "paths/";
     private static String trajectoryExtension = ".wpilib.json";
 
     private static ArrayList<CommandGenerator> allCommandGenerators = new ArrayList<CommandGenerator>();
 
+    private String name;
     private Path path;
+    private Path binaryPath;
     private Trajectory trajectory; 
+    private Trajectory mirroredTrajectory;
+    private final boolean mirrorForRed;
+    private boolean loaded;
     private Supplier<Command> commandGenerator;
+    private Supplier<Command> mirroredCommandGenerator;
 
     public static void initializeAll(DriveTrainSubsystem driveTrain)
     {
@@ -29,27 +47,97 @@ public class CommandGenerator {
         }
     }
 
+    /**
+     * Loads every trajectory, and mirrors the ones drawn for blue, on the startup workers, one required task each, so building the autos doesn't have
+     * to wait on them.
+     */
+    public static void preloadAll(StartupPipeline pipeline)
+    {
+        for (CommandGenerator commandGenerator : allCommandGenerators) {
+            pipeline.submit("trajectory " + commandGenerator.name, true, commandGenerator::getMirroredTrajectory); // loads the original too
+        }
+    }
+
+    /**
+     * A path drawn for the blue alliance, mirrored for red
+     */
     public CommandGenerator(String name) 
     {
-        String path = trajectoryFolder + name + trajectoryExtension; // e.g. "paths/" + "driveForwardOverChargeStationBlue" + .wpilib.json"
-        this.path = Filesystem.getDeployDirectory().toPath().resolve(path);
+        this(name, true);
+    }
 
-        try {
-            this.trajectory = TrajectoryUtil.fromPathweaverJson(this.path);
-        } catch (IOException ex) {
-            DriverStation.reportError("Unable to open trajectory: " + path, ex.getStackTrace());
-        }
+    /**
+     * @param mirrorForRed False for paths that are the same on either alliance
+     */
+    public CommandGenerator(String name, boolean mirrorForRed)
+    {
+        this.name = name;
+        this.mirrorForRed = mirrorForRed;
+        Path folder = Filesystem.getDeployDirectory().toPath().resolve(trajectoryFolder);
+        this.path = folder.resolve(name + trajectoryExtension); // e.g. "paths/" + "driveForwardOverChargeStationBlue" + .wpilib.json"
+        this.binaryPath = folder.resolve(name + TrajectoryBinary.EXTENSION);
 
         allCommandGenerators.add(this);
     }
 
     public void initialize(DriveTrainSubsystem driveTrain)
     {
-        this.commandGenerator = () -> driveTrain.generateRamseteCommand(this.trajectory);
+        this.commandGenerator = () -> driveTrain.generateRamseteCommand(this.getTrajectory());
+        this.mirroredCommandGenerator = () -> driveTrain.generateRamseteCommand(this.getMirroredTrajectory());
+    }
+
+    /**
+     * @return The trajectory, loaded the first time this is called. Null if it couldn't be loaded.
+     */
+    public synchronized Trajectory getTrajectory()
+    {
+        if (!this.loaded) {
+            this.trajectory = this.load();
+            this.loaded = true;
+        }
+        return this.trajectory;
+    }
+
+    /**
+     * @return The trajectory mirrored to the red side of the field, made the first time this is called. The trajectory itself if it isn't mirrored for
+     * red. Null if the trajectory couldn't be loaded.
+     */
+    public synchronized Trajectory getMirroredTrajectory()
+    {
+        if (!this.mirrorForRed) {
+            return this.getTrajectory();
+        }
+        if (this.mirroredTrajectory == null && this.getTrajectory() != null) {
+            this.mirroredTrajectory = TrajectoryMirror.mirror(this.trajectory);
+        }
+        return this.mirroredTrajectory;
+    }
+
+    private Trajectory load()
+    {
+        try {
+            if (Files.exists(this.binaryPath)) {
+                return TrajectoryBinary.read(this.binaryPath);
+            }
+            JSON_FALLBACK_LOG.log("No compiled trajectory at {}, parsing the JSON", this.binaryPath.toString());
+            return TrajectoryUtil.fromPathweaverJson(this.path);
+        } catch (IOException ex) {
+            DriverStation.reportError("Unable to open trajectory: " + this.path, ex.getStackTrace());
+            return null;
+        }
     }
 
     public Command get()
     {
         return this.commandGenerator.get();
     }
+
+    /**
+     * @param blueTeam Whether we're on the blue alliance
+     * @return A command that follows the path as drawn on blue, or mirrored on red (unless it isn't mirrored for red)
+     */
+    public Command getForAlliance(boolean blueTeam)
+    {
+        return blueTeam || !this.mirrorForRed ? this.commandGenerator.get() : this.mirroredCommandGenerator.get();
+    }
 }
@@ -19,12 +19,40 @@ public final class ForwardKinematicsUtil {
      * @return the coordinates x, y, z
      */
     public static double[] getCoordinatesFromAngles(double a1, double a2, double turretAngle) {
-        double extendedDist = ArmConstants.LIMB1_LENGTH * Math.sin(Math.toRadians(a1)) + ArmConstants.LIMB2_LENGTH * Math.sin(Math.toRadians(a2 - a1));
-        double z = Math.sin(Math.toRadians(turretAngle)) * extendedDist;
-        double y = -ArmConstants.LIMB1_LENGTH * Math.cos(Math.toRadians(a1)) + ArmConstants.LIMB2_LENGTH * Math.cos(Math.toRadians(a2 - a1)) + ArmConstants.ORIGIN_HEIGHT;
-        double x = Math.cos(Math.toRadians(turretAngle)) * extendedDist;
+        return getCoordinatesFromAngles(a1, a2, turretAngle, new ArmCartesianState()).toArray();
+    }
+
+    /**
+     * Given the angles of the limbs and the turret, find the coordinates. Writes into {@code out} instead of allocating, use this in anything that runs every loop.
+     *
+     * @param angles The joint angles in degrees
+     * @param out    Where the coordinates are written
+     * @return {@code out}
+     */
+    public static ArmCartesianState getCoordinatesFromAngles(ArmJointState angles, ArmCartesianState out) {
+        return getCoordinatesFromAngles(angles.getPivot1Angle(), angles.getPivot2Angle(), angles.getTurretAngle(), out);
+    }
+
+    /**
+     * Given the angles of the limbs and the turret, find the coordinates. Writes into {@code out} instead of allocating, use this in anything that runs every loop.
+     *
+     * @param a1          First limb's angle in degrees
+     * @param a2          Second limb's angle in degrees
+     * @param turretAngle Turret's angle in degrees
+     * @param out         Where the coordinates are written
+     * @return {@code out}
+     */
+    public static ArmCartesianState getCoordinatesFromAngles(double a1, double a2, double turretAngle, ArmCartesianState out) {
+        // Each angle is converted and put through sin/cos exactly once
+        double limb1Rad = Math.toRadians(a1);
+        double limb2Rad = Math.toRadians(a2 - a1);
+        double turretRad = Math.toRadians(turretAngle);
+
+        double extendedDist = ArmConstants.LIMB1_LENGTH * Math.sin(limb1Rad) + ArmConstants.LIMB2_LENGTH * Math.sin(limb2Rad);
+        double x = Math.cos(turretRad) * extendedDist;
+        double y = -ArmConstants.LIMB1_LENGTH * Math.cos(limb1Rad) + ArmConstants.LIMB2_LENGTH * Math.cos(limb2Rad) + ArmConstants.ORIGIN_HEIGHT;
+        double z = Math.sin(turretRad) * extendedDist;
 
-        // Solve for the distance from origin -> claw
-        return new double[]{x, y, z};
+        return out.set(x, y, z);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,304 @@
+package frc.robot.util;
+
+import frc.robot.Constants.ArmConstants;
+
+import java.util.Random;
+
+/**
+ * Inverse kinematics backed by a grid of precomputed pivot angles, one grid per flipped state. Lookups are a trilinear interpolation between the 8 grid points
+ * around the target instead of the acos/atan/sqrt calls in {@link InverseKinematicsUtil}.
+ * <p>
+ * The pivot angles only depend on |x|, y and |z| (the turret handles the direction), so the grid only covers one quadrant of the workspace. The turret angle is just an
+ * atan2 and wraps around at 180 degrees, which doesn't interpolate well, so it is still calculated directly.
+ * <p>
+ * Every grid cell is marked when the table is built:
+ * <ul>
+ *     <li>interpolated: the whole cell can be reached, and interpolating the middle of the cell lands close to the real answer</li>
+ *     <li>unreachable: no point in the cell can be reached, so lookups there give NaN angles straight away</li>
+ *     <li>analytic: anything else (the edges of the reachable area, the angle clamps, straight up/down), which falls back to {@link InverseKinematicsUtil}</li>
+ * </ul>
+ */
+public final class InverseKinematicsTable {
+    private static final byte CELL_INTERPOLATED = 0;
+    private static final byte CELL_UNREACHABLE = 1;
+    private static final byte CELL_ANALYTIC = 2;
+
+    private static final AsyncLogger.Site VERIFY_GRID_LOG = AsyncLogger.site(AsyncLogger.Level.INFO, 0);
+    private static final AsyncLogger.Site VERIFY_ERROR_LOG = AsyncLogger.site(AsyncLogger.Level.INFO, 0);
+
+    /**
+     * Cells where a pivot angle changes by more than this across the cell are solved analytically, since interpolating them would be too far off
+     */
+    private static final double MAX_CELL_SPREAD_DEG = 10;
+    /**
+     * Cells where interpolating the middle of the cell is further off than this are solved analytically
+     */
+    private static final double MAX_CELL_CENTER_ERROR_DEG = 0.1;
+
+    private static final double MAX_REACH = ArmConstants.LIMB1_LENGTH + ArmConstants.LIMB2_LENGTH;
+    private static final double MIN_REACH = Math.abs(ArmConstants.LIMB1_LENGTH - ArmConstants.LIMB2_LENGTH); // the limbs can't fold up any closer than this
+    private static final double MIN_Y = ArmConstants.ORIGIN_HEIGHT - MAX_REACH;
+    private static final double MAX_Y = ArmConstants.MAX_HEIGHT; // y gets capped at MAX_HEIGHT before solving, so nothing above it is needed
+
+    private final double resolution;
+    private final double inverseResolution;
+    private final int xCount, yCount, zCount; // grid points along each axis
+
+    private final Grid unflippedGrid;
+    private final Grid flippedGrid;
+
+    // Scratch used while building and verifying (not during lookups, those only use the caller's state)
+    private final ArmJointState buildScratch = new ArmJointState();
+
+    private static final class Grid {
+        final float[] pivot1Angles;
+        final float[] pivot2Angles;
+        final byte[] cellTypes;
+
+        Grid(int pointCount, int cellCount) {
+            this.pivot1Angles = new float[pointCount];
+            this.pivot2Angles = new float[pointCount];
+            this.cellTypes = new byte[cellCount];
+        }
+    }
+
+    private InverseKinematicsTable(double resolution) {
+        this.resolution = resolution;
+        this.inverseResolution = 1 / resolution;
+        this.xCount = (int) Math.ceil(MAX_REACH / resolution) + 1;
+        this.yCount = (int) Math.ceil((MAX_Y - MIN_Y) / resolution) + 1;
+        this.zCount = this.xCount;
+
+        int pointCount = this.xCount * this.yCount * this.zCount;
+        int cellCount = (this.xCount - 1) * (this.yCount - 1) * (this.zCount - 1);
+        this.unflippedGrid = new Grid(pointCount, cellCount);
+        this.flippedGrid = new Grid(pointCount, cellCount);
+    }
+
+    /**
+     * Builds the table. This solves the inverse kinematics for every grid point, so call it once at startup and keep the result.
+     *
+     * @param resolution The distance between grid points in inches
+     * @return The table
+     */
+    public static InverseKinematicsTable build(double resolution) {
+        InverseKinematicsTable table = new InverseKinematicsTable(resolution);
+        table.fill(table.unflippedGrid, false);
+        table.fill(table.flippedGrid, true);
+        return table;
+    }
+
+    private int pointIndex(int xi, int yi, int zi) {
+        return (xi * this.yCount + yi) * this.zCount + zi;
+    }
+
+    private int cellIndex(int xi, int yi, int zi) {
+        return (xi * (this.yCount - 1) + yi) * (this.zCount - 1) + zi;
+    }
+
+    private void fill(Grid grid, boolean flipped) {
+        for (int xi = 0; xi < this.xCount; xi++) {
+            for (int yi = 0; yi < this.yCount; yi++) {
+                for (int zi = 0; zi < this.zCount; zi++) {
+                    InverseKinematicsUtil.getAnglesFromCoordinates(xi * this.resolution, MIN_Y + yi * this.resolution, zi * this.resolution, flipped, this.buildScratch);
+                    int index = pointIndex(xi, yi, zi);
+                    grid.pivot1Angles[index] = (float) this.buildScratch.getPivot1Angle();
+                    grid.pivot2Angles[index] = (float) this.buildScratch.getPivot2Angle();
+                }
+            }
+        }
+
+        for (int xi = 0; xi < this.xCount - 1; xi++) {
+            for (int yi = 0; yi < this.yCount - 1; yi++) {
+                for (int zi = 0; zi < this.zCount - 1; zi++) {
+                    grid.cellTypes[cellIndex(xi, yi, zi)] = classifyCell(grid, xi, yi, zi);
+                }
+            }
+        }
+    }
+
+    private byte classifyCell(Grid grid, int xi, int yi, int zi) {
+        // Distance from the first pivot, so the y range is shifted by the origin height
+        double x0 = xi * this.resolution, x1 = x0 + this.resolution;
+        double y0 = MIN_Y + yi * this.resolution - ArmConstants.ORIGIN_HEIGHT, y1 = y0 + this.resolution;
+        double z0 = zi * this.resolution, z1 = z0 + this.resolution;
+
+        double nearestY = y0 > 0 ? y0 : (y1 < 0 ? y1 : 0); // x and z are never negative, so their nearest side is always the low one
+        double minDist = Math.sqrt(x0 * x0 + nearestY * nearestY + z0 * z0);
+        double farthestY = Math.max(Math.abs(y0), Math.abs(y1));
+        double maxDist = Math.sqrt(x1 * x1 + farthestY * farthestY + z1 * z1);
+        if (minDist > MAX_REACH || maxDist < MIN_REACH) {
+            return CELL_UNREACHABLE;
+        }
+        if (maxDist > MAX_REACH || minDist < MIN_REACH) {
+            return CELL_ANALYTIC;
+        }
+
+        double min1 = Double.POSITIVE_INFINITY, max1 = Double.NEGATIVE_INFINITY;
+        double min2 = Double.POSITIVE_INFINITY, max2 = Double.NEGATIVE_INFINITY;
+        for (int corner = 0; corner < 8; corner++) {
+            int index = pointIndex(xi + (corner & 1), yi + ((corner >> 1) & 1), zi + ((corner >> 2) & 1));
+            float angle1 = grid.pivot1Angles[index];
+            float angle2 = grid.pivot2Angles[index];
+            if (Float.isNaN(angle1) || Float.isNaN(angle2)) {
+                return CELL_ANALYTIC;
+            }
+            min1 = Math.min(min1, angle1);
+            max1 = Math.max(max1, angle1);
+            min2 = Math.min(min2, angle2);
+            max2 = Math.max(max2, angle2);
+        }
+        if (max1 - min1 > MAX_CELL_SPREAD_DEG || max2 - min2 > MAX_CELL_SPREAD_DEG) {
+            return CELL_ANALYTIC;
+        }
+
+        InverseKinematicsUtil.getAnglesFromCoordinates((x0 + x1) / 2, MIN_Y + (yi + 0.5) * this.resolution, (z0 + z1) / 2, grid == this.flippedGrid, this.buildScratch);
+        if (Math.abs(interpolate(grid.pivot1Angles, xi, yi, zi, 0.5, 0.5, 0.5) - this.buildScratch.getPivot1Angle()) > MAX_CELL_CENTER_ERROR_DEG
+                || Math.abs(interpolate(grid.pivot2Angles, xi, yi, zi, 0.5, 0.5, 0.5) - this.buildScratch.getPivot2Angle()) > MAX_CELL_CENTER_ERROR_DEG) {
+            return CELL_ANALYTIC;
+        }
+        return CELL_INTERPOLATED;
+    }
+
+    /**
+     * Same as {@link InverseKinematicsUtil#getAnglesFromCoordinates(double, double, double, boolean, ArmJointState)}, but looked up in the table.
+     *
+     * @param x       X coordinate
+     * @param y       Y coordinate
+     * @param z       Z coordinate
+     * @param flipped Whether the arm should attempt to approach from above rather than from the side (true for above, false for side)
+     * @param out     Where the angles are written. If the coordinates can't be reached every angle is NaN.
+     * @return {@code out}
+     */
+    public ArmJointState getAnglesFromCoordinates(double x, double y, double z, boolean flipped, ArmJointState out) {
+        double cappedY = Math.min(y, ArmConstants.MAX_HEIGHT);
+
+        double gx = Math.abs(x) * this.inverseResolution;
+        double gy = (cappedY - MIN_Y) * this.inverseResolution;
+        double gz = Math.abs(z) * this.inverseResolution;
+        int xi = (int) gx, yi = (int) gy, zi = (int) gz;
+        if (gy < 0 || xi >= this.xCount - 1 || yi >= this.yCount - 1 || zi >= this.zCount - 1) { // off the grid
+            return InverseKinematicsUtil.getAnglesFromCoordinates(x, y, z, flipped, out);
+        }
+
+        Grid grid = flipped ? this.flippedGrid : this.unflippedGrid;
+        byte cellType = grid.cellTypes[cellIndex(xi, yi, zi)];
+        if (cellType == CELL_UNREACHABLE) {
+            return out.setInvalid();
+        } else if (cellType == CELL_ANALYTIC) {
+            return InverseKinematicsUtil.getAnglesFromCoordinates(x, y, z, flipped, out);
+        }
+
+        double tx = gx - xi, ty = gy - yi, tz = gz - zi;
+        double pivot1Angle = interpolate(grid.pivot1Angles, xi, yi, zi, tx, ty, tz);
+        double pivot2Angle = interpolate(grid.pivot2Angles, xi, yi, zi, tx, ty, tz);
+
+        // Same as the turret part of InverseKinematicsUtil
+        double angleCalc = Math.toDegrees(Math.atan2(z, x));
+        double turretAngle = angleCalc < 0 ? 360 + angleCalc : angleCalc;
+        if (turretAngle > 180) {
+            turretAngle -= 360;
+        }
+
+        return out.set(pivot1Angle, pivot2Angle, turretAngle);
+    }
+
+    private double interpolate(float[] values, int xi, int yi, int zi, double tx, double ty, double tz) {
+        int i000 = pointIndex(xi, yi, zi);
+        int i001 = i000 + 1;
+        int i010 = i000 + this.zCount;
+        int i011 = i010 + 1;
+        int i100 = i000 + this.yCount * this.zCount;
+        int i101 = i100 + 1;
+        int i110 = i100 + this.zCount;
+        int i111 = i110 + 1;
+
+        double c00 = values[i000] + (values[i001] - values[i000]) * tz;
+        double c01 = values[i010] + (values[i011] - values[i010]) * tz;
+        double c10 = values[i100] + (values[i101] - values[i100]) * tz;
+        double c11 = values[i110] + (values[i111] - values[i110]) * tz;
+        double c0 = c00 + (c01 - c00) * ty;
+        double c1 = c10 + (c11 - c10) * ty;
+        return c0 + (c1 - c0) * tx;
+    }
+
+    /**
+     * Whether the arm can reach the coordinates at all (not too far away, and not so close that the limbs would have to fold past each other).
+     * Only does real math at the edges of the reachable area.
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param z Z coordinate
+     * @return True if the coordinates can be reached
+     */
+    public boolean isReachable(double x, double y, double z) {
+        double cappedY = Math.min(y, ArmConstants.MAX_HEIGHT);
+        double gy = (cappedY - MIN_Y) * this.inverseResolution;
+        int xi = (int) (Math.abs(x) * this.inverseResolution), yi = (int) gy, zi = (int) (Math.abs(z) * this.inverseResolution);
+        if (gy >= 0 && xi < this.xCount - 1 && yi < this.yCount - 1 && zi < this.zCount - 1) {
+            byte cellType = this.unflippedGrid.cellTypes[cellIndex(xi, yi, zi)]; // reachability doesn't depend on flipping
+            if (cellType == CELL_INTERPOLATED) {
+                return true;
+            } else if (cellType == CELL_UNREACHABLE) {
+                return false;
+            }
+        }
+        double adjustedY = cappedY - ArmConstants.ORIGIN_HEIGHT;
+        double distSquared = x * x + adjustedY * adjustedY + z * z;
+        return distSquared <= MAX_REACH * MAX_REACH && distSquared >= MIN_REACH * MIN_REACH;
+    }
+
+    /**
+     * Compares random lookups against the analytic solver.
+     *
+     * @param sampleCount How many random coordinates to try for each flipped state
+     * @return The largest difference in any joint angle, in degrees
+     */
+    public double verify(int sampleCount) {
+        Random random = new Random(2023);
+        ArmJointState tableAngles = new ArmJointState();
+        double maxError = 0;
+        int reachabilityMismatches = 0;
+        for (int i = 0; i < sampleCount * 2; i++) {
+            boolean flipped = i >= sampleCount;
+            double x = (random.nextDouble() * 2 - 1) * MAX_REACH;
+            double y = MIN_Y + random.nextDouble() * (MAX_Y - MIN_Y);
+            double z = (random.nextDouble() * 2 - 1) * MAX_REACH;
+
+            getAnglesFromCoordinates(x, y, z, flipped, tableAngles);
+            InverseKinematicsUtil.getAnglesFromCoordinates(x, y, z, flipped, this.buildScratch);
+            if (tableAngles.isValid() != this.buildScratch.isValid() || isReachable(x, y, z) != this.buildScratch.isValid()) {
+                reachabilityMismatches++;
+                continue;
+            }
+            if (!tableAngles.isValid()) {
+                continue;
+            }
+            maxError = Math.max(maxError, Math.abs(tableAngles.getPivot1Angle() - this.buildScratch.getPivot1Angle()));
+            maxError = Math.max(maxError, Math.abs(tableAngles.getPivot2Angle() - this.buildScratch.getPivot2Angle()));
+            maxError = Math.max(maxError, Math.abs(tableAngles.getTurretAngle() - this.buildScratch.getTurretAngle()));
+        }
+        VERIFY_GRID_LOG.log("IK table: {} in grid, {}% interpolated", this.resolution, getInterpolatedCellFraction() * 100);
+        VERIFY_ERROR_LOG.log("IK table: max error {} degrees over {} samples, {} reachability mismatches", maxError, sampleCount * 2, reachabilityMismatches);
+        return maxError;
+    }
+
+    /**
+     * @return The fraction of reachable cells (over both flipped states) that are interpolated rather than solved analytically
+     */
+    public double getInterpolatedCellFraction() {
+        return (double) (countCells(this.unflippedGrid, CELL_INTERPOLATED) + countCells(this.flippedGrid, CELL_INTERPOLATED))
+                / (this.unflippedGrid.cellTypes.length + this.flippedGrid.cellTypes.length
+                - countCells(this.unflippedGrid, CELL_UNREACHABLE) - countCells(this.flippedGrid, CELL_UNREACHABLE));
+    }
+
+    private static int countCells(Grid grid, byte cellType) {
+        int count = 0;
+        for (byte type : grid.cellTypes) {
+            if (type == cellType) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -9,6 +9,10 @@ public final class InverseKinematicsUtil {
         throw new UnsupportedOperationException("InverseKinematicsUtil is a utility class and cannot be instantiated");
     }
 
+    private static final double LIMB1_LENGTH_SQUARED = ArmConstants.LIMB1_LENGTH * ArmConstants.LIMB1_LENGTH;
+    private static final double LIMB2_LENGTH_SQUARED = ArmConstants.LIMB2_LENGTH * ArmConstants.LIMB2_LENGTH;
+    private static final double MAX_REACH = ArmConstants.LIMB1_LENGTH + ArmConstants.LIMB2_LENGTH;
+
     /**
      * calculate arm angles relative to limb that it's attached to
      *
@@ -19,6 +23,20 @@ public final class InverseKinematicsUtil {
      * @return The angles: [angle_limb_1, angle_limb_2, turret_angle]
      */
     public static double[] getAnglesFromCoordinates(double x, double y, double z, boolean flipped) {
+        return getAnglesFromCoordinates(x, y, z, flipped, new ArmJointState()).toArray();
+    }
+
+    /**
+     * calculate arm angles relative to limb that it's attached to. Writes into {@code out} instead of allocating, use this in anything that runs every loop.
+     *
+     * @param x       X coordinate
+     * @param y       Y coordinate
+     * @param z       Z coordinate
+     * @param flipped Whether the arm should attempt to approach from above rather than from the side (true for above, false for side)
+     * @param out     Where the angles are written. If the coordinates can't be reached every angle is NaN (see {@link ArmJointState#isValid()}).
+     * @return {@code out}
+     */
+    public static ArmJointState getAnglesFromCoordinates(double x, double y, double z, boolean flipped, ArmJointState out) {
         
         double pivot1Angle, pivot2Angle, turretAngle;
         
@@ -32,14 +50,17 @@ public final class InverseKinematicsUtil {
         turretAngle = angleCalc < 0 ? 360 + angleCalc : angleCalc;
         
         // distance reach boundar
-        double dist3d = MathUtil.distance(0, adjusted_x, 0, adjusted_y, 0, z); // calc distance in 3d from top pivot point
-        if(dist3d > ArmConstants.LIMB1_LENGTH + ArmConstants.LIMB2_LENGTH) { // If distance reach is impossible then just return saved angles
-            return new double[]{Double.NaN, Double.NaN, Double.NaN};
+        double horizontalDistSquared = adjusted_x * adjusted_x + z * z;
+        double dist3dSquared = horizontalDistSquared + adjusted_y * adjusted_y;
+        double dist3d = Math.sqrt(dist3dSquared); // calc distance in 3d from top pivot point
+        if(dist3d > MAX_REACH) { // If distance reach is impossible then just return saved angles
+            return out.setInvalid();
         }
 
-        //inverse kinematics but it looks "simple"
-        pivot2Angle = MathUtil.lawOfCosinesForAngle(ArmConstants.LIMB1_LENGTH, ArmConstants.LIMB2_LENGTH, dist3d); // pivot2Angle is angle between 1st arm segment to 2nd arm segment
-        pivot1Angle = (90 + Math.toDegrees(Math.atan(adjusted_y/MathUtil.distance(adjusted_x, 0, z, 0)))) - MathUtil.lawOfCosinesForAngle(dist3d, ArmConstants.LIMB1_LENGTH, ArmConstants.LIMB2_LENGTH);   // pivot1Angle is angle between verticle to 1st arm segment
+        //inverse kinematics but it looks "simple" (same as MathUtil.lawOfCosinesForAngle, with the squares computed once)
+        pivot2Angle = Math.toDegrees(Math.acos((LIMB1_LENGTH_SQUARED + LIMB2_LENGTH_SQUARED - dist3dSquared) / (2 * ArmConstants.LIMB1_LENGTH * ArmConstants.LIMB2_LENGTH))); // pivot2Angle is angle between 1st arm segment to 2nd arm segment
+        double limb1ToTargetAngle = Math.toDegrees(Math.acos((dist3dSquared + LIMB1_LENGTH_SQUARED - LIMB2_LENGTH_SQUARED) / (2 * dist3d * ArmConstants.LIMB1_LENGTH)));
+        pivot1Angle = (90 + Math.toDegrees(Math.atan(adjusted_y / Math.sqrt(horizontalDistSquared)))) - limb1ToTargetAngle;   // pivot1Angle is angle between verticle to 1st arm segment
        
         // If flipped is true, return angles that are "flipped" 
         if(flipped){
@@ -69,6 +90,6 @@ public final class InverseKinematicsUtil {
             turretAngle += 360;
         }
 
-        return new double[] {pivot1Angle, pivot2Angle, turretAngle};
+        return out.set(pivot1Angle, pivot2Angle, turretAngle);
     }
 }
\ No newline at end of file
@@ -0,0 +1,270 @@
+package frc.robot.util;
+
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Times every subsystem periodic and every scheduled command inside {@link CommandScheduler#run()} so we can find out what is blowing the 20ms loop.
+ * <p>
+ * Each timed {@link Section} keeps a rolling window of its last {@link #SAMPLE_WINDOW} samples in a preallocated array, so recording a sample never allocates.
+ * Once a second the min/p50/p99/max of every section are published to the "profiler" table as {@code [min, p50, p99, max, overrunsBlamed]} (all times in ms).
+ * <p>
+ * Subsystems time themselves with a {@link Section} around their {@code periodic()} body. Commands are timed through the scheduler's
+ * initialize/execute/finish/interrupt hooks. Those hooks fire <i>after</i> the command method has run, so a command's time is measured from the previous profiler mark
+ * (the end of the previous section or hook), which also includes any scheduler bookkeeping in between.
+ */
+public final class LoopProfiler {
+    private LoopProfiler() {
+        throw new UnsupportedOperationException("LoopProfiler is a utility class and cannot be instantiated!");
+    }
+
+    /**
+     * How many samples each section remembers. At 50Hz this is about 5 seconds of history.
+     */
+    public static final int SAMPLE_WINDOW = 256;
+    private static final double PUBLISH_PERIOD_SECONDS = 1.0;
+    private static final double NANOS_PER_MS = 1e6;
+
+    private static final NetworkTable TABLE = NetworkTablesUtil.getTable("profiler");
+
+    private static final ArrayList<Section> sections = new ArrayList<>();
+    private static final Map<Class<?>, Section> commandInitSections = new HashMap<>();
+    private static final Map<Class<?>, Section> commandExecuteSections = new HashMap<>();
+    private static final Map<Class<?>, Section> commandEndSections = new HashMap<>();
+
+    // Scratch space used when computing percentiles, shared by every section since publishing happens on the main thread.
+    private static final long[] sortScratch = new long[SAMPLE_WINDOW];
+    private static final double[] publishScratch = new double[5];
+
+    private static final Section loopSection = section("robotPeriodic()");
+
+    private static long loopPeriodNanos = 20_000_000L;
+    private static boolean installed = false;
+    private static boolean inLoop = false;
+    private static long loopStartNanos;
+    private static long lastMarkNanos;
+    private static long lastPublishNanos;
+
+    // The slowest section of the loop currently running, used to name the culprit when a loop overruns
+    private static Section slowestThisLoop;
+    private static long slowestThisLoopNanos;
+
+    private static long overrunCount = 0;
+    private static Section lastOverrunCulprit;
+    private static long lastOverrunLoopNanos;
+    private static long lastOverrunCulpritNanos;
+    private static boolean overrunChanged = false;
+
+    private static IntegerPublisher overrunCountPublisher;
+    private static StringPublisher lastOverrunPublisher;
+
+    /**
+     * A single timed piece of code. Get one from {@link #section(String)} once (e.g. as a final field) and call {@link #start()}/{@link #stop()} around the code.
+     */
+    public static final class Section {
+        private final String name;
+        private final boolean background;
+        // Atomic because a background section is written on its own thread and published from the main thread, and a plain long can be read half
+        // written on the 32-bit roboRIO
+        private final AtomicLongArray samples = new AtomicLongArray(SAMPLE_WINDOW);
+        private volatile int sampleCount = 0;
+        private int nextIndex = 0; // only touched by the thread that records
+        private long startNanos;
+        private long overrunsBlamed = 0;
+        private DoubleArrayPublisher publisher;
+
+        private Section(String name, boolean background) {
+            this.name = name;
+            this.background = background;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public void start() {
+            this.startNanos = System.nanoTime();
+        }
+
+        public void stop() {
+            long now = System.nanoTime();
+            record(now - this.startNanos);
+            if (!this.background) {
+                lastMarkNanos = now;
+            }
+        }
+
+        private void record(long nanos) {
+            this.samples.set(this.nextIndex, nanos);
+            this.nextIndex = (this.nextIndex + 1) % SAMPLE_WINDOW;
+            if (this.sampleCount < SAMPLE_WINDOW) {
+                this.sampleCount++;
+            }
+
+            if (!this.background && inLoop && this != loopSection && nanos > slowestThisLoopNanos) {
+                slowestThisLoop = this;
+                slowestThisLoopNanos = nanos;
+            }
+        }
+
+        private void publish() {
+            if (this.sampleCount == 0) {
+                return;
+            }
+            int n = this.sampleCount;
+            for (int i = 0; i < n; i++) {
+                sortScratch[i] = this.samples.get(i);
+            }
+            Arrays.sort(sortScratch, 0, n);
+
+            publishScratch[0] = sortScratch[0] / NANOS_PER_MS;
+            publishScratch[1] = sortScratch[(n - 1) / 2] / NANOS_PER_MS;
+            publishScratch[2] = sortScratch[(n - 1) * 99 / 100] / NANOS_PER_MS;
+            publishScratch[3] = sortScratch[n - 1] / NANOS_PER_MS;
+            publishScratch[4] = this.overrunsBlamed;
+
+            if (this.publisher == null) {
+                this.publisher = TABLE.getDoubleArrayTopic(this.name).publish();
+            }
+            this.publisher.set(publishScratch);
+        }
+    }
+
+    /**
+     * Gets (or creates) the section with the given name. Call this once and keep the reference, don't call it every loop.
+     *
+     * @param name The name the section is published under
+     * @return The section
+     */
+    public static Section section(String name) {
+        return getOrCreateSection(name, false);
+    }
+
+    /**
+     * Gets (or creates) a section for code that runs on its own thread instead of inside the robot loop (e.g. a {@link edu.wpi.first.wpilibj.Notifier}).
+     * Its times are published like any other section, but it never marks the loop or gets blamed for an overrun.
+     * Create it on the main thread (e.g. as a final field) and only time it from that one other thread.
+     *
+     * @param name The name the section is published under
+     * @return The section
+     */
+    public static Section backgroundSection(String name) {
+        return getOrCreateSection(name, true);
+    }
+
+    private static Section getOrCreateSection(String name, boolean background) {
+        for (Section section : sections) {
+            if (section.name.equals(name)) {
+                return section;
+            }
+        }
+        Section section = new Section(name, background);
+        sections.add(section);
+        return section;
+    }
+
+    /**
+     * Registers the command scheduler hooks. Call once from robotInit.
+     *
+     * @param loopPeriodSeconds The robot loop period, used to decide when a loop overran
+     */
+    public static void install(double loopPeriodSeconds) {
+        if (installed) {
+            return;
+        }
+        installed = true;
+        loopPeriodNanos = (long) (loopPeriodSeconds * 1e9);
+        overrunCountPublisher = TABLE.getIntegerTopic("overruns").publish();
+        lastOverrunPublisher = TABLE.getStringTopic("lastOverrun").publish();
+
+        CommandScheduler scheduler = CommandScheduler.getInstance();
+        scheduler.onCommandInitialize(command -> markCommand(commandInitSections, command, ".initialize()"));
+        scheduler.onCommandExecute(command -> markCommand(commandExecuteSections, command, ".execute()"));
+        scheduler.onCommandFinish(command -> markCommand(commandEndSections, command, ".end()"));
+        scheduler.onCommandInterrupt(command -> markCommand(commandEndSections, command, ".end()"));
+    }
+
+    /**
+     * Call right before {@link CommandScheduler#run()}.
+     */
+    public static void beginLoop() {
+        long now = System.nanoTime();
+        inLoop = true;
+        loopStartNanos = now;
+        lastMarkNanos = now;
+        slowestThisLoop = null;
+        slowestThisLoopNanos = 0;
+    }
+
+    /**
+     * Call right after {@link CommandScheduler#run()}. Records the loop time, checks for an overrun, and publishes once a second.
+     */
+    public static void endLoop() {
+        long now = System.nanoTime();
+        long loopNanos = now - loopStartNanos;
+        loopSection.record(loopNanos);
+        inLoop = false;
+
+        if (loopNanos > loopPeriodNanos) {
+            overrunCount++;
+            overrunChanged = true;
+            lastOverrunLoopNanos = loopNanos;
+            lastOverrunCulprit = slowestThisLoop;
+            lastOverrunCulpritNanos = slowestThisLoopNanos;
+            if (slowestThisLoop != null) {
+                slowestThisLoop.overrunsBlamed++;
+            }
+        }
+
+        if (now - lastPublishNanos >= PUBLISH_PERIOD_SECONDS * 1e9) {
+            lastPublishNanos = now;
+            publish();
+        }
+    }
+
+    /**
+     * @return How many loops have taken longer than the loop period since startup
+     */
+    public static long getOverrunCount() {
+        return overrunCount;
+    }
+
+    private static void markCommand(Map<Class<?>, Section> sectionMap, Command command, String suffix) {
+        long now = System.nanoTime();
+        if (!inLoop) { // scheduled from outside the scheduler (e.g. autonomousInit), there is no mark to measure from
+            return;
+        }
+        Section section = sectionMap.get(command.getClass());
+        if (section == null) {
+            section = section(command.getClass().getSimpleName() + suffix);
+            sectionMap.put(command.getClass(), section);
+        }
+        section.record(now - lastMarkNanos);
+        lastMarkNanos = now;
+    }
+
+    private static void publish() {
+        for (Section section : sections) {
+            section.publish();
+        }
+        if (overrunCountPublisher == null) {
+            return;
+        }
+        overrunCountPublisher.set(overrunCount);
+        if (overrunChanged) {
+            overrunChanged = false;
+            String culprit = lastOverrunCulprit == null ? "unknown" : lastOverrunCulprit.name + " took " + lastOverrunCulpritNanos / NANOS_PER_MS + " ms";
+            lastOverrunPublisher.set("Loop took " + lastOverrunLoopNanos / NANOS_PER_MS + " ms, slowest: " + culprit);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package frc.robot.util;
+
+/**
+ * Mutable version of {@link Vec3} for code that runs every loop. Every operation changes this vector in place and returns it, so calls can be chained without allocating:
+ * <pre>
+ * this.scratch.set(start).lerp(end, t).scaleAdd(offset, 2);
+ * </pre>
+ */
+public final class MutableVec3 {
+    private double x;
+    private double y;
+    private double z;
+
+    public MutableVec3() {
+    }
+
+    public MutableVec3(double x, double y, double z) {
+        set(x, y, z);
+    }
+
+    public MutableVec3 set(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    public MutableVec3 set(Vec3 other) {
+        return set(other.getX(), other.getY(), other.getZ());
+    }
+
+    public MutableVec3 set(MutableVec3 other) {
+        return set(other.x, other.y, other.z);
+    }
+
+    /**
+     * Sets this vector from spherical coordinates, see {@link Vec3#fromSpherical(double, double, double)}.
+     */
+    public MutableVec3 setSpherical(double length, double azimuthDeg, double elevationDeg) {
+        double azimuth = Math.toRadians(azimuthDeg);
+        double elevation = Math.toRadians(elevationDeg);
+        double horizontal = length * Math.cos(elevation);
+        return set(horizontal * Math.cos(azimuth), length * Math.sin(elevation), horizontal * Math.sin(azimuth));
+    }
+
+    public double getX() {
+        return this.x;
+    }
+
+    public double getY() {
+        return this.y;
+    }
+
+    public double getZ() {
+        return this.z;
+    }
+
+    public MutableVec3 add(double dx, double dy, double dz) {
+        return set(this.x + dx, this.y + dy, this.z + dz);
+    }
+
+    public MutableVec3 add(MutableVec3 other) {
+        return add(other.x, other.y, other.z);
+    }
+
+    public MutableVec3 add(Vec3 other) {
+        return add(other.getX(), other.getY(), other.getZ());
+    }
+
+    public MutableVec3 sub(MutableVec3 other) {
+        return set(this.x - other.x, this.y - other.y, this.z - other.z);
+    }
+
+    public MutableVec3 sub(Vec3 other) {
+        return set(this.x - other.getX(), this.y - other.getY(), this.z - other.getZ());
+    }
+
+    public MutableVec3 scale(double scalar) {
+        return set(this.x * scalar, this.y * scalar, this.z * scalar);
+    }
+
+    /**
+     * this += other * scale
+     */
+    public MutableVec3 scaleAdd(MutableVec3 other, double scale) {
+        return set(this.x + other.x * scale, this.y + other.y * scale, this.z + other.z * scale);
+    }
+
+    /**
+     * this += other * scale
+     */
+    public MutableVec3 scaleAdd(Vec3 other, double scale) {
+        return set(this.x + other.getX() * scale, this.y + other.getY() * scale, this.z + other.getZ() * scale);
+    }
+
+    /**
+     * Moves this vector {@code t} of the way towards {@code other} (0 doesn't move it, 1 moves it all the way)
+     */
+    public MutableVec3 lerp(MutableVec3 other, double t) {
+        return set(this.x + (other.x - this.x) * t, this.y + (other.y - this.y) * t, this.z + (other.z - this.z) * t);
+    }
+
+    /**
+     * Moves this vector {@code t} of the way towards {@code other} (0 doesn't move it, 1 moves it all the way)
+     */
+    public MutableVec3 lerp(Vec3 other, double t) {
+        return set(this.x + (other.getX() - this.x) * t, this.y + (other.getY() - this.y) * t, this.z + (other.getZ() - this.z) * t);
+    }
+
+    /**
+     * this = this x other
+     */
+    public MutableVec3 cross(MutableVec3 other) {
+        return set(this.y * other.z - this.z * other.y, this.z * other.x - this.x * other.z, this.x * other.y - this.y * other.x);
+    }
+
+    public double dot(MutableVec3 other) {
+        return this.x * other.x + this.y * other.y + this.z * other.z;
+    }
+
+    public double dot(Vec3 other) {
+        return this.x * other.getX() + this.y * other.getY() + this.z * other.getZ();
+    }
+
+    public double normSquared() {
+        return this.x * this.x + this.y * this.y + this.z * this.z;
+    }
+
+    public double norm() {
+        return Math.sqrt(normSquared());
+    }
+
+    public double distance(MutableVec3 other) {
+        double dx = this.x - other.x, dy = this.y - other.y, dz = this.z - other.z;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Scales this vector to a length of 1. Leaves it alone if it has no length.
+     */
+    public MutableVec3 normalize() {
+        double norm = norm();
+        return norm == 0 ? this : scale(1 / norm);
+    }
+
+    /**
+     * @return An immutable copy of this vector
+     */
+    public Vec3 toVec3() {
+        return new Vec3(this.x, this.y, this.z);
+    }
+
+    @Override
+    public String toString() {
+        return "MutableVec3(" + this.x + ", " + this.y + ", " + this.z + ")";
+    }
+}
@@ -0,0 +1,83 @@
+package frc.robot.util;
+
+import edu.wpi.first.networktables.BooleanSubscriber;
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.networktables.IntegerSubscriber;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringSubscriber;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Typed NetworkTables publishers and subscribers, made the first time a topic is asked for and shared after that.
+ * <p>
+ * Looking a topic up with {@code getTable(...).getEntry(...)} walks NetworkTables' maps by string and goes through the untyped entry API every time. A
+ * typed subscriber is made once and {@code get()} on it reads the latest value straight into a primitive (or a primitive array), with no boxing. Keep the
+ * handle in a field where possible; asking the registry again is a single map lookup.
+ * <p>
+ * A subscriber's default value is set when it's made, so the first caller's default is the one everyone sees. The type has to match what the publisher
+ * sends (e.g. the LimeLight publishes every number as a double), otherwise the subscriber only ever sees the default. Thread safe.
+ */
+public final class NetworkTablesRegistry {
+    private NetworkTablesRegistry() {
+        throw new UnsupportedOperationException("NetworkTablesRegistry is a utility class and cannot be instantiated!");
+    }
+
+    // Not NetworkTablesUtil.getTable: NetworkTablesUtil's own static fields come from here, so going through it could start initializing it from inside
+    // one of these maps' computeIfAbsent, which would then call back into the same map
+    private static final NetworkTableInstance INSTANCE = NetworkTableInstance.getDefault();
+
+    private static final Map<String, DoubleSubscriber> doubleSubscribers = new ConcurrentHashMap<>();
+    private static final Map<String, IntegerSubscriber> integerSubscribers = new ConcurrentHashMap<>();
+    private static final Map<String, BooleanSubscriber> booleanSubscribers = new ConcurrentHashMap<>();
+    private static final Map<String, StringSubscriber> stringSubscribers = new ConcurrentHashMap<>();
+    private static final Map<String, DoubleArraySubscriber> doubleArraySubscribers = new ConcurrentHashMap<>();
+    private static final Map<String, DoublePublisher> doublePublishers = new ConcurrentHashMap<>();
+    private static final Map<String, DoubleArrayPublisher> doubleArrayPublishers = new ConcurrentHashMap<>();
+
+    private static String path(String tableName, String entryName) {
+        return "/" + tableName + "/" + entryName;
+    }
+
+    public static DoubleSubscriber getDoubleSubscriber(String tableName, String entryName, double defaultValue) {
+        return doubleSubscribers.computeIfAbsent(path(tableName, entryName),
+                path -> INSTANCE.getTable(tableName).getDoubleTopic(entryName).subscribe(defaultValue));
+    }
+
+    public static IntegerSubscriber getIntegerSubscriber(String tableName, String entryName, long defaultValue) {
+        return integerSubscribers.computeIfAbsent(path(tableName, entryName),
+                path -> INSTANCE.getTable(tableName).getIntegerTopic(entryName).subscribe(defaultValue));
+    }
+
+    public static BooleanSubscriber getBooleanSubscriber(String tableName, String entryName, boolean defaultValue) {
+        return booleanSubscribers.computeIfAbsent(path(tableName, entryName),
+                path -> INSTANCE.getTable(tableName).getBooleanTopic(entryName).subscribe(defaultValue));
+    }
+
+    public static StringSubscriber getStringSubscriber(String tableName, String entryName, String defaultValue) {
+        return stringSubscribers.computeIfAbsent(path(tableName, entryName),
+                path -> INSTANCE.getTable(tableName).getStringTopic(entryName).subscribe(defaultValue));
+    }
+
+    /**
+     * @param defaultValue Returned by {@code get()} until a value comes in. Shared, so don't modify it afterwards.
+     */
+    public static DoubleArraySubscriber getDoubleArraySubscriber(String tableName, String entryName, double[] defaultValue) {
+        return doubleArraySubscribers.computeIfAbsent(path(tableName, entryName),
+                path -> INSTANCE.getTable(tableName).getDoubleArrayTopic(entryName).subscribe(defaultValue));
+    }
+
+    public static DoublePublisher getDoublePublisher(String tableName, String entryName) {
+        return doublePublishers.computeIfAbsent(path(tableName, entryName),
+                path -> INSTANCE.getTable(tableName).getDoubleTopic(entryName).publish());
+    }
+
+    public static DoubleArrayPublisher getDoubleArrayPublisher(String tableName, String entryName) {
+        return doubleArrayPublishers.computeIfAbsent(path(tableName, entryName),
+                path -> INSTANCE.getTable(tableName).getDoubleArrayTopic(entryName).publish());
+    }
+}
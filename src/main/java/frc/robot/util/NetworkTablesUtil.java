@@ -5,13 +5,14 @@ import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.networktables.*;
 import frc.robot.subsystems.staticsubsystems.RobotGyro;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class NetworkTablesUtil {
     private static final NetworkTableInstance INSTANCE = NetworkTableInstance.getDefault();
-    private static final Map<String, GenericPublisher> publishers = new HashMap<>();
-    private static final Map<String, GenericSubscriber> subscribers = new HashMap<>();
+    private static final Map<String, GenericPublisher> publishers = new ConcurrentHashMap<>();
+    private static final Map<String, GenericSubscriber> subscribers = new ConcurrentHashMap<>();
+    private static final AsyncLogger.Site CONNECTIONS_LOG = AsyncLogger.site(AsyncLogger.Level.INFO, 5.0);
 
     /**
      * Gets the NetworkTables Instance being used by the program
@@ -31,56 +32,77 @@ public class NetworkTablesUtil {
     public static NetworkTable getTable(String tableName) {
         return INSTANCE.getTable(tableName);
     }
+
+    // Handles for the values read every loop, made once (see NetworkTablesRegistry) instead of looked up by name on every call
+    private static final double[] NO_LIMELIGHT_DATA = new double[0];
+    private static final double[] NO_JETSON_POSE = new double[]{0.0, 0.0, 0.0};
+    private static final DoublePublisher limeLightPipelinePub = NetworkTablesRegistry.getDoublePublisher("limelight", "pipeline");
+    private static final DoubleSubscriber limeLightPipelineSub = NetworkTablesRegistry.getDoubleSubscriber("limelight", "getpipe", 1);
+    private static final DoubleArraySubscriber limeLightPythonSub = NetworkTablesRegistry.getDoubleArraySubscriber("limelight", "llpython", NO_LIMELIGHT_DATA);
+    private static final DoubleSubscriber limeLightTxSub = NetworkTablesRegistry.getDoubleSubscriber("limelight", "tx", 0.0);
+    private static final DoubleSubscriber limeLightTySub = NetworkTablesRegistry.getDoubleSubscriber("limelight", "ty", 0.0);
+    private static final StringSubscriber keyStringSub = NetworkTablesRegistry.getStringSubscriber("robogui", "key_string", "default");
+    private static final DoubleSubscriber keyIntegerSub = NetworkTablesRegistry.getDoubleSubscriber("robogui", "key_int", 0);
+    private static final DoubleArraySubscriber jetsonPoseSub = NetworkTablesRegistry.getDoubleArraySubscriber("jetson", "pose", NO_JETSON_POSE);
+    private static final BooleanSubscriber isRedAllianceSub = NetworkTablesRegistry.getBooleanSubscriber("FMSInfo", "IsRedAlliance", true);
+
     public static void setLimelightPipeline(int pipeline){
-        NetworkTable table = INSTANCE.getTable("limelight");
-        table.getEntry("pipeline").setNumber(pipeline);
+        limeLightPipelinePub.set(pipeline);
     }
+
     public static int getLimeLightPipeline(){
-        NetworkTable table = INSTANCE.getTable("limelight");
-        return table.getEntry("getpipe").getNumber(1).intValue();
+        return (int) limeLightPipelineSub.get();
+    }
+
+    /**
+     * @return The LimeLight python pipeline's output ([cone orientation, x, y, area]), or an empty array if it hasn't sent any. Don't modify it.
+     */
+    public static double[] getLimeLightPythonData() {
+        return limeLightPythonSub.get();
     }
 
+    // The getters below each fetch the llpython array; to read several values in one loop, use SensorSnapshot (or getLimeLightPythonData() once)
+
     public static float getLimeLightErrorX() {
-        NetworkTable table = INSTANCE.getTable("limelight");
         if (getLimeLightPipeline() == 1){
-            return table.getEntry("llpython").getNumberArray(new Number[]{0, 0, 0, 0})[1].floatValue() - 160.0f;
+            return (float) getLimeLightPythonValue(1) - 160.0f;
         }
         else{
-            return table.getEntry("tx").getNumber(0.0).floatValue()*5.369f;
+            return (float) limeLightTxSub.get() * 5.369f;
         }
         
     }
 
     public static float getLimeLightErrorY() {
-        NetworkTable table = INSTANCE.getTable("limelight");
         if (getLimeLightPipeline() == 1){
-            return table.getEntry("llpython").getNumberArray(new Number[]{0, 0, 0, 0})[2].floatValue() - 120.0f;
+            return (float) getLimeLightPythonValue(2) - 120.0f;
         }
         else{
-            return table.getEntry("ty").getNumber(0.0).floatValue()*5.2516f;
+            return (float) limeLightTySub.get() * 5.2516f;
         }
     }
 
     public static float getLimeLightArea() {
-        NetworkTable table = INSTANCE.getTable("limelight");
-        return table.getEntry("llpython").getNumberArray(new Number[]{0, 0, 0, 0})[3].floatValue();
+        return (float) getLimeLightPythonValue(3);
     }
 
     public static float getConeOrientation() {
-        NetworkTable table = INSTANCE.getTable("limelight");
-        return table.getEntry("llpython").getNumberArray(new Number[]{0, 0, 0, 0})[0].floatValue();
+        return (float) getLimeLightPythonValue(0);
+    }
+
+    private static double getLimeLightPythonValue(int index) {
+        double[] python = limeLightPythonSub.get();
+        return python.length >= 4 ? python[index] : 0;
     }
 
     // Gets key from keyboard
     public static String getKeyString() {
-        NetworkTable table = INSTANCE.getTable("robogui");
-        return table.getEntry("key_string").getString("default");
+        return keyStringSub.get();
     }
 
     // Gets key from keyboard
     public static int getKeyInteger() {
-        NetworkTable table = INSTANCE.getTable("robogui");
-        return (int) table.getEntry("key_int").getNumber(0).intValue();
+        return (int) keyIntegerSub.get();
     }
 
     /**
@@ -89,14 +111,15 @@ public class NetworkTablesUtil {
      * @return A {@link Translation2d} representing the robot's pose ([x, y, radians])
      */
     public static Pose2d getJetsonPoseMeters() {
-        NetworkTable table = INSTANCE.getTable("jetson");
-        double[] jetsonPoseXYZ = MathUtil.inchesArrayToMetersArray(table.getEntry("pose").getDoubleArray(new double[]{0.0, 0.0, 0.0})); // X, Y, Z
-        return new Pose2d(jetsonPoseXYZ[0],jetsonPoseXYZ[2],RobotGyro.getRotation2d());
+        double[] jetsonPose = jetsonPoseSub.get(); // X, Y, Z in inches
+        if (jetsonPose.length < 3) {
+            jetsonPose = NO_JETSON_POSE;
+        }
+        return new Pose2d(MathUtil.inchesToMeters(jetsonPose[0]), MathUtil.inchesToMeters(jetsonPose[2]), RobotGyro.getRotation2d());
     }  
 
     public static boolean getIfOnBlueTeam() {
-        NetworkTable table = INSTANCE.getTable("FMSInfo");
-        return !table.getEntry("IsRedAlliance").getBoolean(true);
+        return !isRedAllianceSub.get();
     }
 
     /**
@@ -134,14 +157,21 @@ public class NetworkTablesUtil {
         return newSubscriber;
     }
 
+    /**
+     * Logs the current NetworkTables connections. This is rate limited, so it is safe to call every loop.
+     */
     public static void getConnections() {
-        for (ConnectionInfo connection : INSTANCE.getConnections()) {
-            System.out.println("Connection: Using version " + connection.protocol_version + ", ID: " + connection.remote_id + ", IP: " + connection.remote_ip + ", last update: " + connection.last_update);
+        if (!CONNECTIONS_LOG.ready()) { // don't even ask NT for the list if we aren't going to print it
+            return;
+        }
+        ConnectionInfo[] connections = INSTANCE.getConnections();
+        for (ConnectionInfo connection : connections) {
+            CONNECTIONS_LOG.emit("Connection: Using version {}, ID: " + connection.remote_id + ", IP: " + connection.remote_ip + ", last update: {}", connection.protocol_version, connection.last_update);
         }
-        if (INSTANCE.getConnections().length == 0) {
-            System.out.println("NO CONNECTIONS FOUND");
+        if (connections.length == 0) {
+            CONNECTIONS_LOG.emit("NO CONNECTIONS FOUND");
         }
-        System.out.println("END CONNECTIONS LIST \n\n\n\n");
+        CONNECTIONS_LOG.emit("END CONNECTIONS LIST");
     }
 
     /**
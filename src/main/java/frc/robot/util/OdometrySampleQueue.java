@@ -0,0 +1,97 @@
+package frc.robot.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free handoff of odometry samples (time, left and right wheel positions, heading) from one sampling thread to one reader thread (a single
+ * producer, single consumer ring buffer), e.g. from a high rate {@link edu.wpi.first.wpilibj.Notifier} to the main loop. Unlike a {@link SetpointBuffer}
+ * the reader gets every sample, in order, not just the newest.
+ * <p>
+ * The samples live in preallocated parallel arrays, so neither side ever blocks or allocates. If the reader falls so far behind that the ring is full,
+ * new samples are dropped (and counted) until it catches up.
+ * <pre>
+ * queue.offer(time, left, right, heading); // writer
+ *
+ * while (queue.poll(sample)) { ... } // reader: sample is {time, left, right, heading}
+ * </pre>
+ */
+public final class OdometrySampleQueue {
+    private final double[] times;
+    private final double[] lefts;
+    private final double[] rights;
+    private final double[] headings;
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong(); // the next sample to read, only written by the reader
+    private final AtomicLong tail = new AtomicLong(); // the next slot to write, only written by the writer
+    private volatile long dropped; // only written by the writer
+
+    /**
+     * @param capacity How many samples can wait to be read, rounded up to a power of two
+     */
+    public OdometrySampleQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("OdometrySampleQueue capacity must be at least 1, got " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.times = new double[size];
+        this.lefts = new double[size];
+        this.rights = new double[size];
+        this.headings = new double[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds a sample. Only call this from the writer thread.
+     *
+     * @param time    The FPGA time it was taken at, in seconds
+     * @param left    The left wheel position, in meters
+     * @param right   The right wheel position, in meters
+     * @param heading The heading, in radians
+     * @return False if the queue was full and the sample was dropped
+     */
+    public boolean offer(double time, double left, double right, double heading) {
+        long tail = this.tail.get();
+        if (tail - this.head.get() > this.mask) {
+            this.dropped++;
+            return false;
+        }
+        int index = (int) (tail & this.mask);
+        this.times[index] = time;
+        this.lefts[index] = left;
+        this.rights[index] = right;
+        this.headings[index] = heading;
+        this.tail.set(tail + 1); // publishes the sample to the reader
+        return true;
+    }
+
+    /**
+     * Takes the oldest sample. Only call this from the reader thread.
+     *
+     * @param out Gets {time, left, right, heading}
+     * @return False (and {@code out} is untouched) if there are no samples waiting
+     */
+    public boolean poll(double[] out) {
+        long head = this.head.get();
+        if (head == this.tail.get()) {
+            return false;
+        }
+        int index = (int) (head & this.mask);
+        out[0] = this.times[index];
+        out[1] = this.lefts[index];
+        out[2] = this.rights[index];
+        out[3] = this.headings[index];
+        this.head.set(head + 1); // hands the slot back to the writer
+        return true;
+    }
+
+    /**
+     * @return How many samples were dropped because the queue was full
+     */
+    public long getDropped() {
+        return this.dropped;
+    }
+}
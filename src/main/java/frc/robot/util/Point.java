@@ -25,10 +25,17 @@ public class Point {
         this.z = 0;
     }
 
+    /**
+     * Spherical to cartesian, see {@link Vec3#fromSpherical(double, double, double)}.
+     * @param x_angle angle in the x-z plane from +x towards +z, in degrees
+     * @param y_angle angle up from the x-z plane towards +y, in degrees
+     * @param length distance from the origin
+     */
     public Point fromAngles(double x_angle, double y_angle, double length) 
-    { // TODO
-        throw new Error(); // todo
+    {
+        return fromVec3(Vec3.fromSpherical(length, x_angle, y_angle));
     }
+    public Point fromVec3(Vec3 vec) { return new Point(vec.getX(), vec.getY(), vec.getZ()); }
     public Point fromXZY(double x, double z, double y) { return new Point(x, y, z); }
     public Point fromXZYList(double[] x) { 
         return fromXZY(x[0], x[1], x[2]); 
@@ -46,10 +53,11 @@ public class Point {
     }
 
     public double distanceFromCenter() { 
-        return Math.sqrt(Math.pow(this.x, 2) + Math.pow(this.y, 2) + Math.pow(this.z, 2));
+        return Math.sqrt(this.x * this.x + this.y * this.y + this.z * this.z);
     }
 
     
+    // boxes every component, use the ops below (or Vec3) for anything that runs often
     public Point combineFields(Point other, BiFunction<Double, Double, Double> combine_func)
     {
         return new Point(
@@ -71,13 +79,14 @@ public class Point {
     public double getX() { return this.x; }
     public double getY() { return this.y; }
     public double getZ() { return this.z; }
+    public Vec3 toVec3() { return new Vec3(this.x, this.y, this.z); }
 
-    public Point add(Point other) { return combineFields( other, (a, b) -> a + b );          }
-    public Point sub(Point other) { return combineFields( other, (a, b) -> a - b );          }
-    public Point mul(Point other) { return combineFields( other, (a, b) -> a * b );          }
-    public Point div(Point other) { return combineFields( other, (a, b) -> a / b );          }
-    public Point mod(Point other) { return combineFields( other, (a, b) -> a % b );          }
-    public Point pow(Point other) { return combineFields( other, (a, b) -> Math.pow(a,b) );  }
+    public Point add(Point other) { return new Point( this.x + other.x,               this.y + other.y,               this.z + other.z );               }
+    public Point sub(Point other) { return new Point( this.x - other.x,               this.y - other.y,               this.z - other.z );               }
+    public Point mul(Point other) { return new Point( this.x * other.x,               this.y * other.y,               this.z * other.z );               }
+    public Point div(Point other) { return new Point( this.x / other.x,               this.y / other.y,               this.z / other.z );               }
+    public Point mod(Point other) { return new Point( this.x % other.x,               this.y % other.y,               this.z % other.z );               }
+    public Point pow(Point other) { return new Point( Math.pow(this.x, other.x),      Math.pow(this.y, other.y),      Math.pow(this.z, other.z) );      }
     
 
 }
@@ -0,0 +1,142 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Remembers where the robot was over the last {@code capacity} odometry updates, to answer "where was the robot at time t" (e.g. when a camera frame
+ * was captured).
+ * <p>
+ * Samples go into a circular buffer of parallel {@code double[]} arrays, so adding one doesn't allocate anything. A lookup binary searches the samples
+ * and interpolates between the two around the time: linearly for the position, and along the shorter way around for the heading. Times before the
+ * oldest sample or after the newest get the oldest or newest pose.
+ * <p>
+ * Thread safe, so it can be filled from a different thread than the one reading it.
+ */
+public class PoseHistory {
+    private final double[] times;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] headings; // radians
+
+    private int newest = -1; // index of the newest sample
+    private int count;
+
+    /**
+     * @param capacity How many samples to keep
+     */
+    public PoseHistory(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("PoseHistory capacity must be at least 1, got " + capacity);
+        }
+        this.times = new double[capacity];
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+        this.headings = new double[capacity];
+    }
+
+    /**
+     * Adds a sample, replacing the oldest one once the history is full. A sample that isn't newer than the newest one is ignored.
+     *
+     * @param timestamp The FPGA time of the sample, in seconds
+     * @param heading   In radians
+     */
+    public synchronized void add(double timestamp, double x, double y, double heading) {
+        if (this.count > 0 && timestamp <= this.times[this.newest]) {
+            return;
+        }
+        this.newest = (this.newest + 1) % this.times.length;
+        this.times[this.newest] = timestamp;
+        this.xs[this.newest] = x;
+        this.ys[this.newest] = y;
+        this.headings[this.newest] = heading;
+        if (this.count < this.times.length) {
+            this.count++;
+        }
+    }
+
+    /**
+     * @see #add(double, double, double, double)
+     */
+    public void add(double timestamp, Pose2d pose) {
+        add(timestamp, pose.getX(), pose.getY(), pose.getRotation().getRadians());
+    }
+
+    /**
+     * Finds the pose at a time without allocating.
+     *
+     * @param timestamp The FPGA time, in seconds
+     * @param out       Gets x, y and heading (radians), in that order
+     * @return False (and {@code out} is untouched) if there are no samples yet
+     */
+    public synchronized boolean getPoseAt(double timestamp, double[] out) {
+        if (this.count == 0) {
+            return false;
+        }
+        int capacity = this.times.length;
+        int oldest = (this.newest - this.count + 1 + capacity) % capacity;
+
+        // Binary search the samples in age order (0 is the oldest) for the last one at or before the time
+        int low = 0;
+        int high = this.count - 1;
+        if (timestamp <= this.times[oldest]) {
+            high = 0;
+        } else if (timestamp >= this.times[this.newest]) {
+            low = high;
+        } else {
+            while (high - low > 1) {
+                int middle = (low + high) >>> 1;
+                if (this.times[(oldest + middle) % capacity] <= timestamp) {
+                    low = middle;
+                } else {
+                    high = middle;
+                }
+            }
+        }
+
+        int before = (oldest + low) % capacity;
+        if (low == high) {
+            out[0] = this.xs[before];
+            out[1] = this.ys[before];
+            out[2] = this.headings[before];
+            return true;
+        }
+        int after = (oldest + high) % capacity;
+        double t = (timestamp - this.times[before]) / (this.times[after] - this.times[before]);
+        out[0] = this.xs[before] + (this.xs[after] - this.xs[before]) * t;
+        out[1] = this.ys[before] + (this.ys[after] - this.ys[before]) * t;
+        out[2] = this.headings[before] + Math.IEEEremainder(this.headings[after] - this.headings[before], 2 * Math.PI) * t;
+        return true;
+    }
+
+    /**
+     * @param timestamp The FPGA time, in seconds
+     * @return The pose at that time, or null if there are no samples yet
+     */
+    public Pose2d getPoseAt(double timestamp) {
+        double[] pose = new double[3];
+        if (!getPoseAt(timestamp, pose)) {
+            return null;
+        }
+        return new Pose2d(pose[0], pose[1], new Rotation2d(pose[2]));
+    }
+
+    /**
+     * @return The time of the oldest sample, or NaN if there are none
+     */
+    public synchronized double getOldestTimestamp() {
+        if (this.count == 0) {
+            return Double.NaN;
+        }
+        return this.times[(this.newest - this.count + 1 + this.times.length) % this.times.length];
+    }
+
+    public synchronized int size() {
+        return this.count;
+    }
+
+    public synchronized void clear() {
+        this.count = 0;
+        this.newest = -1;
+    }
+}
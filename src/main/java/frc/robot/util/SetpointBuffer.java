@@ -0,0 +1,60 @@
+package frc.robot.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free handoff of a fixed-size group of doubles from one writer thread to one reader thread (a triple buffer), e.g. from commands on the main thread to a
+ * control loop on a {@link edu.wpi.first.wpilibj.Notifier}. The reader always sees a complete snapshot from a single {@link #publish()}, never half of one write
+ * and half of another, and neither side ever blocks or allocates.
+ * <pre>
+ * double[] setpoint = buffer.beginWrite(); // writer: fill in every value, then
+ * buffer.publish();
+ *
+ * double[] latest = buffer.read(); // reader: the newest published snapshot
+ * </pre>
+ */
+public final class SetpointBuffer {
+    private static final int INDEX_MASK = 0b011;
+    private static final int FRESH = 0b100; // set when the middle buffer holds a snapshot the reader hasn't picked up yet
+
+    private final double[][] buffers;
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int writeIndex = 0; // only touched by the writer
+    private int readIndex = 2; // only touched by the reader
+
+    /**
+     * @param size How many doubles each snapshot holds
+     */
+    public SetpointBuffer(int size) {
+        this.buffers = new double[3][size];
+    }
+
+    /**
+     * Gets the array to write the next snapshot into. It may hold an old snapshot, so every value must be written before {@link #publish()}.
+     * Only call this from the writer thread.
+     *
+     * @return The array to fill in
+     */
+    public double[] beginWrite() {
+        return this.buffers[this.writeIndex];
+    }
+
+    /**
+     * Makes the array from {@link #beginWrite()} the newest snapshot. Only call this from the writer thread.
+     */
+    public void publish() {
+        this.writeIndex = this.middle.getAndSet(this.writeIndex | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Gets the newest published snapshot. The array stays valid (and unchanged) until the next call to this method. Only call this from the reader thread.
+     *
+     * @return The newest snapshot, or all zeros if nothing has been published yet
+     */
+    public double[] read() {
+        if ((this.middle.get() & FRESH) != 0) {
+            this.readIndex = this.middle.getAndSet(this.readIndex) & INDEX_MASK;
+        }
+        return this.buffers[this.readIndex];
+    }
+}
@@ -0,0 +1,171 @@
+package frc.robot.util;
+
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the slow parts of robot startup (bringing up the gyro, loading trajectories, building lookup tables) on a small pool of worker threads while the
+ * main thread keeps going, instead of one after another on the main thread.
+ * <p>
+ * Tasks are either required or optional. {@link #awaitRequired} is the barrier: robotInit calls it before returning, so the scheduler never runs until
+ * every required task is done. Optional tasks run at {@link Thread#MIN_PRIORITY} and keep going after the robot is up. Submit required tasks first, the
+ * pool runs tasks in order.
+ * <p>
+ * Every phase, on a worker or timed on the main thread with {@link #runOnMain}, is published to the "startup" table as {@code [startMs, durationMs]}
+ * since the pipeline was made, so it's easy to see what startup is waiting on.
+ * <p>
+ * Anything a task touches must be safe to use from another thread while the main thread carries on. Building commands isn't (composing them registers
+ * them with the scheduler), so that stays on the main thread.
+ */
+public class StartupPipeline {
+    private static final AsyncLogger.Site PHASE_LOG = AsyncLogger.site(AsyncLogger.Level.INFO, 0);
+    private static final AsyncLogger.Site FAILED_LOG = AsyncLogger.site(AsyncLogger.Level.ERROR, 0);
+    private static final AsyncLogger.Site TIMEOUT_LOG = AsyncLogger.site(AsyncLogger.Level.ERROR, 0);
+    private static final double NANOS_PER_MS = 1e6;
+
+    private static final NetworkTable TABLE = NetworkTablesUtil.getTable("startup");
+
+    private final long startNanos = System.nanoTime();
+    private final ExecutorService workers;
+    private final ArrayList<Phase> phases = new ArrayList<>(); // only added to before the barrier
+    private final DoublePublisher barrierWaitPublisher = TABLE.getDoubleTopic("barrierWaitMs").publish();
+    private final DoublePublisher readyPublisher = TABLE.getDoubleTopic("readyMs").publish();
+    private final AtomicInteger requiredRemaining = new AtomicInteger();
+    private final AtomicInteger tasksRemaining = new AtomicInteger();
+    private final CountDownLatch requiredDone = new CountDownLatch(1);
+    private volatile boolean awaited;
+
+    private static final class Phase {
+        final String name;
+        volatile double startMs = Double.NaN;
+        volatile double durationMs = Double.NaN;
+        DoubleArrayPublisher publisher;
+
+        Phase(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * @param workerCount How many worker threads to use. The RoboRIO has two cores, so more than that only helps tasks that wait on hardware.
+     */
+    public StartupPipeline(int workerCount) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Core threads time out, so the pool cleans itself up once startup is over
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(workerCount, workerCount, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "Startup worker " + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        this.workers = pool;
+    }
+
+    /**
+     * Runs a task on a worker. Call from the main thread, before {@link #awaitRequired}.
+     *
+     * @param name     The name the phase is published under
+     * @param required Whether the robot has to wait for it before the scheduler starts
+     * @param task     The task. Exceptions are logged and don't stop the other tasks.
+     */
+    public void submit(String name, boolean required, Runnable task) {
+        if (this.awaited) {
+            throw new IllegalStateException("Startup task " + name + " was submitted after the barrier");
+        }
+        Phase phase = new Phase(name);
+        this.phases.add(phase);
+        this.tasksRemaining.incrementAndGet();
+        if (required) {
+            this.requiredRemaining.incrementAndGet();
+        }
+        this.workers.execute(() -> {
+            Thread thread = Thread.currentThread();
+            thread.setPriority(required ? Thread.NORM_PRIORITY : Thread.MIN_PRIORITY);
+            try {
+                runTimed(phase, task);
+            } finally {
+                // Only open the barrier once awaitRequired has been called, otherwise a fast task could open it before the rest are submitted.
+                // If the last one finishes before that, awaitRequired sees nothing is left and opens it itself.
+                if (required && this.requiredRemaining.decrementAndGet() == 0 && this.awaited) {
+                    this.requiredDone.countDown();
+                }
+                // The last optional task to finish publishes the final timings
+                if (this.tasksRemaining.decrementAndGet() == 0 && this.awaited) {
+                    publish();
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs a task on the calling thread, timed like the others. Use it for the startup work that has to stay on the main thread.
+     */
+    public void runOnMain(String name, Runnable task) {
+        Phase phase = new Phase(name);
+        this.phases.add(phase);
+        runTimed(phase, task);
+    }
+
+    private void runTimed(Phase phase, Runnable task) {
+        long start = System.nanoTime();
+        phase.startMs = (start - this.startNanos) / NANOS_PER_MS;
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            FAILED_LOG.emit("Startup phase " + phase.name + " failed: {}", String.valueOf(e));
+        }
+        phase.durationMs = (System.nanoTime() - start) / NANOS_PER_MS;
+        PHASE_LOG.emit("Startup phase " + phase.name + " took {} ms", phase.durationMs);
+    }
+
+    /**
+     * Blocks until every required task is done, then publishes the timings. Call once, at the end of robotInit.
+     *
+     * @param timeoutSeconds How long to wait before giving up and starting anyway, so a stuck device can't keep the robot from running at all
+     * @return False if it timed out
+     */
+    public boolean awaitRequired(double timeoutSeconds) {
+        this.awaited = true; // every required task is in by now
+        if (this.requiredRemaining.get() == 0) {
+            this.requiredDone.countDown();
+        }
+        boolean done;
+        long waitStart = System.nanoTime();
+        try {
+            done = this.requiredDone.await((long) (timeoutSeconds * 1e9), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            done = false;
+        }
+        if (!done) {
+            TIMEOUT_LOG.emit("Gave up waiting for {} required startup tasks", this.requiredRemaining.get());
+        }
+
+        long now = System.nanoTime();
+        this.barrierWaitPublisher.set((now - waitStart) / NANOS_PER_MS);
+        this.readyPublisher.set((now - this.startNanos) / NANOS_PER_MS);
+        PHASE_LOG.emit("Robot ready {} ms after startup began", (now - this.startNanos) / NANOS_PER_MS);
+        publish();
+        // The optional tasks keep running, the workers exit once they're done
+        this.workers.shutdown();
+        return done;
+    }
+
+    private synchronized void publish() {
+        for (Phase phase : this.phases) {
+            if (phase.publisher == null) {
+                phase.publisher = TABLE.getDoubleArrayTopic(phase.name).publish();
+            }
+            phase.publisher.set(new double[]{phase.startMs, phase.durationMs});
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package frc.robot.util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Samples from a characterization run, saved in the same JSON format the SysId tool loads (like the drivetrain data in {@code .SysId}).
+ * <p>
+ * Every test gets a buffer allocated up front, so {@link #record} never allocates and can be called from a high rate {@link edu.wpi.first.wpilibj.Notifier}.
+ * Each sample is {@code [timestamp, voltage, position, velocity]}, the layout SysId expects for everything but drivetrains. The file is written on a
+ * background thread with {@link #writeInBackground} once every test is done, so the control loop never waits on the disk.
+ * <p>
+ * One thread records at a time; stop it (e.g. {@link edu.wpi.first.wpilibj.Notifier#close()}) before writing.
+ */
+public class SysIdLog {
+    private static final AsyncLogger.Site WRITE_LOG = AsyncLogger.site(AsyncLogger.Level.INFO, 0);
+    private static final AsyncLogger.Site WRITE_FAILED_LOG = AsyncLogger.site(AsyncLogger.Level.ERROR, 0);
+
+    private static final int VALUES_PER_SAMPLE = 4;
+
+    /**
+     * The four tests SysId wants, with the names it looks for in the file.
+     */
+    public enum Test {
+        SLOW_FORWARD("slow-forward", true, true),
+        SLOW_BACKWARD("slow-backward", true, false),
+        FAST_FORWARD("fast-forward", false, true),
+        FAST_BACKWARD("fast-backward", false, false);
+
+        private final String key;
+        private final boolean quasistatic;
+        private final boolean forward;
+
+        Test(String key, boolean quasistatic, boolean forward) {
+            this.key = key;
+            this.quasistatic = quasistatic;
+            this.forward = forward;
+        }
+
+        /**
+         * @return True for a slow voltage ramp, false for a voltage step
+         */
+        public boolean isQuasistatic() {
+            return this.quasistatic;
+        }
+
+        public boolean isForward() {
+            return this.forward;
+        }
+    }
+
+    private final int capacity;
+    private final double[][] samples = new double[Test.values().length][];
+    private final int[] counts = new int[Test.values().length];
+
+    /**
+     * @param capacity How many samples each test can hold
+     */
+    public SysIdLog(int capacity) {
+        this.capacity = capacity;
+        for (int i = 0; i < this.samples.length; i++) {
+            this.samples[i] = new double[capacity * VALUES_PER_SAMPLE];
+        }
+    }
+
+    /**
+     * Throws away a test's samples, e.g. before running it again.
+     */
+    public void clear(Test test) {
+        this.counts[test.ordinal()] = 0;
+    }
+
+    /**
+     * Adds a sample to a test.
+     *
+     * @param timestamp Seconds, any clock as long as the whole test uses the same one
+     * @param voltage   The voltage the motor was applying
+     * @param position  The mechanism position
+     * @param velocity  The mechanism velocity, in position units per second
+     * @return False if the test's buffer is full and the sample was dropped
+     */
+    public boolean record(Test test, double timestamp, double voltage, double position, double velocity) {
+        int count = this.counts[test.ordinal()];
+        if (count == this.capacity) {
+            return false;
+        }
+        double[] buffer = this.samples[test.ordinal()];
+        int i = count * VALUES_PER_SAMPLE;
+        buffer[i] = timestamp;
+        buffer[i + 1] = voltage;
+        buffer[i + 2] = position;
+        buffer[i + 3] = velocity;
+        this.counts[test.ordinal()] = count + 1;
+        return true;
+    }
+
+    public int getSampleCount(Test test) {
+        return this.counts[test.ordinal()];
+    }
+
+    /**
+     * Writes every test as SysId JSON.
+     *
+     * @param out              Where to write
+     * @param testType         The SysId analysis type, e.g. "Arm" or "Simple"
+     * @param units            The position units, e.g. "Degrees"
+     * @param unitsPerRotation How many position units are in one rotation of the mechanism
+     */
+    public void write(Writer out, String testType, String units, double unitsPerRotation) throws IOException {
+        out.write("{\n");
+        for (Test test : Test.values()) {
+            out.write("  \"" + test.key + "\": [");
+            double[] buffer = this.samples[test.ordinal()];
+            int count = this.counts[test.ordinal()];
+            for (int sample = 0; sample < count; sample++) {
+                out.write(sample == 0 ? "\n    [" : ",\n    [");
+                for (int value = 0; value < VALUES_PER_SAMPLE; value++) {
+                    if (value > 0) {
+                        out.write(", ");
+                    }
+                    out.write(Double.toString(buffer[sample * VALUES_PER_SAMPLE + value]));
+                }
+                out.write("]");
+            }
+            out.write(count == 0 ? "],\n" : "\n  ],\n");
+        }
+        out.write("  \"sysid\": true,\n");
+        out.write("  \"test\": \"" + testType + "\",\n");
+        out.write("  \"units\": \"" + units + "\",\n");
+        out.write("  \"unitsPerRotation\": " + unitsPerRotation + "\n");
+        out.write("}\n");
+    }
+
+    /**
+     * Writes the file on a low priority background thread.
+     *
+     * @see #write(Writer, String, String, double)
+     */
+    public void writeInBackground(File file, String testType, String units, double unitsPerRotation) {
+        Thread writer = new Thread(() -> {
+            try (Writer out = new BufferedWriter(new FileWriter(file))) {
+                write(out, testType, units, unitsPerRotation);
+                WRITE_LOG.emit("Wrote SysId data to {}", file.getPath());
+            } catch (IOException e) {
+                WRITE_FAILED_LOG.emit("Couldn't write SysId data: {}", String.valueOf(e));
+            }
+        }, "SysId writer");
+        writer.setDaemon(true);
+        writer.setPriority(Thread.MIN_PRIORITY);
+        writer.start();
+    }
+}
@@ -0,0 +1,88 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precompiled trajectories, so the robot doesn't have to parse PathWeaver JSON while it starts up. {@code ./gradlew compileTrajectories} turns every
+ * {@code src/main/deploy/paths/*.wpilib.json} into a {@code .wpilib.bin} next to it on the robot.
+ * <p>
+ * A file is an 8 byte header, {@link #MAGIC} and the number of states (both ints), then each state as {@link #VALUES_PER_STATE} doubles: time, velocity,
+ * acceleration, x, y, rotation (radians), curvature. Everything is little endian, like the RoboRIO, so the states are read straight out of the
+ * memory-mapped file.
+ */
+public final class TrajectoryBinary {
+    private TrajectoryBinary() {
+        throw new UnsupportedOperationException("TrajectoryBinary is a utility class and cannot be instantiated!");
+    }
+
+    public static final String EXTENSION = ".wpilib.bin";
+    public static final int MAGIC = 0x314A5254; // "TRJ1" when read as little endian bytes
+    public static final int VALUES_PER_STATE = 7;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int STATE_BYTES = VALUES_PER_STATE * Double.BYTES;
+
+    /**
+     * Memory-maps a compiled trajectory and builds it.
+     *
+     * @throws IOException If the file can't be read or isn't a compiled trajectory
+     */
+    public static Trajectory read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException(path + " is too short to be a compiled trajectory");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(path + " isn't a compiled trajectory");
+            }
+            int stateCount = buffer.getInt();
+            if (stateCount <= 0 || size != HEADER_BYTES + (long) stateCount * STATE_BYTES) {
+                throw new IOException(path + " says it has " + stateCount + " states but is " + size + " bytes");
+            }
+
+            DoubleBuffer values = buffer.asDoubleBuffer();
+            ArrayList<Trajectory.State> states = new ArrayList<>(stateCount);
+            for (int i = 0; i < stateCount; i++) {
+                states.add(new Trajectory.State(values.get(), values.get(), values.get(),
+                        new Pose2d(values.get(), values.get(), new Rotation2d(values.get())), values.get()));
+            }
+            return new Trajectory(states);
+        }
+    }
+
+    /**
+     * Compiles a trajectory into a file, replacing whatever was there.
+     */
+    public static void write(Trajectory trajectory, Path path) throws IOException {
+        List<Trajectory.State> states = trajectory.getStates();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + states.size() * STATE_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(states.size());
+        for (Trajectory.State state : states) {
+            buffer.putDouble(state.timeSeconds);
+            buffer.putDouble(state.velocityMetersPerSecond);
+            buffer.putDouble(state.accelerationMetersPerSecondSq);
+            buffer.putDouble(state.poseMeters.getX());
+            buffer.putDouble(state.poseMeters.getY());
+            buffer.putDouble(state.poseMeters.getRotation().getRadians());
+            buffer.putDouble(state.curvatureRadPerMeter);
+        }
+        Files.write(path, buffer.array());
+    }
+}
@@ -0,0 +1,152 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the trajectories generated on the fly, so asking for the same path again (e.g. the same alignment move every cycle in teleop) is a map lookup
+ * instead of a spline optimization. Holds at most {@code capacity} trajectories and forgets the least recently used one first.
+ * <p>
+ * Requests are matched after rounding every coordinate to {@code positionQuantum} and every angle to {@code angleQuantumDegrees}, and the trajectory is
+ * generated from the rounded poses, so everything that shares a key gets exactly the same trajectory. A trajectory can start up to half a quantum away
+ * from where it was asked to.
+ * <p>
+ * The two {@link TrajectoryConfig}s (forwards and reversed) are made once and shared by every trajectory. Thread safe.
+ */
+public class TrajectoryCache {
+    private final int capacity;
+    private final double positionQuantum;
+    private final double angleQuantumDegrees;
+    private final TrajectoryConfig forwardConfig;
+    private final TrajectoryConfig reversedConfig;
+
+    private final LinkedHashMap<Key, Trajectory> trajectories;
+    private long hits;
+    private long misses;
+
+    /**
+     * A request after rounding: start x, y, angle, end x, y, angle, reversed, then x, y of each waypoint, all in quanta.
+     */
+    private static final class Key {
+        private final long[] values;
+        private final int hash;
+
+        Key(long[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(this.values, ((Key) other).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+    /**
+     * @param capacity            How many trajectories to keep
+     * @param positionQuantum     The position rounding, in meters
+     * @param angleQuantumDegrees The angle rounding, in degrees
+     * @param forwardConfig       The config for forwards trajectories. Don't change it afterwards, the cached trajectories wouldn't match.
+     * @param reversedConfig      The same config with {@code setReversed(true)}
+     */
+    public TrajectoryCache(int capacity, double positionQuantum, double angleQuantumDegrees, TrajectoryConfig forwardConfig, TrajectoryConfig reversedConfig) {
+        this.capacity = capacity;
+        this.positionQuantum = positionQuantum;
+        this.angleQuantumDegrees = angleQuantumDegrees;
+        this.forwardConfig = forwardConfig;
+        this.reversedConfig = reversedConfig;
+        // Access order, so iteration starts at the least recently used entry
+        this.trajectories = new LinkedHashMap<Key, Trajectory>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Trajectory> eldest) {
+                return size() > TrajectoryCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets the trajectory from the cache, or generates and remembers it.
+     *
+     * @see TrajectoryGenerator#generateTrajectory(Pose2d, List, Pose2d, TrajectoryConfig)
+     */
+    public Trajectory get(Pose2d start, List<Translation2d> waypoints, Pose2d end, boolean reversed) {
+        long[] values = new long[7 + 2 * waypoints.size()];
+        values[0] = quantize(start.getX(), this.positionQuantum);
+        values[1] = quantize(start.getY(), this.positionQuantum);
+        values[2] = quantize(start.getRotation().getDegrees(), this.angleQuantumDegrees);
+        values[3] = quantize(end.getX(), this.positionQuantum);
+        values[4] = quantize(end.getY(), this.positionQuantum);
+        values[5] = quantize(end.getRotation().getDegrees(), this.angleQuantumDegrees);
+        values[6] = reversed ? 1 : 0;
+        for (int i = 0; i < waypoints.size(); i++) {
+            values[7 + 2 * i] = quantize(waypoints.get(i).getX(), this.positionQuantum);
+            values[8 + 2 * i] = quantize(waypoints.get(i).getY(), this.positionQuantum);
+        }
+        Key key = new Key(values);
+
+        synchronized (this) {
+            Trajectory cached = this.trajectories.get(key);
+            if (cached != null) {
+                this.hits++;
+                return cached;
+            }
+            this.misses++;
+        }
+
+        // Generate outside the lock, so a slow generation doesn't hold up lookups. Two threads missing on the same key just both generate it.
+        ArrayList<Translation2d> roundedWaypoints = new ArrayList<>(waypoints.size());
+        for (int i = 0; i < waypoints.size(); i++) {
+            roundedWaypoints.add(new Translation2d(values[7 + 2 * i] * this.positionQuantum, values[8 + 2 * i] * this.positionQuantum));
+        }
+        Trajectory trajectory = TrajectoryGenerator.generateTrajectory(
+                roundedPose(values, 0),
+                roundedWaypoints,
+                roundedPose(values, 3),
+                reversed ? this.reversedConfig : this.forwardConfig);
+
+        synchronized (this) {
+            this.trajectories.put(key, trajectory);
+        }
+        return trajectory;
+    }
+
+    private Pose2d roundedPose(long[] values, int offset) {
+        return new Pose2d(values[offset] * this.positionQuantum, values[offset + 1] * this.positionQuantum,
+                Rotation2d.fromDegrees(values[offset + 2] * this.angleQuantumDegrees));
+    }
+
+    private static long quantize(double value, double quantum) {
+        return Math.round(value / quantum);
+    }
+
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    public synchronized int size() {
+        return this.trajectories.size();
+    }
+
+    public synchronized void clear() {
+        this.trajectories.clear();
+    }
+}
@@ -0,0 +1,44 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import frc.robot.Constants.FieldConstants;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mirrors trajectories to the other alliance's side of the field, so each path only has to be drawn (and deployed) once, for blue. The mirror is the same
+ * one {@link MathUtil#mirrorPoseOnFieldForOppositeSide} uses: across the middle of the field's X axis, so Y stays the same.
+ * <p>
+ * A mirrored state has X at {@code FIELD_X_LENGTH - x}, heading {@code 180 - heading} (driving +X becomes driving -X), and the opposite curvature
+ * (left turns become right turns). Time, velocity and acceleration don't change, so the mirrored path takes exactly as long as the original.
+ */
+public final class TrajectoryMirror {
+    private TrajectoryMirror() {
+        throw new UnsupportedOperationException("TrajectoryMirror is a utility class and cannot be instantiated!");
+    }
+
+    private static final double FIELD_X_LENGTH_METERS = MathUtil.inchesToMeters(FieldConstants.FIELD_X_LENGTH);
+
+    /**
+     * @param trajectory A trajectory on one alliance's side of the field, in meters
+     * @return The same trajectory on the other side
+     */
+    public static Trajectory mirror(Trajectory trajectory) {
+        List<Trajectory.State> states = trajectory.getStates();
+        ArrayList<Trajectory.State> mirrored = new ArrayList<>(states.size());
+        for (Trajectory.State state : states) {
+            Pose2d pose = state.poseMeters;
+            Rotation2d heading = pose.getRotation();
+            mirrored.add(new Trajectory.State(
+                    state.timeSeconds,
+                    state.velocityMetersPerSecond,
+                    state.accelerationMetersPerSecondSq,
+                    new Pose2d(FIELD_X_LENGTH_METERS - pose.getX(), pose.getY(), new Rotation2d(-heading.getCos(), heading.getSin())),
+                    -state.curvatureRadPerMeter));
+        }
+        return new Trajectory(mirrored);
+    }
+}
@@ -0,0 +1,147 @@
+package frc.robot.util;
+
+/**
+ * Immutable 3D vector of primitive doubles. Everything here works straight on the fields, so nothing boxes and every operation allocates at most the result.
+ * For code that runs every loop use {@link MutableVec3} instead, which doesn't allocate at all.
+ * <p>
+ * Follows the arm's axes (see {@link frc.robot.subsystems.ArmSubsystem}): y is up, and angles in the x-z plane are measured from +x towards +z.
+ */
+public final class Vec3 {
+    public static final Vec3 ZERO = new Vec3(0, 0, 0);
+
+    private final double x;
+    private final double y;
+    private final double z;
+
+    public Vec3(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    /**
+     * @param xyz An array of [x, y, z]
+     * @return The vector
+     */
+    public static Vec3 fromArray(double[] xyz) {
+        return new Vec3(xyz[0], xyz[1], xyz[2]);
+    }
+
+    /**
+     * Converts spherical coordinates to a vector.
+     *
+     * @param length       The length of the vector
+     * @param azimuthDeg   The angle in the x-z plane, from +x towards +z (like the turret angle), in degrees
+     * @param elevationDeg The angle up from the x-z plane towards +y, in degrees
+     * @return The vector
+     */
+    public static Vec3 fromSpherical(double length, double azimuthDeg, double elevationDeg) {
+        double azimuth = Math.toRadians(azimuthDeg);
+        double elevation = Math.toRadians(elevationDeg);
+        double horizontal = length * Math.cos(elevation);
+        return new Vec3(horizontal * Math.cos(azimuth), length * Math.sin(elevation), horizontal * Math.sin(azimuth));
+    }
+
+    public double getX() {
+        return this.x;
+    }
+
+    public double getY() {
+        return this.y;
+    }
+
+    public double getZ() {
+        return this.z;
+    }
+
+    public Vec3 plus(Vec3 other) {
+        return new Vec3(this.x + other.x, this.y + other.y, this.z + other.z);
+    }
+
+    public Vec3 minus(Vec3 other) {
+        return new Vec3(this.x - other.x, this.y - other.y, this.z - other.z);
+    }
+
+    public Vec3 times(double scalar) {
+        return new Vec3(this.x * scalar, this.y * scalar, this.z * scalar);
+    }
+
+    /**
+     * @return A new vector with each component multiplied by the matching component of {@code other}
+     */
+    public Vec3 timesComponents(Vec3 other) {
+        return new Vec3(this.x * other.x, this.y * other.y, this.z * other.z);
+    }
+
+    /**
+     * @return {@code this + other * scale}, in one step
+     */
+    public Vec3 scaleAdd(Vec3 other, double scale) {
+        return new Vec3(this.x + other.x * scale, this.y + other.y * scale, this.z + other.z * scale);
+    }
+
+    /**
+     * @param t 0 gives this vector, 1 gives {@code other}
+     * @return The point {@code t} of the way from this vector to {@code other}
+     */
+    public Vec3 lerp(Vec3 other, double t) {
+        return new Vec3(this.x + (other.x - this.x) * t, this.y + (other.y - this.y) * t, this.z + (other.z - this.z) * t);
+    }
+
+    public double dot(Vec3 other) {
+        return this.x * other.x + this.y * other.y + this.z * other.z;
+    }
+
+    public Vec3 cross(Vec3 other) {
+        return new Vec3(this.y * other.z - this.z * other.y, this.z * other.x - this.x * other.z, this.x * other.y - this.y * other.x);
+    }
+
+    public double normSquared() {
+        return this.x * this.x + this.y * this.y + this.z * this.z;
+    }
+
+    public double norm() {
+        return Math.sqrt(normSquared());
+    }
+
+    public double distance(Vec3 other) {
+        double dx = this.x - other.x, dy = this.y - other.y, dz = this.z - other.z;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * @return A vector with the same direction and a length of 1, or {@link #ZERO} if this vector has no length
+     */
+    public Vec3 normalized() {
+        double norm = norm();
+        return norm == 0 ? ZERO : times(1 / norm);
+    }
+
+    /**
+     * @return A new array of [x, y, z], for the older array based APIs
+     */
+    public double[] toArray() {
+        return new double[]{this.x, this.y, this.z};
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Vec3)) {
+            return false;
+        }
+        Vec3 other = (Vec3) obj;
+        return Double.compare(this.x, other.x) == 0 && Double.compare(this.y, other.y) == 0 && Double.compare(this.z, other.z) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Double.hashCode(this.x);
+        result = 31 * result + Double.hashCode(this.y);
+        return 31 * result + Double.hashCode(this.z);
+    }
+
+    @Override
+    public String toString() {
+        return "Vec3(" + this.x + ", " + this.y + ", " + this.z + ")";
+    }
+}
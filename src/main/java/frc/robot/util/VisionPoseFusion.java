@@ -0,0 +1,167 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.DifferentialDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.networktables.StringPublisher;
+import edu.wpi.first.networktables.TimestampedDoubleArray;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants.FieldConstants;
+import frc.robot.Constants.FieldConstants.AprilTagConstants;
+import frc.robot.Constants.RobotConstants;
+
+/**
+ * Feeds the Jetson's AprilTag poses into the drivetrain's pose estimator, each one at the time its frame was actually captured.
+ * <p>
+ * Every pose the Jetson publishes is kept in NetworkTables' queue for the "pose" topic, with the time it was published in the NetworkTables server's
+ * clock. The robot is the server, and on the robot that clock is the FPGA clock, so the capture time is that timestamp minus
+ * {@link AprilTagConstants#JETSON_PROCESSING_LATENCY} (the time between capture and publishing). {@link #update()} drains the queue every loop, so no
+ * measurement is missed or used twice, and the estimator replays odometry from the capture time.
+ * <p>
+ * A measurement is thrown away if:
+ * <ul>
+ *     <li>it's older than {@link AprilTagConstants#MAX_MEASUREMENT_AGE} (the estimator only remembers so much odometry) or from the future</li>
+ *     <li>it's off the field, or further than {@link AprilTagConstants#MAX_TAG_DISTANCE_METERS} from every tag in
+ *     {@link AprilTagConstants#APRILTAG_LOCATIONS}, where tag poses get noisy</li>
+ *     <li>it's more than {@link AprilTagConstants#MAX_INNOVATION_METERS} from where the estimate had the robot when the frame was captured (from the
+ *     {@link PoseHistory}, so measurements taken while turning aren't compared against where the robot has turned to since). So that odometry that's drifted far off can still
+ *     be corrected, a measurement is accepted anyway after {@link AprilTagConstants#MAX_INNOVATION_REJECTIONS} of these in a row.</li>
+ * </ul>
+ * Accepted measurements are trusted less the further they are from the nearest tag. The Jetson doesn't send a heading, so measurements use the
+ * estimated heading at the capture time and a huge heading standard deviation, and only correct the position. The camera's offset from the robot's
+ * center is turned by that heading too.
+ * <p>
+ * The latency of each measurement and how many were accepted and rejected (and why) are published to the "vision" table.
+ */
+public class VisionPoseFusion {
+    private static final int QUEUE_SIZE = 32; // measurements NetworkTables keeps between loops
+    private static final double MICROSECONDS_PER_SECOND = 1e6;
+    private static final double HEADING_STD_DEV = 1e3; // radians, i.e. ignore the heading
+    private static final double FIELD_X_METERS = MathUtil.inchesToMeters(FieldConstants.FIELD_X_LENGTH);
+    private static final double FIELD_Y_METERS = MathUtil.inchesToMeters(FieldConstants.FIELD_Y_LENGTH);
+
+    private static final NetworkTable TABLE = NetworkTablesUtil.getTable("vision");
+
+    private final DifferentialDrivePoseEstimator estimator;
+    private final PoseHistory poseHistory;
+    private final double[] capturePose = new double[3]; // x, y, heading (radians) when the frame being fused was captured
+    private final DoubleArraySubscriber poseSub;
+    private final double[] tagXs;
+    private final double[] tagYs;
+
+    private final DoublePublisher latencyPublisher = TABLE.getDoubleTopic("latencyMs").publish();
+    private final IntegerPublisher acceptedPublisher = TABLE.getIntegerTopic("accepted").publish();
+    private final IntegerPublisher rejectedPublisher = TABLE.getIntegerTopic("rejected").publish();
+    private final DoublePublisher acceptanceRatePublisher = TABLE.getDoubleTopic("acceptanceRate").publish();
+    private final StringPublisher lastRejectionPublisher = TABLE.getStringTopic("lastRejection").publish();
+
+    private long accepted;
+    private long rejected;
+    private int innovationRejectionsInARow;
+
+    /**
+     * @param estimator   The estimator to add measurements to. Only call {@link #update()} from the thread that updates it.
+     * @param poseHistory The estimator's past poses, to compare measurements against the pose at the time they were captured
+     */
+    public VisionPoseFusion(DifferentialDrivePoseEstimator estimator, PoseHistory poseHistory) {
+        this.estimator = estimator;
+        this.poseHistory = poseHistory;
+        this.poseSub = NetworkTablesUtil.getTable("jetson").getDoubleArrayTopic("pose")
+                .subscribe(new double[0], PubSubOption.pollStorage(QUEUE_SIZE), PubSubOption.keepDuplicates(true));
+
+        double[][] tags = AprilTagConstants.APRILTAG_LOCATIONS;
+        this.tagXs = new double[tags.length];
+        this.tagYs = new double[tags.length];
+        for (int i = 0; i < tags.length; i++) {
+            this.tagXs[i] = MathUtil.inchesToMeters(tags[i][0]);
+            this.tagYs[i] = MathUtil.inchesToMeters(tags[i][1]);
+        }
+    }
+
+    /**
+     * Adds every measurement that came in since the last call. Call right after updating the estimator with odometry.
+     */
+    public void update() {
+        TimestampedDoubleArray[] measurements = this.poseSub.readQueue();
+        if (measurements.length == 0) {
+            return;
+        }
+        double now = Timer.getFPGATimestamp();
+        for (TimestampedDoubleArray measurement : measurements) {
+            String rejection = fuse(measurement, now);
+            if (rejection == null) {
+                this.accepted++;
+            } else {
+                this.rejected++;
+                this.lastRejectionPublisher.set(rejection);
+            }
+        }
+        this.acceptedPublisher.set(this.accepted);
+        this.rejectedPublisher.set(this.rejected);
+        this.acceptanceRatePublisher.set((double) this.accepted / (this.accepted + this.rejected));
+    }
+
+    /**
+     * @return Null if the measurement was added, otherwise why it wasn't
+     */
+    private String fuse(TimestampedDoubleArray measurement, double now) {
+        double[] value = measurement.value;
+        if (value.length < 3) {
+            return "malformed";
+        }
+        double captureTime = measurement.serverTime / MICROSECONDS_PER_SECOND - AprilTagConstants.JETSON_PROCESSING_LATENCY;
+        double latency = now - captureTime;
+        this.latencyPublisher.set(latency * 1000);
+        if (latency < 0 || latency > AprilTagConstants.MAX_MEASUREMENT_AGE) {
+            return "stale";
+        }
+
+        // Where the estimate had the robot when the frame was captured. Before the first odometry update there's no history, so use the estimate.
+        if (!this.poseHistory.getPoseAt(captureTime, this.capturePose)) {
+            Pose2d estimate = this.estimator.getEstimatedPosition();
+            this.capturePose[0] = estimate.getX();
+            this.capturePose[1] = estimate.getY();
+            this.capturePose[2] = estimate.getRotation().getRadians();
+        }
+        double headingRad = this.capturePose[2];
+
+        // Same as NetworkTablesUtil.getJetsonPoseMeters and DriveTrainSubsystem.getCenteredJetsonPose: the Jetson's X and Z are the field's X and Y,
+        // and the camera is off to the side of the robot's center
+        double x = MathUtil.inchesToMeters(value[0]) + Math.cos(headingRad) * RobotConstants.CAMERA_SIDE_OFFSET_FROM_CENTER_M;
+        double y = MathUtil.inchesToMeters(value[2]) + Math.sin(headingRad) * RobotConstants.CAMERA_SIDE_OFFSET_FROM_CENTER_M;
+        if (!Double.isFinite(x) || !Double.isFinite(y) || x < 0 || x > FIELD_X_METERS || y < 0 || y > FIELD_Y_METERS) {
+            return "off field";
+        }
+
+        double tagDistance = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < this.tagXs.length; i++) {
+            tagDistance = Math.min(tagDistance, Math.hypot(x - this.tagXs[i], y - this.tagYs[i]));
+        }
+        if (tagDistance > AprilTagConstants.MAX_TAG_DISTANCE_METERS) {
+            return "too far from tags";
+        }
+
+        double innovation = Math.hypot(x - this.capturePose[0], y - this.capturePose[1]);
+        if (innovation > AprilTagConstants.MAX_INNOVATION_METERS) {
+            if (++this.innovationRejectionsInARow <= AprilTagConstants.MAX_INNOVATION_REJECTIONS) {
+                return "too far from estimate";
+            }
+            // Vision has disagreed for a while, so odometry is probably what's wrong
+        }
+        this.innovationRejectionsInARow = 0;
+
+        double xyStdDev = AprilTagConstants.VISION_XY_STD_DEV * (1 + tagDistance * tagDistance);
+        Matrix<N3, N1> stdDevs = VecBuilder.fill(xyStdDev, xyStdDev, HEADING_STD_DEV);
+        this.estimator.addVisionMeasurement(new Pose2d(x, y, new Rotation2d(headingRad)), captureTime, stdDevs);
+        return null;
+    }
+}
@@ -4,37 +4,209 @@ import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.trajectory.Trajectory;
 import edu.wpi.first.networktables.GenericSubscriber;
+import frc.robot.util.AsyncLogger;
 import frc.robot.util.NetworkTablesUtil;
 
 import java.util.ArrayList;
 
+/**
+ * Receives trajectories streamed over NetworkTables (e.g. from the GUI or a coprocessor) as one flattened double array.
+ * <p>
+ * {@link #periodic()} only parses when the value has actually changed ({@link GenericSubscriber#getLastChange()}), straight into one of two preallocated
+ * {@link StateBuffer}s, and then swaps it in as the active buffer. A long trajectory that's updated every loop doesn't allocate
+ * anything but the array NetworkTables hands back, and a bad array never replaces the last good trajectory. {@link Trajectory} objects are only built
+ * when someone asks for one, with {@link #getCurrentTrajectory()}.
+ * <p>
+ * Not thread safe: use it all from one thread (the main loop).
+ */
 public class TrajectoryReader {
-    public Trajectory currentTrajectory;
+    /**
+     * Each state is sent as [time, velocity, acceleration, x, y, rotation (radians), curvature]
+     */
+    public static final int VALUES_PER_STATE = 7;
+    private static final int INITIAL_CAPACITY = 512; // states, the buffers grow if a longer trajectory comes in
+
+    private static final AsyncLogger.Site BAD_ARRAY_LOG = AsyncLogger.site(AsyncLogger.Level.WARN, 1.0);
+
     private final GenericSubscriber trajectorySub;
     private static final double[] EMPTY = new double[]{};
 
+    private StateBuffer active; // null until the first good trajectory
+    private StateBuffer spare = new StateBuffer(INITIAL_CAPACITY);
+    private long lastChange;
+    private long updateCount;
+
+    private Trajectory currentTrajectory;
+    private long currentTrajectoryUpdate = -1; // the update currentTrajectory was built from
+
+    /**
+     * The states of one trajectory, one array per field.
+     * <p>
+     * A buffer handed out by {@link #getStates()} is refilled in place two updates later, so only read it from the thread that calls
+     * {@link #periodic()}, and read what you need from it in the same loop or copy it with {@link #toTrajectory()}.
+     */
+    public static final class StateBuffer {
+        private double[] times;
+        private double[] velocities;
+        private double[] accelerations;
+        private double[] xs;
+        private double[] ys;
+        private double[] rotations;
+        private double[] curvatures;
+        private int count;
+        private long update; // which update filled it
+
+        public StateBuffer(int capacity) {
+            allocate(capacity);
+        }
+
+        private void allocate(int capacity) {
+            this.times = new double[capacity];
+            this.velocities = new double[capacity];
+            this.accelerations = new double[capacity];
+            this.xs = new double[capacity];
+            this.ys = new double[capacity];
+            this.rotations = new double[capacity];
+            this.curvatures = new double[capacity];
+        }
+
+        /**
+         * Fills the buffer from a flattened array, growing it if needed. Check the array with {@link TrajectoryReader#isValid(double[])} first.
+         */
+        public void fill(double[] flattened) {
+            int stateCount = flattened.length / VALUES_PER_STATE;
+            if (stateCount > this.times.length) {
+                allocate(Math.max(stateCount, this.times.length * 2));
+            }
+            for (int i = 0; i < stateCount; i++) {
+                int shift = i * VALUES_PER_STATE;
+                this.times[i] = flattened[shift + 0];
+                this.velocities[i] = flattened[shift + 1];
+                this.accelerations[i] = flattened[shift + 2];
+                this.xs[i] = flattened[shift + 3];
+                this.ys[i] = flattened[shift + 4];
+                this.rotations[i] = flattened[shift + 5];
+                this.curvatures[i] = flattened[shift + 6];
+            }
+            this.count = stateCount;
+        }
+
+        public int getStateCount() {
+            return this.count;
+        }
+
+        public double getTime(int state) {
+            return this.times[state];
+        }
+
+        public double getVelocity(int state) {
+            return this.velocities[state];
+        }
+
+        public double getAcceleration(int state) {
+            return this.accelerations[state];
+        }
+
+        public double getX(int state) {
+            return this.xs[state];
+        }
+
+        public double getY(int state) {
+            return this.ys[state];
+        }
+
+        public double getRotation(int state) {
+            return this.rotations[state];
+        }
+
+        public double getCurvature(int state) {
+            return this.curvatures[state];
+        }
+
+        /**
+         * @return A {@link Trajectory} with copies of these states
+         */
+        public Trajectory toTrajectory() {
+            ArrayList<Trajectory.State> states = new ArrayList<>(this.count);
+            for (int i = 0; i < this.count; i++) {
+                states.add(new Trajectory.State(this.times[i], this.velocities[i], this.accelerations[i],
+                        new Pose2d(this.xs[i], this.ys[i], new Rotation2d(this.rotations[i])), this.curvatures[i]));
+            }
+            return new Trajectory(states);
+        }
+    }
+
     public TrajectoryReader(String trajectoryTable, String trajectoryEntry) {
         this.trajectorySub = NetworkTablesUtil.getSubscriber(trajectoryTable, trajectoryEntry);
     }
 
+    /**
+     * Takes in the latest array, if it changed since the last call. Call from one thread only (the main loop).
+     */
     public void periodic() {
-        var latest = this.trajectorySub.getDoubleArray(EMPTY);
-        if (latest.length == 0 || latest.length % 7 != 0) {
-            System.out.println("Bad array");
+        long change = this.trajectorySub.getLastChange();
+        if (change == this.lastChange) {
+            return;
         }
+        this.lastChange = change;
 
-        ArrayList<Trajectory.State> states = new ArrayList<>();
+        double[] latest = this.trajectorySub.getDoubleArray(EMPTY);
+        if (!isValid(latest)) {
+            BAD_ARRAY_LOG.log("Bad trajectory array ({} values), keeping the last trajectory", latest.length);
+            return;
+        }
+
+        StateBuffer filled = this.spare;
+        filled.fill(latest);
+        filled.update = ++this.updateCount;
+        StateBuffer previous = this.active;
+        this.active = filled;
+        this.spare = previous != null ? previous : new StateBuffer(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @return The latest trajectory's states, or null if no good trajectory has come in yet. Call from the same thread as {@link #periodic()}: the buffer
+     * is refilled in place two updates later, so it's only valid until then. Use {@link StateBuffer#toTrajectory()} to keep a copy.
+     */
+    public StateBuffer getStates() {
+        return this.active;
+    }
 
-        for (int i = 0; i < latest.length; i++) {
-            int shift = i * 7;
-            states.add(new Trajectory.State(
-                    latest[shift + 0],
-                    latest[shift + 1],
-                    latest[shift + 2],
-                    new Pose2d(latest[shift + 3], latest[shift + 4], new Rotation2d(latest[shift + 5])),
-                    latest[shift + 6]));
+    /**
+     * @return The latest trajectory, built the first time it's asked for, or null if no good trajectory has come in yet. Call from the same thread as
+     * {@link #periodic()}.
+     */
+    public Trajectory getCurrentTrajectory() {
+        StateBuffer states = this.active;
+        if (states == null) {
+            return null;
         }
+        if (states.update != this.currentTrajectoryUpdate) {
+            this.currentTrajectory = states.toTrajectory();
+            this.currentTrajectoryUpdate = states.update;
+        }
+        return this.currentTrajectory;
+    }
 
-        this.currentTrajectory = new Trajectory(states);
+    /**
+     * A trajectory has at least one state, whole states only, finite values, and time never goes backwards.
+     */
+    public static boolean isValid(double[] flattened) {
+        if (flattened.length == 0 || flattened.length % VALUES_PER_STATE != 0) {
+            return false;
+        }
+        double lastTime = Double.NEGATIVE_INFINITY;
+        for (int shift = 0; shift < flattened.length; shift += VALUES_PER_STATE) {
+            for (int value = 0; value < VALUES_PER_STATE; value++) {
+                if (!Double.isFinite(flattened[shift + value])) {
+                    return false;
+                }
+            }
+            if (flattened[shift] < lastTime) {
+                return false;
+            }
+            lastTime = flattened[shift];
+        }
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import frc.robot.Constants.ArmConstants;
+import frc.robot.Constants.RobotConstants;
+import org.junit.jupiter.api.Test;
+
+class ArmPathPlannerTest {
+    private static final double TIME_STEP = 0.005; // seconds between the points checked along a path
+
+    // Low enough that the straight line between them goes through the frame, and far enough out that the arm can reach them exactly (closer in,
+    // the first joint hits its lower limit and the claw ends up somewhere else)
+    private static final Vec3 START = new Vec3(39, 8, 0);
+    private static final Vec3 GOAL = new Vec3(-39, 8, 0);
+
+    private final ArmPathPlanner planner = new ArmPathPlanner();
+    private final ArmJointState angles = new ArmJointState();
+    private final ArmCartesianState claw = new ArmCartesianState();
+
+    /**
+     * @return True if the claw is inside the robot's frame itself, without the clearance the planner keeps
+     */
+    private static boolean isInFrame(ArmCartesianState claw) {
+        return claw.getY() < ArmConstants.ROBOT_FRAME_HEIGHT && Math.abs(claw.getX()) < RobotConstants.ROBOT_LENGTH / 2
+                && Math.abs(claw.getZ()) < RobotConstants.ROBOT_WIDTH / 2;
+    }
+
+    private ArmCartesianState clawAt(ArmPath path, double t) {
+        return ForwardKinematicsUtil.getCoordinatesFromAngles(path.sample(t, this.angles), this.claw);
+    }
+
+    @Test
+    void goesAroundTheFrameInsteadOfThroughIt() {
+        assertTrue(ArmPathPlanner.isInKeepOut(0, 8, 0), "the straight line should cross the frame");
+
+        ArmPath path = this.planner.plan(START, GOAL, false);
+
+        assertNotNull(path);
+        for (double t = 0; t <= path.getTotalTime(); t += TIME_STEP) {
+            ArmCartesianState claw = clawAt(path, t);
+            assertFalse(isInFrame(claw), "claw inside the frame at " + claw + ", " + t + " s in");
+        }
+    }
+
+    @Test
+    void clearMovesGoStraight() {
+        ArmPath path = this.planner.plan(new Vec3(30, 40, 0), new Vec3(40, 40, 0), false);
+
+        assertNotNull(path);
+        for (double t = 0; t <= path.getTotalTime(); t += TIME_STEP) {
+            ArmCartesianState claw = clawAt(path, t);
+            assertEquals(40, claw.getY(), 0.5);
+            assertEquals(0, claw.getZ(), 0.5);
+        }
+    }
+
+    @Test
+    void endsAtTheGoal() {
+        ArmPath path = this.planner.plan(START, GOAL, false);
+
+        assertNotNull(path);
+        ArmCartesianState claw = clawAt(path, path.getTotalTime());
+        assertEquals(GOAL.getX(), claw.getX(), 1e-6);
+        assertEquals(GOAL.getY(), claw.getY(), 1e-6);
+        assertEquals(GOAL.getZ(), claw.getZ(), 1e-6);
+    }
+
+    @Test
+    void refusesGoalsInsideAKeepOutVolume() {
+        assertNull(this.planner.plan(START, new Vec3(0, 8, 0), false)); // in the frame
+        assertNull(this.planner.plan(START, new Vec3(40, -5, 0), false)); // under the floor
+    }
+}
@@ -0,0 +1,88 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class OdometrySampleQueueTest {
+    @Test
+    void emptyQueueHasNothingToPoll() {
+        OdometrySampleQueue queue = new OdometrySampleQueue(4);
+        double[] out = {7, 7, 7, 7};
+
+        assertFalse(queue.poll(out));
+        assertArrayEquals(new double[]{7, 7, 7, 7}, out);
+    }
+
+    @Test
+    void fullQueueDropsNewSamplesUntilOneIsRead() {
+        OdometrySampleQueue queue = new OdometrySampleQueue(5); // rounded up to 8
+        for (int i = 0; i < 8; i++) {
+            assertTrue(queue.offer(i, 0, 0, 0));
+        }
+        assertFalse(queue.offer(8, 0, 0, 0));
+        assertFalse(queue.offer(9, 0, 0, 0));
+        assertEquals(2, queue.getDropped());
+
+        double[] out = new double[4];
+        assertTrue(queue.poll(out));
+        assertEquals(0, out[0]);
+        assertTrue(queue.offer(10, 0, 0, 0));
+    }
+
+    @Test
+    void samplesComeOutInOrderAcrossTheWraparound() {
+        OdometrySampleQueue queue = new OdometrySampleQueue(4);
+        double[] out = new double[4];
+        int next = 0;
+        for (int i = 0; i < 100; i++) {
+            assertTrue(queue.offer(i, i + 0.1, i + 0.2, i + 0.3));
+            if (i % 3 != 0) { // fall behind every now and then
+                while (queue.poll(out)) {
+                    assertArrayEquals(new double[]{next, next + 0.1, next + 0.2, next + 0.3}, out);
+                    next++;
+                }
+            }
+        }
+        while (queue.poll(out)) {
+            assertEquals(next, out[0]);
+            next++;
+        }
+        assertEquals(100, next);
+        assertEquals(0, queue.getDropped());
+    }
+
+    @Test
+    void readerGetsEverySampleFromAnotherThread() throws InterruptedException {
+        OdometrySampleQueue queue = new OdometrySampleQueue(16);
+        int sampleCount = 100000;
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < sampleCount; i++) {
+                while (!queue.offer(i, -i, 2 * i, 3 * i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        writer.start();
+
+        double[] out = new double[4];
+        for (int expected = 0; expected < sampleCount; ) {
+            if (queue.poll(out)) {
+                assertArrayEquals(new double[]{expected, -expected, 2 * expected, 3 * expected}, out);
+                expected++;
+            } else {
+                Thread.yield();
+            }
+        }
+        writer.join();
+    }
+
+    @Test
+    void rejectsAnEmptyCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new OdometrySampleQueue(0));
+    }
+}
@@ -0,0 +1,103 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PoseHistoryTest {
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void emptyHistoryHasNoPose() {
+        PoseHistory history = new PoseHistory(4);
+        double[] out = {7, 7, 7};
+
+        assertFalse(history.getPoseAt(1, out));
+        assertArrayEquals(new double[]{7, 7, 7}, out);
+        assertNull(history.getPoseAt(1));
+        assertTrue(Double.isNaN(history.getOldestTimestamp()));
+    }
+
+    @Test
+    void interpolatesBetweenSamples() {
+        PoseHistory history = new PoseHistory(4);
+        history.add(1, 0, 0, 0);
+        history.add(2, 2, 4, Math.PI / 2);
+        double[] out = new double[3];
+
+        assertTrue(history.getPoseAt(1.5, out));
+        assertArrayEquals(new double[]{1, 2, Math.PI / 4}, out, EPSILON);
+        assertTrue(history.getPoseAt(2, out));
+        assertArrayEquals(new double[]{2, 4, Math.PI / 2}, out, EPSILON);
+    }
+
+    @Test
+    void timesOutsideTheSamplesGetTheOldestOrNewestPose() {
+        PoseHistory history = new PoseHistory(4);
+        history.add(1, 1, 2, 0.1);
+        history.add(2, 3, 4, 0.2);
+        double[] out = new double[3];
+
+        assertTrue(history.getPoseAt(0, out));
+        assertArrayEquals(new double[]{1, 2, 0.1}, out, EPSILON);
+        assertTrue(history.getPoseAt(5, out));
+        assertArrayEquals(new double[]{3, 4, 0.2}, out, EPSILON);
+    }
+
+    @Test
+    void headingGoesTheShortWayAround() {
+        PoseHistory history = new PoseHistory(4);
+        history.add(1, 0, 0, Math.toRadians(170));
+        history.add(2, 0, 0, Math.toRadians(-170));
+        double[] out = new double[3];
+
+        assertTrue(history.getPoseAt(1.5, out));
+        assertEquals(-1, Math.cos(out[2]), EPSILON);
+    }
+
+    @Test
+    void forgetsTheOldestSamplesWhenFull() {
+        PoseHistory history = new PoseHistory(3);
+        for (int i = 1; i <= 5; i++) {
+            history.add(i, i * 10, 0, 0);
+        }
+        double[] out = new double[3];
+
+        assertEquals(3, history.size());
+        assertEquals(3, history.getOldestTimestamp(), EPSILON);
+        assertTrue(history.getPoseAt(1, out));
+        assertEquals(30, out[0], EPSILON);
+        assertTrue(history.getPoseAt(4.5, out));
+        assertEquals(45, out[0], EPSILON);
+    }
+
+    @Test
+    void ignoresSamplesThatAreNotNewer() {
+        PoseHistory history = new PoseHistory(4);
+        history.add(2, 1, 1, 0);
+        history.add(1, 5, 5, 0);
+        history.add(2, 5, 5, 0);
+
+        assertEquals(1, history.size());
+    }
+
+    @Test
+    void clearForgetsEverything() {
+        PoseHistory history = new PoseHistory(4);
+        history.add(1, 1, 1, 0);
+        history.clear();
+
+        assertEquals(0, history.size());
+        assertNull(history.getPoseAt(1));
+    }
+
+    @Test
+    void rejectsAnEmptyCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new PoseHistory(0));
+    }
+}
@@ -0,0 +1,77 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class SetpointBufferTest {
+    private static void publish(SetpointBuffer buffer, double value) {
+        Arrays.fill(buffer.beginWrite(), value);
+        buffer.publish();
+    }
+
+    @Test
+    void readsZerosBeforeAnythingIsPublished() {
+        assertArrayEquals(new double[]{0, 0, 0}, new SetpointBuffer(3).read());
+    }
+
+    @Test
+    void readsTheNewestPublishedSnapshot() {
+        SetpointBuffer buffer = new SetpointBuffer(3);
+        publish(buffer, 1);
+        publish(buffer, 2);
+
+        assertArrayEquals(new double[]{2, 2, 2}, buffer.read());
+    }
+
+    @Test
+    void unpublishedWritesAreNotSeen() {
+        SetpointBuffer buffer = new SetpointBuffer(3);
+        publish(buffer, 1);
+        Arrays.fill(buffer.beginWrite(), 2);
+
+        assertArrayEquals(new double[]{1, 1, 1}, buffer.read());
+    }
+
+    @Test
+    void aReadSnapshotDoesNotChangeUntilTheNextRead() {
+        SetpointBuffer buffer = new SetpointBuffer(3);
+        publish(buffer, 1);
+        double[] snapshot = buffer.read();
+        publish(buffer, 2);
+        publish(buffer, 3);
+
+        assertArrayEquals(new double[]{1, 1, 1}, snapshot);
+        assertArrayEquals(new double[]{3, 3, 3}, buffer.read());
+    }
+
+    @Test
+    void readerNeverSeesHalfOfAWrite() throws InterruptedException {
+        SetpointBuffer buffer = new SetpointBuffer(8);
+        AtomicBoolean done = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= 100000; i++) {
+                publish(buffer, i);
+            }
+            done.set(true);
+        });
+        writer.start();
+
+        double last = 0;
+        while (!done.get()) {
+            double[] snapshot = buffer.read();
+            for (double value : snapshot) {
+                assertEquals(snapshot[0], value);
+            }
+            // Snapshots only ever move forwards
+            assertEquals(true, snapshot[0] >= last);
+            last = snapshot[0];
+        }
+        writer.join();
+        assertEquals(100000, buffer.read()[0]);
+    }
+}
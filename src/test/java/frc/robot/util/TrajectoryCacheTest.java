@@ -0,0 +1,69 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class TrajectoryCacheTest {
+    private static final double POSITION_QUANTUM = 0.05; // meters
+    private static final double ANGLE_QUANTUM = 5; // degrees
+
+    private static TrajectoryCache cache(int capacity) {
+        return new TrajectoryCache(capacity, POSITION_QUANTUM, ANGLE_QUANTUM, new TrajectoryConfig(2, 2), new TrajectoryConfig(2, 2).setReversed(true));
+    }
+
+    private static Trajectory get(TrajectoryCache cache, double startX, double endX) {
+        return cache.get(new Pose2d(startX, 1, new Rotation2d()), List.of(), new Pose2d(endX, 1, new Rotation2d()), false);
+    }
+
+    @Test
+    void requestsInsideOneQuantumShareATrajectory() {
+        TrajectoryCache cache = cache(4);
+        Trajectory first = get(cache, 1, 3);
+        Trajectory second = cache.get(new Pose2d(1.02, 0.98, Rotation2d.fromDegrees(2)), List.of(), new Pose2d(2.99, 1.01, Rotation2d.fromDegrees(-2)), false);
+
+        assertSame(first, second);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void generatesFromTheRoundedPoses() {
+        Trajectory trajectory = get(cache(4), 1.02, 3);
+
+        assertEquals(1.0, trajectory.getInitialPose().getX(), 1e-9);
+    }
+
+    @Test
+    void differentRequestsGetDifferentKeys() {
+        TrajectoryCache cache = cache(4);
+        Trajectory forwards = get(cache, 1, 3);
+
+        assertNotSame(forwards, get(cache, 1.1, 3));
+        assertNotSame(forwards, cache.get(new Pose2d(1, 1, new Rotation2d()), List.of(), new Pose2d(3, 1, new Rotation2d()), true));
+        assertNotSame(forwards, cache.get(new Pose2d(1, 1, new Rotation2d()), List.of(new Translation2d(2, 1.2)), new Pose2d(3, 1, new Rotation2d()), false));
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    void forgetsTheLeastRecentlyUsedTrajectory() {
+        TrajectoryCache cache = cache(2);
+        Trajectory a = get(cache, 1, 3);
+        Trajectory b = get(cache, 1, 4);
+        assertSame(a, get(cache, 1, 3)); // a is now the most recently used
+        get(cache, 1, 5); // evicts b
+
+        assertEquals(2, cache.size());
+        assertSame(a, get(cache, 1, 3));
+        assertNotSame(b, get(cache, 1, 4));
+    }
+}
@@ -0,0 +1,51 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import frc.robot.Constants.FieldConstants;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class TrajectoryMirrorTest {
+    private static final double EPSILON = 1e-9;
+
+    private static Trajectory.State state(double time, double x, double y, double headingDegrees, double curvature) {
+        return new Trajectory.State(time, 1.5, 0.5, new Pose2d(x, y, Rotation2d.fromDegrees(headingDegrees)), curvature);
+    }
+
+    @Test
+    void mirrorsAcrossTheMiddleOfTheField() {
+        Trajectory mirrored = TrajectoryMirror.mirror(new Trajectory(List.of(state(0.25, 1, 2, 30, 0.5))));
+
+        Trajectory.State state = mirrored.getStates().get(0);
+        assertEquals(MathUtil.inchesToMeters(FieldConstants.FIELD_X_LENGTH) - 1, state.poseMeters.getX(), EPSILON);
+        assertEquals(2, state.poseMeters.getY(), EPSILON);
+        assertEquals(150, state.poseMeters.getRotation().getDegrees(), EPSILON);
+        assertEquals(-0.5, state.curvatureRadPerMeter, EPSILON);
+        assertEquals(0.25, state.timeSeconds, EPSILON);
+        assertEquals(1.5, state.velocityMetersPerSecond, EPSILON);
+        assertEquals(0.5, state.accelerationMetersPerSecondSq, EPSILON);
+    }
+
+    @Test
+    void mirroringTwiceGivesTheOriginal() {
+        Trajectory original = new Trajectory(List.of(state(0, 1, 2, 0, 0), state(0.5, 2, 2.5, 45, 0.8), state(1, 3, 4, -100, -0.3)));
+        Trajectory roundTrip = TrajectoryMirror.mirror(TrajectoryMirror.mirror(original));
+
+        assertEquals(original.getStates().size(), roundTrip.getStates().size());
+        for (int i = 0; i < original.getStates().size(); i++) {
+            Trajectory.State expected = original.getStates().get(i);
+            Trajectory.State actual = roundTrip.getStates().get(i);
+            assertEquals(expected.timeSeconds, actual.timeSeconds, EPSILON);
+            assertEquals(expected.poseMeters.getX(), actual.poseMeters.getX(), EPSILON);
+            assertEquals(expected.poseMeters.getY(), actual.poseMeters.getY(), EPSILON);
+            assertEquals(expected.poseMeters.getRotation().getCos(), actual.poseMeters.getRotation().getCos(), EPSILON);
+            assertEquals(expected.poseMeters.getRotation().getSin(), actual.poseMeters.getRotation().getSin(), EPSILON);
+            assertEquals(expected.curvatureRadPerMeter, actual.curvatureRadPerMeter, EPSILON);
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package frc.robot.tools;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Fits feedforward gains from a SysId data file (like the ones in {@code .SysId}) so they don't have to be copied over from the SysId tool by hand.
+ * Run it with {@code ./gradlew analyzeSysId} (newest file in {@code .SysId}) or {@code ./gradlew analyzeSysId -PsysIdFile=<file or directory>}.
+ * <p>
+ * The file is read with Jackson's streaming parser straight into flat {@code double} arrays, never building a tree of the whole document. Then:
+ * <ol>
+ *     <li>Velocity is median filtered, and acceleration is the central difference of the filtered velocity.</li>
+ *     <li>Samples where the mechanism is barely moving are dropped, and so is the start of each fast (dynamic) test up to its peak acceleration, where
+ *     the voltage step hasn't turned into motion yet.</li>
+ *     <li>{@code V = kS * sign(v) + kV * v + kA * a} is fit by ordinary least squares over every sample left. Drivetrain files fit both sides together.</li>
+ *     <li>The velocity P gain comes from an LQR on the fitted model, like SysId's default feedback analysis (without measurement delay).</li>
+ * </ol>
+ * Prints the gains with r^2 and the RMS error, and writes them as constants ready to paste into {@code DriveConstants}.
+ */
+public final class SysIdAnalyzer {
+    private SysIdAnalyzer() {
+        throw new UnsupportedOperationException("SysIdAnalyzer is a utility class and cannot be instantiated!");
+    }
+
+    private static final String[] TEST_NAMES = {"slow-forward", "slow-backward", "fast-forward", "fast-backward"};
+    private static final int MEDIAN_WINDOW = 9; // same as SysId's default
+    private static final double VELOCITY_THRESHOLD = 0.1; // units per second, slower samples are mostly static friction and noise
+
+    // LQR weights for the velocity gain: the largest velocity error and voltage we're willing to accept
+    private static final double MAX_VELOCITY_ERROR = 1.0; // units per second
+    private static final double MAX_CONTROL_EFFORT = 7.0; // volts
+    private static final double FEEDBACK_PERIOD = 0.02; // the RIO loop the drive velocity PIDs run in
+    private static final int DARE_ITERATIONS = 1000;
+
+    /**
+     * Every sample of one test, flattened: sample {@code i} column {@code c} is {@code values[i * width + c]}.
+     */
+    private static final class Samples {
+        double[] values = new double[4096];
+        int width = -1;
+        int count;
+
+        double get(int sample, int column) {
+            return this.values[sample * this.width + column];
+        }
+    }
+
+    /**
+     * The samples that passed filtering, ready for the fit.
+     */
+    private static final class FitData {
+        double[] voltage = new double[1024];
+        double[] velocity = new double[1024];
+        double[] acceleration = new double[1024];
+        int count;
+
+        void add(double volts, double vel, double accel) {
+            if (this.count == this.voltage.length) {
+                int capacity = this.count * 2;
+                this.voltage = Arrays.copyOf(this.voltage, capacity);
+                this.velocity = Arrays.copyOf(this.velocity, capacity);
+                this.acceleration = Arrays.copyOf(this.acceleration, capacity);
+            }
+            this.voltage[this.count] = volts;
+            this.velocity[this.count] = vel;
+            this.acceleration[this.count] = accel;
+            this.count++;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        long startNanos = System.nanoTime();
+        File input = new File(args.length > 0 ? args[0] : ".SysId");
+        if (input.isDirectory()) {
+            input = newestDataFile(input);
+        }
+
+        Samples[] tests = new Samples[TEST_NAMES.length];
+        String[] metadata = new String[2]; // test type, units
+        double unitsPerRotation = parse(input, tests, metadata);
+        String testType = metadata[0], units = metadata[1];
+
+        // Which columns hold the voltage and velocity, for each side of a drivetrain or the one mechanism otherwise
+        int[][] columns;
+        if ("Drivetrain".equals(testType)) {
+            columns = new int[][]{{1, 5}, {2, 6}}; // timestamp, l volts, r volts, l pos, r pos, l vel, r vel, angle, angular rate
+        } else if ("Simple".equals(testType)) {
+            columns = new int[][]{{1, 3}}; // timestamp, volts, pos, vel
+        } else {
+            throw new IllegalArgumentException("Can't analyze \"" + testType + "\" data, only Drivetrain and Simple");
+        }
+
+        FitData data = new FitData();
+        for (int test = 0; test < tests.length; test++) {
+            if (tests[test] == null || tests[test].count < MEDIAN_WINDOW) {
+                throw new IllegalArgumentException(input + " is missing the " + TEST_NAMES[test] + " test");
+            }
+            boolean dynamic = TEST_NAMES[test].startsWith("fast");
+            int before = data.count;
+            for (int[] side : columns) {
+                addTest(tests[test], side[0], side[1], dynamic, data);
+            }
+            System.out.printf(Locale.ROOT, "%-14s %5d of %5d samples used%n", TEST_NAMES[test], data.count - before, tests[test].count * columns.length);
+        }
+
+        double[] gains = fit(data);
+        double ks = gains[0], kv = gains[1], ka = gains[2];
+        double[] quality = fitQuality(data, gains);
+        double kp = velocityGain(kv, ka);
+
+        System.out.printf(Locale.ROOT, "%s: %s in %s (%.4f per rotation), %d samples%n", input.getPath(), testType, units, unitsPerRotation, data.count);
+        System.out.printf(Locale.ROOT, "kS = %.5f V, kV = %.5f V*s/unit, kA = %.5f V*s^2/unit, kP = %.5f%n", ks, kv, ka, kp);
+        System.out.printf(Locale.ROOT, "r^2 = %.5f, RMSE = %.4f V%n", quality[0], quality[1]);
+
+        File output = args.length > 1 ? new File(args[1]) : new File("build/sysid/" + input.getName().replaceFirst("\\.json$", "") + ".constants.txt");
+        if (output.getParentFile() != null) {
+            output.getParentFile().mkdirs();
+        }
+        try (Writer out = new FileWriter(output)) {
+            writeConstants(out, input, testType, units, data.count, quality, ks, kv, ka, kp);
+        }
+        System.out.printf(Locale.ROOT, "Wrote %s in %.0f ms%n", output.getPath(), (System.nanoTime() - startNanos) / 1e6);
+    }
+
+    private static File newestDataFile(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith("sysid_data") && name.endsWith(".json"));
+        if (files == null || files.length == 0) {
+            throw new IllegalArgumentException("No sysid_data*.json files in " + directory);
+        }
+        Arrays.sort(files); // the names end in the date and time, so the newest sorts last
+        return files[files.length - 1];
+    }
+
+    /**
+     * Streams through the file, copying each test's samples into {@code tests} and the test type and units into {@code metadata}.
+     *
+     * @return The units per rotation
+     */
+    private static double parse(File file, Samples[] tests, String[] metadata) throws IOException {
+        double unitsPerRotation = Double.NaN;
+        try (JsonParser parser = new JsonFactory().createParser(file)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException(file + " isn't a SysId data file");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                int test = Arrays.asList(TEST_NAMES).indexOf(name);
+                if (test >= 0 && value == JsonToken.START_ARRAY) {
+                    tests[test] = readSamples(parser, name);
+                } else if ("test".equals(name)) {
+                    metadata[0] = parser.getText();
+                } else if ("units".equals(name)) {
+                    metadata[1] = parser.getText();
+                } else if ("unitsPerRotation".equals(name)) {
+                    unitsPerRotation = parser.getDoubleValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return unitsPerRotation;
+    }
+
+    private static Samples readSamples(JsonParser parser, String test) throws IOException {
+        Samples samples = new Samples();
+        while (parser.nextToken() == JsonToken.START_ARRAY) {
+            int column = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                int index = samples.count * Math.max(samples.width, 0) + column;
+                if (index == samples.values.length) {
+                    samples.values = Arrays.copyOf(samples.values, samples.values.length * 2);
+                }
+                samples.values[index] = parser.getDoubleValue();
+                column++;
+            }
+            if (samples.width == -1) {
+                samples.width = column;
+                // The first sample was written as if the width was 0, which happens to be the right place
+            } else if (column != samples.width) {
+                throw new IOException("Sample " + samples.count + " of " + test + " has " + column + " values instead of " + samples.width);
+            }
+            samples.count++;
+        }
+        return samples;
+    }
+
+    /**
+     * Filters one side of one test and adds what's left to the fit.
+     */
+    private static void addTest(Samples samples, int voltageColumn, int velocityColumn, boolean dynamic, FitData data) {
+        int count = samples.count;
+        double[] velocity = new double[count];
+        double[] window = new double[MEDIAN_WINDOW];
+        int half = MEDIAN_WINDOW / 2;
+        for (int i = 0; i < count; i++) {
+            if (i < half || i >= count - half) {
+                velocity[i] = samples.get(i, velocityColumn);
+                continue;
+            }
+            for (int j = 0; j < MEDIAN_WINDOW; j++) {
+                window[j] = samples.get(i - half + j, velocityColumn);
+            }
+            Arrays.sort(window);
+            velocity[i] = window[half];
+        }
+
+        double[] acceleration = new double[count];
+        int peakAcceleration = 1;
+        for (int i = 1; i < count - 1; i++) {
+            double dt = samples.get(i + 1, 0) - samples.get(i - 1, 0);
+            acceleration[i] = dt > 0 ? (velocity[i + 1] - velocity[i - 1]) / dt : Double.NaN;
+            if (!Double.isNaN(acceleration[i]) && Math.abs(acceleration[i]) > Math.abs(acceleration[peakAcceleration])) {
+                peakAcceleration = i;
+            }
+        }
+
+        // Skip the edges where the filter and the central difference don't have both neighbours
+        int start = dynamic ? Math.max(peakAcceleration, half) : half;
+        for (int i = start; i < count - half; i++) {
+            if (Math.abs(velocity[i]) < VELOCITY_THRESHOLD || Double.isNaN(acceleration[i])) {
+                continue;
+            }
+            data.add(samples.get(i, voltageColumn), velocity[i], acceleration[i]);
+        }
+    }
+
+    /**
+     * Ordinary least squares through the normal equations, the 3x3 system is solved with Gaussian elimination.
+     *
+     * @return {kS, kV, kA}
+     */
+    private static double[] fit(FitData data) {
+        double[][] xtx = new double[3][3];
+        double[] xty = new double[3];
+        double[] row = new double[3];
+        for (int i = 0; i < data.count; i++) {
+            row[0] = Math.signum(data.velocity[i]);
+            row[1] = data.velocity[i];
+            row[2] = data.acceleration[i];
+            for (int r = 0; r < 3; r++) {
+                for (int c = 0; c < 3; c++) {
+                    xtx[r][c] += row[r] * row[c];
+                }
+                xty[r] += row[r] * data.voltage[i];
+            }
+        }
+        return solve(xtx, xty);
+    }
+
+    private static double[] solve(double[][] a, double[] b) {
+        int n = b.length;
+        for (int pivot = 0; pivot < n; pivot++) {
+            int best = pivot;
+            for (int r = pivot + 1; r < n; r++) {
+                if (Math.abs(a[r][pivot]) > Math.abs(a[best][pivot])) {
+                    best = r;
+                }
+            }
+            if (Math.abs(a[best][pivot]) < 1e-12) {
+                throw new IllegalArgumentException("Not enough variation in the data to fit all the gains");
+            }
+            double[] rowSwap = a[pivot];
+            a[pivot] = a[best];
+            a[best] = rowSwap;
+            double valueSwap = b[pivot];
+            b[pivot] = b[best];
+            b[best] = valueSwap;
+            for (int r = pivot + 1; r < n; r++) {
+                double factor = a[r][pivot] / a[pivot][pivot];
+                for (int c = pivot; c < n; c++) {
+                    a[r][c] -= factor * a[pivot][c];
+                }
+                b[r] -= factor * b[pivot];
+            }
+        }
+        double[] x = new double[n];
+        for (int r = n - 1; r >= 0; r--) {
+            double sum = b[r];
+            for (int c = r + 1; c < n; c++) {
+                sum -= a[r][c] * x[c];
+            }
+            x[r] = sum / a[r][r];
+        }
+        return x;
+    }
+
+    /**
+     * @return {r^2, RMS error in volts}
+     */
+    private static double[] fitQuality(FitData data, double[] gains) {
+        double mean = 0;
+        for (int i = 0; i < data.count; i++) {
+            mean += data.voltage[i];
+        }
+        mean /= data.count;
+        double residualSquares = 0, totalSquares = 0;
+        for (int i = 0; i < data.count; i++) {
+            double predicted = gains[0] * Math.signum(data.velocity[i]) + gains[1] * data.velocity[i] + gains[2] * data.acceleration[i];
+            double residual = data.voltage[i] - predicted;
+            residualSquares += residual * residual;
+            totalSquares += (data.voltage[i] - mean) * (data.voltage[i] - mean);
+        }
+        return new double[]{1 - residualSquares / totalSquares, Math.sqrt(residualSquares / data.count)};
+    }
+
+    /**
+     * LQR gain for velocity control of {@code dv/dt = -kV/kA * v + 1/kA * u}, discretized at {@link #FEEDBACK_PERIOD}. The system is 1x1, so the
+     * discrete algebraic Riccati equation is solved by iterating it.
+     */
+    private static double velocityGain(double kv, double ka) {
+        double a = -kv / ka;
+        double b = 1 / ka;
+        double discreteA = Math.exp(a * FEEDBACK_PERIOD);
+        double discreteB = (discreteA - 1) / a * b;
+        double q = 1 / (MAX_VELOCITY_ERROR * MAX_VELOCITY_ERROR);
+        double r = 1 / (MAX_CONTROL_EFFORT * MAX_CONTROL_EFFORT);
+
+        double p = q;
+        for (int i = 0; i < DARE_ITERATIONS; i++) {
+            double next = discreteA * discreteA * p - (discreteA * p * discreteB) * (discreteA * p * discreteB) / (r + discreteB * discreteB * p) + q;
+            if (Math.abs(next - p) < 1e-12 * Math.max(1, p)) {
+                p = next;
+                break;
+            }
+            p = next;
+        }
+        return discreteB * p * discreteA / (r + discreteB * discreteB * p);
+    }
+
+    private static void writeConstants(Writer out, File input, String testType, String units, int samples, double[] quality,
+                                       double ks, double kv, double ka, double kp) throws IOException {
+        String unit = units.toUpperCase(Locale.ROOT).replaceFirst("S$", "");
+        out.write(String.format(Locale.ROOT, "// From %s (%s, %s) by SysIdAnalyzer: %d samples, r^2 = %.5f, RMSE = %.4f V%n",
+                input.getName(), testType, units, samples, quality[0], quality[1]));
+        out.write(String.format(Locale.ROOT, "public static final double KS_VOLTS = %.5f;%n", ks));
+        out.write(String.format(Locale.ROOT, "public static final double KV_VOLTS_SECONDS_PER_%s = %.5f;%n", unit, kv));
+        out.write(String.format(Locale.ROOT, "public static final double KA_VOLTS_SECONDS_SQ_PER_%s = %.5f;%n", unit, ka));
+        out.write(String.format(Locale.ROOT, "public static final double P_DRIVE_VEL = %.5f;%n", kp));
+    }
+}
@@ -0,0 +1,56 @@
+package frc.robot.tools;
+
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryUtil;
+import frc.robot.util.TrajectoryBinary;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Compiles every PathWeaver trajectory in a directory into the {@link TrajectoryBinary} format. The {@code compileTrajectories} Gradle task runs it on
+ * {@code src/main/deploy/paths} before deploying, so the robot never parses the JSON itself.
+ * <p>
+ * Arguments: the directory with the {@code .wpilib.json} files, and the directory to write the {@code .wpilib.bin} files to.
+ */
+public final class TrajectoryCompiler {
+    private TrajectoryCompiler() {
+        throw new UnsupportedOperationException("TrajectoryCompiler is a utility class and cannot be instantiated!");
+    }
+
+    private static final String JSON_EXTENSION = ".wpilib.json";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: TrajectoryCompiler <PathWeaver output directory> <compiled output directory>");
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        Files.createDirectories(output);
+
+        int compiled = 0;
+        long jsonBytes = 0, binaryBytes = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(input, "*" + JSON_EXTENSION)) {
+            for (Path json : files) {
+                String name = json.getFileName().toString();
+                Path binary = output.resolve(name.substring(0, name.length() - JSON_EXTENSION.length()) + TrajectoryBinary.EXTENSION);
+
+                Trajectory trajectory = TrajectoryUtil.fromPathweaverJson(json);
+                TrajectoryBinary.write(trajectory, binary);
+
+                // Make sure what the robot will read is what PathWeaver wrote
+                if (!TrajectoryBinary.read(binary).getStates().equals(trajectory.getStates())) {
+                    throw new IOException(binary + " doesn't match " + json);
+                }
+                compiled++;
+                jsonBytes += Files.size(json);
+                binaryBytes += Files.size(binary);
+            }
+        }
+        System.out.printf(Locale.ROOT, "Compiled %d trajectories into %s (%.1f KB of JSON -> %.1f KB)%n", compiled, output, jsonBytes / 1024.0, binaryBytes / 1024.0);
+    }
+}